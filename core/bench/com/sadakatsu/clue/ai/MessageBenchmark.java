@@ -0,0 +1,210 @@
+package com.sadakatsu.clue.ai;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.clue.cards.Deal;
+import com.sadakatsu.clue.cards.Hand;
+import com.sadakatsu.clue.cards.Suggestion;
+import com.sadakatsu.clue.exception.InvalidSuggestionString;
+
+/**
+ * MessageBenchmark measures how SpeedClueAI reads the server's messages: each
+ * benchmark matches one kind of message against SpeedClueAI's pattern for it
+ * and decodes the groups the way SpeedClueAI's handler does.  It lives in
+ * SpeedClueAI's package so that it uses the very same Patterns.
+ *
+ * The messages are generated from seeded Deals in the lower case SpeedClueAI
+ * converts them to.  Run with "-prof gc" to see the bytes allocated per
+ * message.
+ *
+ * @author Joseph A. Craig
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark {
+	//********************* Protected and Private Fields *********************//
+	private int next;
+	private String[] accusations;
+	private String[] disproves;
+	private String[] resets;
+	private String[] suggestions;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Generates the messages.
+	 */
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		List<Suggestion> possible = Suggestion.list();
+
+		accusations = new String[INPUTS];
+		disproves = new String[INPUTS];
+		resets = new String[INPUTS];
+		suggestions = new String[INPUTS];
+		for (int i = 0; i < INPUTS; ++i) {
+			int players = Deal.MIN_PLAYERS + random.nextInt(
+				Deal.MAX_PLAYERS - Deal.MIN_PLAYERS + 1
+			);
+			Deal deal = Deal.random(players, random);
+			int index = random.nextInt(players);
+			Hand hand = deal.getHands().get(index);
+			Suggestion s = possible.get(random.nextInt(possible.size()));
+			int suggester = random.nextInt(players);
+
+			accusations[i] = String.format(
+				"accusation %d %s %s",
+					suggester,
+					s.getAbbreviation(),
+					s.equals(deal.getSolution()) ? "+" : "-"
+			);
+			disproves[i] = String.format(
+				"disprove %d %s",
+					suggester,
+					s.getAbbreviation()
+			);
+			resets[i] = String.format(
+				"reset %d %d %s",
+					players,
+					index,
+					hand.getAbbreviation()
+			);
+
+			String disproof = "-";
+			for (int d = 1; d < players; ++d) {
+				int p = (suggester + d) % players;
+				Hand h = deal.getHands().get(p);
+				if (h.canDisprove(s)) {
+					disproof = String.valueOf(p);
+					if (p == index || suggester == index) {
+						Card shown = h.getDisproveCards(s).iterator().next();
+						disproof += " " + shown.getAbbreviation();
+					}
+					break;
+				}
+			}
+			suggestions[i] = String.format(
+				"suggestion %d %s %s",
+					suggester,
+					s.getAbbreviation(),
+					disproof
+			).toLowerCase();
+
+			accusations[i] = accusations[i].toLowerCase();
+			disproves[i] = disproves[i].toLowerCase();
+			resets[i] = resets[i].toLowerCase();
+		}
+		next = 0;
+	}
+
+	/**
+	 * Reads an "accusation" message.
+	 * @return
+	 * A sum of the decoded values, so that none of them is eliminated.
+	 * @throws InvalidSuggestionString
+	 */
+	@Benchmark
+	public int accusation() throws InvalidSuggestionString {
+		Matcher m = SpeedClueAI.accusationMessagePattern.matcher(
+			accusations[advance()]
+		);
+		m.matches();
+		int accuser = Integer.parseInt(m.group("accuser"));
+		Suggestion accusation = Suggestion.parse(m.group("accusation"));
+		boolean correct = m.group("correct").equals("+");
+		return accuser + accusation.getId() + (correct ? 1 : 0);
+	}
+
+	/**
+	 * Reads a "disprove" message.
+	 * @return
+	 * A sum of the decoded values, so that none of them is eliminated.
+	 * @throws InvalidSuggestionString
+	 */
+	@Benchmark
+	public int disprove() throws InvalidSuggestionString {
+		Matcher m = SpeedClueAI.disproveMessagePattern.matcher(
+			disproves[advance()]
+		);
+		m.matches();
+		int suggester = Integer.parseInt(m.group("suggester"));
+		Suggestion suggestion = Suggestion.parse(m.group("suggestion"));
+		return suggester + suggestion.getId();
+	}
+
+	/**
+	 * Reads a "reset" message.
+	 * @return
+	 * A sum of the decoded values, so that none of them is eliminated.
+	 */
+	@Benchmark
+	public int reset() {
+		Matcher m = SpeedClueAI.resetMessagePattern.matcher(resets[advance()]);
+		m.matches();
+		int sum = Integer.parseInt(m.group("playerCount"));
+		sum += Integer.parseInt(m.group("playerIndex"));
+		for (String a : m.group("cards").split(" ")) {
+			Card c = Card.from(a);
+			sum += (c == null ? 0 : c.getId());
+		}
+		return sum;
+	}
+
+	/**
+	 * Reads a "suggestion" message.
+	 * @return
+	 * A sum of the decoded values, so that none of them is eliminated.
+	 * @throws InvalidSuggestionString
+	 */
+	@Benchmark
+	public int suggestion() throws InvalidSuggestionString {
+		Matcher m = SpeedClueAI.suggestionMessagePattern.matcher(
+			suggestions[advance()]
+		);
+		m.matches();
+		int sum = Integer.parseInt(m.group("suggester"));
+		sum += Suggestion.parse(m.group("suggestion")).getId();
+		String d = m.group("disprover");
+		sum += (d.equals("-") ? 0 : Integer.parseInt(d));
+		String c = m.group("shown");
+		sum += (c == null ? 0 : Card.from(c).getId());
+		return sum;
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * @return
+	 * The index of the next message to read.
+	 */
+	private int advance() {
+		next = (next + 1) & (INPUTS - 1);
+		return next;
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of messages of each kind, which must be a power of two.
+	 */
+	private static final int INPUTS = 1024;
+
+	private static final long SEED = 0x5eed5eedL;
+}
@@ -0,0 +1,173 @@
+package com.sadakatsu.clue.bench;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.clue.cards.Deal;
+import com.sadakatsu.clue.cards.Hand;
+import com.sadakatsu.clue.cards.Suggestion;
+import com.sadakatsu.clue.exception.InvalidSuggestionString;
+
+/**
+ * CardBenchmark measures the card model's primitives that the server and the
+ * AIs call on every message: looking up Cards and Suggestions from their
+ * abbreviations, finding the Cards a Hand can disprove a Suggestion with, and
+ * listing all the Suggestions.
+ *
+ * Each benchmark cycles through a fixed table of inputs chosen from a seed,
+ * so that the branch predictor and the caches see a realistic mix rather
+ * than one input over and over.  Run it with "-prof gc" (as the ant "bench"
+ * target does) to see the bytes allocated per call next to the time.
+ *
+ * @author Joseph A. Craig
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardBenchmark {
+	//********************* Protected and Private Fields *********************//
+	private int next;
+	private Hand[] hands;
+	private String[] cards;
+	private String[] suggestions;
+	private Suggestion[] queries;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Fills the tables of inputs.  Abbreviations are in the mixed case that
+	 * the AIs send, and the Hands come from seeded Deals of every size.
+	 */
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		List<Card> all = Card.list();
+		List<Suggestion> possible = Suggestion.list();
+
+		cards = new String[INPUTS];
+		hands = new Hand[INPUTS];
+		queries = new Suggestion[INPUTS];
+		suggestions = new String[INPUTS];
+		for (int i = 0; i < INPUTS; ++i) {
+			String abbreviation = all.get(
+				random.nextInt(all.size())
+			).getAbbreviation();
+			cards[i] = (
+				random.nextBoolean() ?
+					abbreviation :
+					abbreviation.toLowerCase()
+			);
+
+			Suggestion s = possible.get(random.nextInt(possible.size()));
+			suggestions[i] = s.getAbbreviation();
+			queries[i] = possible.get(random.nextInt(possible.size()));
+
+			int players = Deal.MIN_PLAYERS + random.nextInt(
+				Deal.MAX_PLAYERS - Deal.MIN_PLAYERS + 1
+			);
+			List<Hand> dealt = Deal.random(players, random).getHands();
+			hands[i] = dealt.get(random.nextInt(players));
+		}
+		next = 0;
+	}
+
+	/**
+	 * Card.from() with a two-letter abbreviation.
+	 * @return
+	 * The Card, which is returned so that the call is not eliminated.
+	 */
+	@Benchmark
+	public Card cardFrom() {
+		return Card.from(cards[advance()]);
+	}
+
+	/**
+	 * The Suggestion constructor that parses "Su We Ro".
+	 * @return
+	 * The new Suggestion.
+	 * @throws InvalidSuggestionString
+	 */
+	@Benchmark
+	public Suggestion suggestionConstructor() throws InvalidSuggestionString {
+		return new Suggestion(suggestions[advance()]);
+	}
+
+	/**
+	 * Suggestion.parse(), which returns the canonical instance.  It is the
+	 * baseline that the constructor is compared against.
+	 * @return
+	 * The canonical Suggestion.
+	 * @throws InvalidSuggestionString
+	 */
+	@Benchmark
+	public Suggestion suggestionParse() throws InvalidSuggestionString {
+		return Suggestion.parse(suggestions[advance()]);
+	}
+
+	/**
+	 * Hand.getDisproveCards(), which the server calls for every player it
+	 * asks to disprove a Suggestion.
+	 * @return
+	 * The Cards that could disprove the Suggestion.
+	 */
+	@Benchmark
+	public Collection<Card> disproveCards() {
+		int i = advance();
+		return hands[i].getDisproveCards(queries[i]);
+	}
+
+	/**
+	 * Hand.getDisproveMask(), the allocation-free form of getDisproveCards().
+	 * @return
+	 * The mask of the Cards that could disprove the Suggestion.
+	 */
+	@Benchmark
+	public int disproveMask() {
+		int i = advance();
+		return hands[i].getDisproveMask(queries[i]);
+	}
+
+	/**
+	 * Suggestion.getSuggestions(), which copies the list of all Suggestions.
+	 * @return
+	 * The copy.
+	 */
+	@Benchmark
+	public List<Suggestion> getSuggestions() {
+		return Suggestion.getSuggestions();
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * @return
+	 * The index of the next input to use.
+	 */
+	private int advance() {
+		next = (next + 1) & (INPUTS - 1);
+		return next;
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of inputs in each table, which must be a power of two.
+	 */
+	private static final int INPUTS = 1024;
+
+	private static final long SEED = 0x5eed5eedL;
+}
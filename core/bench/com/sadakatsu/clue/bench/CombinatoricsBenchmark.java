@@ -0,0 +1,136 @@
+package com.sadakatsu.clue.bench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.util.Combinations;
+import com.sadakatsu.util.Permutations;
+
+/**
+ * CombinatoricsBenchmark measures complete walks through Combinations and
+ * Permutations.  The Combinations walk the candidate hands of a player, as
+ * SpockAI does when it reasons about which Cards an opponent might hold, and
+ * the Permutations walk the seatings of a table, as the contest schedule
+ * does.  Each is walked both as Collections and through nextIndices(), so the
+ * cost of building the elements can be told apart from the cost of stepping.
+ *
+ * The times are per complete walk.  Run with "-prof gc" to see the bytes
+ * allocated per walk.
+ *
+ * @author Joseph A. Craig
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinatoricsBenchmark {
+	//********************* Protected and Private Fields *********************//
+	private List<Card> candidates;
+	private List<Integer> seats;
+
+	/**
+	 * The number of Cards in each combination, which is a hand size for some
+	 * number of players.
+	 */
+	@Param({"3", "4", "6"})
+	public int handSize;
+
+	/**
+	 * The number of players at the table.
+	 */
+	@Param({"4", "6"})
+	public int players;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Chooses the Cards and seats to walk.  The candidates are the Cards an
+	 * opponent might hold once a player has seen its own hand.
+	 */
+	@Setup
+	public void setUp() {
+		candidates = new ArrayList<>(
+			Card.list().subList(0, Card.COUNT - CANDIDATES_SEEN)
+		);
+		seats = new ArrayList<>();
+		for (int i = 0; i < players; ++i) {
+			seats.add(i);
+		}
+	}
+
+	/**
+	 * Walks the combinations of the candidate Cards as Collections.
+	 * @param sink
+	 * Consumes each combination.
+	 */
+	@Benchmark
+	public void combinations(Blackhole sink) {
+		for (Collection<Card> c : Combinations.get(candidates, handSize)) {
+			sink.consume(c);
+		}
+	}
+
+	/**
+	 * Walks the combinations of the candidate Cards as arrays of indices.
+	 * @param sink
+	 * Consumes each combination.
+	 */
+	@Benchmark
+	public void combinationIndices(Blackhole sink) {
+		Combinations<Card> c = Combinations.get(candidates, handSize);
+		c.iterator();
+		while (c.hasNext()) {
+			sink.consume(c.nextIndices());
+		}
+	}
+
+	/**
+	 * Walks the seatings of the table as Lists.
+	 * @param sink
+	 * Consumes each seating.
+	 */
+	@Benchmark
+	public void permutations(Blackhole sink) {
+		for (List<Integer> p : Permutations.get(seats)) {
+			sink.consume(p);
+		}
+	}
+
+	/**
+	 * Walks the seatings of the table as arrays of indices.
+	 * @param sink
+	 * Consumes each seating.
+	 */
+	@Benchmark
+	public void permutationIndices(Blackhole sink) {
+		Permutations<Integer> p = Permutations.get(seats);
+		p.iterator();
+		while (p.hasNext()) {
+			sink.consume(p.nextIndices());
+		}
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of Cards a player has ruled out before walking the
+	 * candidates: its own hand of three and one of each category seen.
+	 */
+	private static final int CANDIDATES_SEEN = 6;
+}
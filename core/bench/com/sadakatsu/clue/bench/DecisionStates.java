@@ -0,0 +1,178 @@
+package com.sadakatsu.clue.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.sadakatsu.clue.cards.Deal;
+import com.sadakatsu.clue.contestserver.Match;
+import com.sadakatsu.clue.contestserver.MatchUp;
+import com.sadakatsu.clue.contestserver.Player;
+import com.sadakatsu.clue.exception.ClueException;
+import com.sadakatsu.clue.exception.DisqualifiedPlayer;
+import com.sadakatsu.clue.exception.InvalidPlayerCount;
+
+/**
+ * DecisionStates captures the situations in which an AI must choose a
+ * Suggestion, so that the choice can be timed on its own.  An AI's knowledge
+ * at any point in a game is determined by the messages it has received, so a
+ * situation is captured as those messages: replaying them into a fresh AI
+ * (see Replayer) puts it in the same state as the player whose seat it takes.
+ *
+ * The games are played by the match engine between StubAIs, with seeded
+ * Deals, and every message each seat receives is recorded.  The seat whose
+ * messages are used rotates from game to game.  The "suggest" requests are
+ * left out of the replayed messages: the Suggestions the seat actually made
+ * reach the AI through the broadcasts that follow them, and leaving the
+ * requests out keeps a replay from costing as much as the decisions being
+ * measured.  The AI therefore does not remember having made those
+ * Suggestions itself, which only changes which of the 324 Suggestions it
+ * still considers.
+ *
+ * @author Joseph A. Craig
+ */
+public class DecisionStates {
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Plays and records games until enough situations have been captured.
+	 * @param players
+	 * The number of players at the table.
+	 * @param phase
+	 * The point in a seat's game at which to capture its situation.
+	 * @param seed
+	 * The seed of the Deals and the StubAIs.
+	 * @param count
+	 * The number of situations to capture, one per game.
+	 * @return
+	 * The situations, each as the messages to replay up to the decision.
+	 * @throws ClueException
+	 * If the engine rejects a StubAI's move, which would be a bug.
+	 * @throws IOException
+	 */
+	public static List<List<String>> record(
+		int players,
+		Phase phase,
+		long seed,
+		int count
+	) throws ClueException, IOException {
+		List<List<String>> states = new ArrayList<>();
+		long tableSeed = MatchUp.deriveSeed(seed, players);
+		for (int game = 0; states.size() < count; ++game) {
+			if (game >= count * MAX_GAMES_PER_STATE) {
+				throw new IllegalStateException(
+					String.format(
+						"Only %d of %d %s situations were found.",
+							states.size(),
+							count,
+							phase
+					)
+				);
+			}
+
+			long gameSeed = MatchUp.deriveSeed(tableSeed, game);
+			List<RecordingConnection> seats = new ArrayList<>();
+			List<Player> table = new ArrayList<>();
+			for (int i = 0; i < players; ++i) {
+				String identifier = "Stub" + i;
+				RecordingConnection connection = new RecordingConnection(
+					new StubConnection(
+						new StubAI(identifier, MatchUp.deriveSeed(gameSeed, i))
+					)
+				);
+				seats.add(connection);
+				table.add(new Player(identifier, connection, null));
+			}
+
+			try {
+				new Match(
+					table,
+					Deal.random(players, new SplittableRandom(gameSeed))
+				);
+			} catch (DisqualifiedPlayer | InvalidPlayerCount e) {
+				throw new IllegalStateException(e);
+			}
+
+			List<String> messages = seats.get(game % players).getSent();
+			List<Integer> decisions = new ArrayList<>();
+			for (int i = 0; i < messages.size(); ++i) {
+				if (messages.get(i).equals("suggest")) {
+					decisions.add(i);
+				}
+			}
+			if (!decisions.isEmpty()) {
+				states.add(getReplay(messages, phase.pick(decisions)));
+			}
+		}
+		return states;
+	}
+
+	//************************* Public Static Fields *************************//
+	/**
+	 * The points in a seat's game at which its situation can be captured.
+	 */
+	public enum Phase {
+		/**
+		 * The seat's first Suggestion, when it knows only its own hand.
+		 */
+		EARLY,
+
+		/**
+		 * The middle one of the seat's Suggestions.
+		 */
+		MIDDLE,
+
+		/**
+		 * The seat's last Suggestion of the game.
+		 */
+		LATE;
+
+		/**
+		 * @param decisions
+		 * The positions of the seat's "suggest" requests among its messages.
+		 * @return
+		 * The position of the request at this Phase.
+		 */
+		private int pick(List<Integer> decisions) {
+			int i;
+			switch (this) {
+				case EARLY:
+					i = 0;
+					break;
+				case MIDDLE:
+					i = decisions.size() / 2;
+					break;
+				default:
+					i = decisions.size() - 1;
+					break;
+			}
+			return decisions.get(i);
+		}
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The most games played per situation before giving up, since a seat may
+	 * not get a turn in a game that ends early.
+	 */
+	private static final int MAX_GAMES_PER_STATE = 4;
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * @param messages
+	 * All the messages a seat received.
+	 * @param decision
+	 * The position of the "suggest" request to stop before.
+	 * @return
+	 * The messages before the request, without the earlier requests.
+	 */
+	private static List<String> getReplay(List<String> messages, int decision) {
+		List<String> replay = new ArrayList<>();
+		for (String message : messages.subList(0, decision)) {
+			if (!message.equals("suggest")) {
+				replay.add(message);
+			}
+		}
+		return replay;
+	}
+}
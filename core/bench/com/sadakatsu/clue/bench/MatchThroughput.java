@@ -0,0 +1,407 @@
+package com.sadakatsu.clue.bench;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.sadakatsu.clue.cards.Deal;
+import com.sadakatsu.clue.contestserver.Match;
+import com.sadakatsu.clue.contestserver.MatchProfile;
+import com.sadakatsu.clue.contestserver.MatchProfile.Phase;
+import com.sadakatsu.clue.contestserver.MatchUp;
+import com.sadakatsu.clue.contestserver.Player;
+import com.sadakatsu.clue.exception.ClueException;
+import com.sadakatsu.clue.exception.DisqualifiedPlayer;
+import com.sadakatsu.clue.exception.InvalidPlayerCount;
+import com.sadakatsu.clue.transport.Connection;
+import com.sadakatsu.clue.transport.Connections;
+
+/**
+ * MatchThroughput measures how many games per second the match engine can
+ * play, which is the yardstick for changes to Match, Player, and the
+ * transports.  It plays games between StubAIs, which answer as cheaply as a
+ * legal player can, at every table size, over two transports:
+ * - in-process, where each Player's Connection calls its StubAI directly, so
+ *   that only the engine is measured
+ * - loopback, where each StubAI runs on its own thread behind a TCP socket,
+ *   as real entries do
+ *
+ * For each table it reports the games per second, the mean and 99th
+ * percentile time of a turn, and the rate at which the engine's thread
+ * allocates memory, then breaks the time and memory down by the phases of a
+ * game (see MatchProfile).  The Deals and the StubAIs' choices come from a
+ * seed, so every run plays the same games.
+ *
+ * Usage: MatchThroughput [name=value ...], where the settings are
+ * - games: the games measured at each table (default 2000)
+ * - warmUp: the games played first to warm up the JIT (default 500)
+ * - players: a table size or a range of them, such as 4 or 3-6 (the default)
+ * - seed: the seed of the Deals and the StubAIs (default 0)
+ * - transport: inprocess, loopback, or both (the default)
+ *
+ * @author Joseph A. Craig
+ */
+public class MatchThroughput {
+	//********************* Protected and Private Fields *********************//
+	private boolean inProcess;
+	private boolean loopback;
+	private int games;
+	private int maxPlayers;
+	private int minPlayers;
+	private int warmUp;
+	private long seed;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a MatchThroughput with the default settings.
+	 */
+	public MatchThroughput() {
+		games = 2000;
+		inProcess = true;
+		loopback = true;
+		maxPlayers = Deal.MAX_PLAYERS;
+		minPlayers = Deal.MIN_PLAYERS;
+		seed = 0L;
+		warmUp = 500;
+	}
+
+	/**
+	 * Changes a setting.
+	 * @param setting
+	 * The setting in the form "name=value".
+	 * @throws IllegalArgumentException
+	 * If the setting is not recognized.
+	 */
+	public void apply(String setting) {
+		int equals = setting.indexOf('=');
+		if (equals < 0) {
+			throw new IllegalArgumentException(setting);
+		}
+
+		String name = setting.substring(0, equals);
+		String value = setting.substring(equals + 1);
+		switch (name) {
+			case "games":
+				games = Integer.parseInt(value);
+				break;
+			case "warmUp":
+				warmUp = Integer.parseInt(value);
+				break;
+			case "players":
+				String[] range = value.split("-", 2);
+				minPlayers = Integer.parseInt(range[0]);
+				maxPlayers = Integer.parseInt(range[range.length - 1]);
+				if (
+					minPlayers < Deal.MIN_PLAYERS ||
+					maxPlayers > Deal.MAX_PLAYERS ||
+					minPlayers > maxPlayers
+				) {
+					throw new IllegalArgumentException(setting);
+				}
+				break;
+			case "seed":
+				seed = Long.parseLong(value);
+				break;
+			case "transport":
+				inProcess = value.equals("inprocess") || value.equals("both");
+				loopback = value.equals("loopback") || value.equals("both");
+				if (!inProcess && !loopback) {
+					throw new IllegalArgumentException(setting);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException(setting);
+		}
+	}
+
+	/**
+	 * Measures every chosen table over every chosen transport and writes the
+	 * reports to stdout.
+	 * @throws ClueException
+	 * If the engine rejects a StubAI's move, which would be a bug.
+	 * @throws IOException
+	 */
+	public void run() throws ClueException, IOException {
+		System.out.format(
+			"%d games per table after %d to warm up, seed %d\n\n",
+				games,
+				warmUp,
+				seed
+		);
+		for (int count = minPlayers; count <= maxPlayers; ++count) {
+			if (inProcess) {
+				measure("in-process", count, connectInProcess(count));
+			}
+			if (loopback) {
+				List<Player> players;
+				try (ServerSocket server = openServer(count)) {
+					players = connectLoopback(server, count);
+				}
+				measure("loopback", count, players);
+			}
+		}
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * @param count
+	 * The number of StubAIs.
+	 * @return
+	 * Players connected to StubAIs in this thread.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	private List<Player> connectInProcess(int count)
+	throws ClueException, IOException {
+		List<Player> players = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			String identifier = getIdentifier(i);
+			StubAI ai = new StubAI(identifier, getSeed(identifier));
+			players.add(new Player(identifier, new StubConnection(ai), null));
+		}
+		return players;
+	}
+
+	/**
+	 * @param server
+	 * The ServerSocket the StubAIs connect to.
+	 * @param count
+	 * The number of StubAIs.
+	 * @return
+	 * Players connected to StubAIs that each run on a thread of their own
+	 * and talk to the server over a loopback socket.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	private List<Player> connectLoopback(ServerSocket server, int count)
+	throws ClueException, IOException {
+		final int PORT = server.getLocalPort();
+		List<Player> players = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			String identifier = getIdentifier(i);
+			StubAI ai = new StubAI(identifier, getSeed(identifier));
+			Thread thread = new Thread(() -> serve(ai, PORT), identifier);
+			thread.setDaemon(true);
+			thread.start();
+
+			Socket socket = server.accept();
+			players.add(new Player(identifier, socket));
+		}
+		return players;
+	}
+
+	/**
+	 * Plays the warm-up games and then the measured games at one table, and
+	 * writes the report.  The Players are told that the contest is done
+	 * afterward.
+	 * @param transport
+	 * The name of the transport for the report.
+	 * @param count
+	 * The number of Players.
+	 * @param players
+	 * The Players.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	private void measure(String transport, int count, List<Player> players)
+	throws ClueException, IOException {
+		try {
+			long tableSeed = MatchUp.deriveSeed(seed, count);
+			for (int g = 0; g < warmUp; ++g) {
+				play(players, tableSeed, -1 - g, null);
+			}
+
+			MatchProfile profile = new MatchProfile();
+			long start = System.nanoTime();
+			for (int g = 0; g < games; ++g) {
+				play(players, tableSeed, g, profile);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			report(transport, count, elapsed, profile);
+		} finally {
+			for (Player p : players) {
+				p.done();
+			}
+		}
+	}
+
+	/**
+	 * Plays one game.
+	 * @param players
+	 * The Players in play order.
+	 * @param tableSeed
+	 * The seed of the table's Deals.
+	 * @param game
+	 * The game's index.
+	 * @param profile
+	 * The MatchProfile to add the game to, or null.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	private void play(
+		List<Player> players,
+		long tableSeed,
+		int game,
+		MatchProfile profile
+	) throws ClueException, IOException {
+		Deal deal = Deal.random(
+			players.size(),
+			new SplittableRandom(MatchUp.deriveSeed(tableSeed, game))
+		);
+		try {
+			if (profile == null) {
+				new Match(players, deal);
+			} else {
+				new Match(players, deal, profile);
+			}
+		} catch (DisqualifiedPlayer | InvalidPlayerCount e) {
+			// The StubAIs are never disqualified and the tables are always a
+			// legal size, so this is a bug in the benchmark.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Writes the report of one table.
+	 * @param transport
+	 * The name of the transport.
+	 * @param count
+	 * The number of Players.
+	 * @param elapsed
+	 * The nanoseconds the measured games took.
+	 * @param profile
+	 * The MatchProfile of the measured games.
+	 */
+	private void report(
+		String transport,
+		int count,
+		long elapsed,
+		MatchProfile profile
+	) {
+		double seconds = elapsed / 1.0e9;
+		long totalNanos = 0;
+		long totalBytes = 0;
+		for (Phase phase : Phase.values()) {
+			totalNanos += profile.getNanos(phase);
+			totalBytes += profile.getBytes(phase);
+		}
+
+		System.out.format(
+			"%s, %d players: %d games in %.2f s, %.1f games/s\n",
+				transport,
+				count,
+				games,
+				seconds,
+				games / seconds
+		);
+		System.out.format(
+			"  turns: %.1f per game, mean %.1f us, p99 %.1f us\n",
+				profile.getTurns().getCount() / (double) games,
+				profile.getTurns().getMeanMillis() * 1000.0,
+				profile.getTurns().getPercentileMillis(0.99) * 1000.0
+		);
+		if (profile.isMeasuringBytes()) {
+			System.out.format(
+				"  allocation: %.1f MB/s, %.1f KB per game\n",
+					totalBytes / seconds / 1.0e6,
+					totalBytes / 1.0e3 / games
+			);
+		}
+		System.out.format(
+			"  %-10s %6s %12s %12s\n",
+				"phase",
+				"time",
+				"ns per lap",
+				"B per lap"
+		);
+		for (Phase phase : Phase.values()) {
+			long laps = Math.max(1, profile.getLaps(phase));
+			System.out.format(
+				"  %-10s %5.1f%% %12d %12d\n",
+					phase.name().toLowerCase(),
+					100.0 * profile.getNanos(phase) / Math.max(1, totalNanos),
+					profile.getNanos(phase) / laps,
+					profile.getBytes(phase) / laps
+			);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * @param identifier
+	 * A StubAI's identifier.
+	 * @return
+	 * The seed of the StubAI's choices.
+	 */
+	private long getSeed(String identifier) {
+		return MatchUp.deriveSeed(seed, Collections.singletonList(identifier));
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Runs the benchmark.
+	 * @param args
+	 * The settings, each in the form "name=value".
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws ClueException, IOException {
+		MatchThroughput benchmark = new MatchThroughput();
+		for (String setting : args) {
+			benchmark.apply(setting);
+		}
+		benchmark.run();
+	}
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * @param index
+	 * A StubAI's seat.
+	 * @return
+	 * The StubAI's identifier.
+	 */
+	private static String getIdentifier(int index) {
+		return "Stub" + index;
+	}
+
+	/**
+	 * @param count
+	 * The number of StubAIs that will connect.
+	 * @return
+	 * A ServerSocket on the loopback interface with a free port.
+	 * @throws IOException
+	 */
+	private static ServerSocket openServer(int count) throws IOException {
+		return new ServerSocket(0, count, InetAddress.getLoopbackAddress());
+	}
+
+	/**
+	 * Connects a StubAI to the server and answers the server's messages until
+	 * it is told that the contest is done.
+	 * @param ai
+	 * The StubAI.
+	 * @param port
+	 * The server's port.
+	 */
+	private static void serve(StubAI ai, int port) {
+		try (Connection connection = Connections.connect(port)) {
+			connection.send(ai.alive());
+			String message;
+			while ((message = connection.receive()) != null) {
+				String response = ai.respond(message);
+				connection.send(response);
+				if (response.equals("dead")) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			System.err.format("%s: %s\n", ai, e);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.sadakatsu.clue.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sadakatsu.clue.transport.Connection;
+
+/**
+ * A RecordingConnection wraps another Connection and keeps every message the
+ * server sends through it, so that the messages an AI received during a game
+ * can be replayed into another AI later.
+ *
+ * @author Joseph A. Craig
+ */
+public class RecordingConnection implements Connection {
+	//********************* Protected and Private Fields *********************//
+	private final Connection connection;
+	private final List<String> sent;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new RecordingConnection.
+	 * @param connection
+	 * The Connection through which the messages actually travel.
+	 */
+	public RecordingConnection(Connection connection) {
+		this.connection = connection;
+		sent = new ArrayList<>();
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable List of the messages sent so far, in order.
+	 */
+	public List<String> getSent() {
+		return Collections.unmodifiableList(sent);
+	}
+
+	@Override
+	public String receive() throws IOException {
+		return connection.receive();
+	}
+
+	@Override
+	public void send(String message) throws IOException {
+		sent.add(message);
+		connection.send(message);
+	}
+
+	@Override
+	public void setTimeout(int millis) throws IOException {
+		connection.setTimeout(millis);
+	}
+
+	@Override
+	public void close() throws IOException {
+		connection.close();
+	}
+
+	/**
+	 * Returns a description of the RecordingConnection.
+	 */
+	@Override
+	public String toString() {
+		return "recording:" + connection;
+	}
+}
@@ -0,0 +1,120 @@
+package com.sadakatsu.clue.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.List;
+
+import com.sadakatsu.clue.transport.Connection;
+import com.sadakatsu.clue.transport.SocketConnection;
+
+/**
+ * The Replayer puts an AI into a recorded situation by playing the server's
+ * side of the protocol: it lets the AI connect over a loopback socket, sends
+ * it the recorded messages one at a time, waiting for each answer, and then
+ * ends the conversation.  The AI runs its own message loop, unchanged, on a
+ * thread of its own; once that thread has finished, the AI's state can be
+ * used from the calling thread.
+ *
+ * Anything the AI writes to stdout during the replay is discarded.
+ *
+ * @author Joseph A. Craig
+ */
+public class Replayer {
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Replays messages into an AI.
+	 * @param messages
+	 * The messages to send.
+	 * @param finish
+	 * The message that ends the AI's message loop, such as "done", or null to
+	 * end it by closing the connection.
+	 * @param launcher
+	 * Connects the AI to the passed port and runs its message loop.  Any
+	 * exception it throws is rethrown by this method.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void replay(
+		List<String> messages,
+		String finish,
+		Launcher launcher
+	) throws IOException, InterruptedException {
+		PrintStream stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		Throwable[] failure = new Throwable[1];
+		try (
+			ServerSocket server = new ServerSocket(
+				0,
+				1,
+				InetAddress.getLoopbackAddress()
+			)
+		) {
+			final int PORT = server.getLocalPort();
+			Thread thread = new Thread(
+				() -> {
+					try {
+						launcher.run(PORT);
+					} catch (Exception e) {
+						failure[0] = e;
+					}
+				},
+				"replay"
+			);
+			thread.start();
+
+			try (
+				Connection connection = new SocketConnection(server.accept())
+			) {
+				receive(connection);
+				for (String message : messages) {
+					connection.send(message);
+					receive(connection);
+				}
+				if (finish != null) {
+					connection.send(finish);
+					receive(connection);
+				}
+			}
+			thread.join();
+		} finally {
+			System.setOut(stdout);
+		}
+
+		if (failure[0] != null) {
+			throw new IllegalStateException(failure[0]);
+		}
+	}
+
+	//************************ Public Static Classes *************************//
+	/**
+	 * A Launcher starts an AI for the Replayer.
+	 */
+	public interface Launcher {
+		/**
+		 * Connects the AI to the Replayer and runs its message loop until the
+		 * Replayer ends it.
+		 * @param port
+		 * The Replayer's localhost port.
+		 * @throws Exception
+		 */
+		void run(int port) throws Exception;
+	}
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Waits for the AI's next message.
+	 * @param connection
+	 * The Connection to the AI.
+	 * @throws IOException
+	 * If the AI closed the Connection.
+	 */
+	private static void receive(Connection connection) throws IOException {
+		if (connection.receive() == null) {
+			throw new IOException("The AI closed the connection.");
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package com.sadakatsu.clue.bench;
+
+import java.util.SplittableRandom;
+
+import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.clue.cards.Suggestion;
+import com.sadakatsu.clue.exception.IncorrectCategory;
+import com.sadakatsu.clue.exception.InvalidSuggestionString;
+
+/**
+ * A StubAI answers the server's messages as cheaply as a legal player can,
+ * so that a benchmark of the server measures the server rather than the AI.
+ * It suggests Cards it has not seen at random, shows the first Card it can,
+ * and accuses as soon as a Suggestion of unseen Cards goes undisproved (as
+ * the rules require) or only one Card of each type is left unseen.
+ *
+ * A StubAI keeps its state in bitmasks and chooses with a seeded
+ * SplittableRandom, so the same seed plays the same games.
+ *
+ * @author Joseph A. Craig
+ */
+public class StubAI {
+	//********************* Protected and Private Fields *********************//
+	private final boolean[] suggested;
+	private final SplittableRandom random;
+	private final String identifier;
+	private int hand;
+	private int index;
+	private int seen;
+	private Suggestion accusation;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new StubAI.
+	 * @param identifier
+	 * The identifier the server knows the StubAI by.
+	 * @param seed
+	 * The seed of the StubAI's choices.
+	 */
+	public StubAI(String identifier, long seed) {
+		this.identifier = identifier;
+		random = new SplittableRandom(seed);
+		suggested = new boolean[Suggestion.COUNT];
+		index = -1;
+	}
+
+	/**
+	 * @return
+	 * The message with which the StubAI announces itself to the server.
+	 */
+	public String alive() {
+		return identifier + " alive";
+	}
+
+	/**
+	 * Returns the StubAI's answer to one of the server's messages.
+	 * @param message
+	 * The message.
+	 * @return
+	 * The answer to send back to the server.
+	 * @throws IllegalArgumentException
+	 * If the message is not one the server sends.
+	 */
+	public String respond(String message) {
+		String[] words = message.split(" ");
+		String response;
+		try {
+			switch (words[0].toLowerCase()) {
+				case "accusation":
+					response = "ok";
+					break;
+				case "accuse":
+					response = accuse();
+					break;
+				case "disprove":
+					response = disprove(Suggestion.parse(join(words, 2)));
+					break;
+				case "done":
+					response = "dead";
+					break;
+				case "reset":
+					reset(words);
+					response = "ok";
+					break;
+				case "suggest":
+					response = "suggest " + suggest().getAbbreviation();
+					break;
+				case "suggestion":
+					learn(words);
+					response = "ok";
+					break;
+				default:
+					throw new IllegalArgumentException(message);
+			}
+		} catch (InvalidSuggestionString e) {
+			throw new IllegalArgumentException(message, e);
+		}
+		return response;
+	}
+
+	/**
+	 * Returns the identifier of the StubAI.
+	 */
+	@Override
+	public String toString() {
+		return identifier;
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * @return
+	 * The answer to an "accuse" message.
+	 */
+	private String accuse() {
+		if (accusation == null) {
+			int unseen = ~seen & Card.ALL_MASK;
+			if (
+				Integer.bitCount(unseen & Card.SUSPECT_MASK) == 1 &&
+				Integer.bitCount(unseen & Card.WEAPON_MASK) == 1 &&
+				Integer.bitCount(unseen & Card.ROOM_MASK) == 1
+			) {
+				accusation = toSuggestion(unseen);
+			}
+		}
+		return (
+			accusation == null ?
+				"-" :
+				"accuse " + accusation.getAbbreviation()
+		);
+	}
+
+	/**
+	 * @param suggestion
+	 * The Suggestion to disprove.
+	 * @return
+	 * The answer to a "disprove" message: the lowest Card of the Suggestion in
+	 * the StubAI's hand.
+	 */
+	private String disprove(Suggestion suggestion) {
+		return "show " + lowest(hand & suggestion.cardMask()).getAbbreviation();
+	}
+
+	/**
+	 * Learns from a "suggestion" message.
+	 * @param words
+	 * The message's words.
+	 * @throws InvalidSuggestionString
+	 */
+	private void learn(String[] words) throws InvalidSuggestionString {
+		int suggester = Integer.parseInt(words[1]);
+		if (suggester != index) {
+			return;
+		}
+
+		Suggestion s = Suggestion.parse(join(words, 2));
+		if (words[5].equals("-")) {
+			if ((seen & s.cardMask()) == 0) {
+				accusation = s;
+			}
+		} else {
+			seen |= Card.from(words[6]).getMask();
+		}
+	}
+
+	/**
+	 * Starts a new game from a "reset" message.
+	 * @param words
+	 * The message's words.
+	 */
+	private void reset(String[] words) {
+		index = Integer.parseInt(words[2]);
+		hand = 0;
+		for (int i = 3; i < words.length; ++i) {
+			hand |= Card.from(words[i]).getMask();
+		}
+		seen = hand;
+		accusation = null;
+		for (int i = 0; i < Suggestion.COUNT; ++i) {
+			suggested[i] = false;
+		}
+	}
+
+	/**
+	 * @return
+	 * A Suggestion the StubAI has not made this game, of unseen Cards if it
+	 * can find one.
+	 */
+	private Suggestion suggest() {
+		int unseen = ~seen & Card.ALL_MASK;
+		Suggestion choice = null;
+		for (int i = 0; choice == null && i < ATTEMPTS; ++i) {
+			Suggestion s = toSuggestion(
+				pick(unseen & Card.SUSPECT_MASK) |
+				pick(unseen & Card.WEAPON_MASK) |
+				pick(unseen & Card.ROOM_MASK)
+			);
+			if (!suggested[s.getId()]) {
+				choice = s;
+			}
+		}
+		for (int id = 0; choice == null; ++id) {
+			if (!suggested[id]) {
+				choice = Suggestion.of(id);
+			}
+		}
+		suggested[choice.getId()] = true;
+		return choice;
+	}
+
+	/**
+	 * @param mask
+	 * A nonempty Card bitmask.
+	 * @return
+	 * The mask of one of its Cards, chosen at random.
+	 */
+	private int pick(int mask) {
+		int skip = random.nextInt(Integer.bitCount(mask));
+		for (; skip > 0; --skip) {
+			mask &= mask - 1;
+		}
+		return Integer.lowestOneBit(mask);
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of random Suggestions tried before taking the first one not
+	 * yet made.
+	 */
+	private static final int ATTEMPTS = 8;
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * @param words
+	 * A message's words.
+	 * @param first
+	 * The index of the first of three words.
+	 * @return
+	 * The three words, separated by spaces.
+	 */
+	private static String join(String[] words, int first) {
+		return words[first] + " " + words[first + 1] + " " + words[first + 2];
+	}
+
+	/**
+	 * @param mask
+	 * A nonempty Card bitmask.
+	 * @return
+	 * The Card in the mask with the lowest id.
+	 */
+	private static Card lowest(int mask) {
+		return Card.of(Integer.numberOfTrailingZeros(mask));
+	}
+
+	/**
+	 * @param mask
+	 * A Card bitmask with exactly one Card of each type.
+	 * @return
+	 * The Suggestion of those Cards.
+	 */
+	private static Suggestion toSuggestion(int mask) {
+		try {
+			return Suggestion.of(
+				lowest(mask & Card.SUSPECT_MASK),
+				lowest(mask & Card.WEAPON_MASK),
+				lowest(mask & Card.ROOM_MASK)
+			);
+		} catch (IncorrectCategory e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
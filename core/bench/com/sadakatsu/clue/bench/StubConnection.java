@@ -0,0 +1,57 @@
+package com.sadakatsu.clue.bench;
+
+import com.sadakatsu.clue.transport.Connection;
+
+/**
+ * A StubConnection connects a Player directly to a StubAI in the same thread:
+ * send() has the StubAI answer at once, and receive() returns the answer.
+ * There is no transport at all, so a Match played over StubConnections
+ * measures the engine alone.
+ *
+ * @author Joseph A. Craig
+ */
+public class StubConnection implements Connection {
+	//********************* Protected and Private Fields *********************//
+	private final StubAI ai;
+	private String pending;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new StubConnection.  The StubAI's "alive" message is
+	 * waiting to be received.
+	 * @param ai
+	 * The StubAI at the other end.
+	 */
+	public StubConnection(StubAI ai) {
+		this.ai = ai;
+		pending = ai.alive();
+	}
+
+	@Override
+	public String receive() {
+		String message = pending;
+		pending = null;
+		return message;
+	}
+
+	@Override
+	public void send(String message) {
+		pending = ai.respond(message);
+	}
+
+	@Override
+	public void setTimeout(int millis) {}
+
+	@Override
+	public void close() {
+		pending = null;
+	}
+
+	/**
+	 * Returns a description of the StubConnection.
+	 */
+	@Override
+	public String toString() {
+		return "stub:" + ai;
+	}
+}
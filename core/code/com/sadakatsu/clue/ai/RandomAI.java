@@ -46,7 +46,27 @@ public class RandomAI extends SpeedClueAI {
 		int serverPort,
 		boolean logMessages
 	) throws IOException {
-		super(identifier, serverPort, logMessages);
+		this(identifier, String.valueOf(serverPort), logMessages);
+	}
+	
+	/**
+	 * Instantiates a RandomAI connected to a localhost Speed Clue server.
+	 * @param identifier
+	 * The identifier for this RandomAI instance assigned by the server.
+	 * @param serverAddress
+	 * The port number or Unix domain socket path with which this RandomAI
+	 * should correspond.
+	 * @param logMessages
+	 * Whether this instance should write the messages it receives and sends to
+	 * stdout and report any message problems to stderr.
+	 * @throws IOException
+	 */
+	public RandomAI(
+		String identifier,
+		String serverAddress,
+		boolean logMessages
+	) throws IOException {
+		super(identifier, serverAddress, logMessages);
 		disproved = false;
 		last = null;
 		random = new Random();
@@ -106,12 +126,12 @@ public class RandomAI extends SpeedClueAI {
 	
 	//*********************** Public Static Interface ************************//
 	/**
-	 * "java -jar randomAI.jar identifier serverPortNumber [logMessages]"
+	 * "java -jar randomAI.jar identifier serverAddress [logMessages]"
 	 * @param args
 	 * - identifier: a unique name to identify the AI
 	 * 
-	 * - serverPortNumber: the port the server will use to send and receive
-	 * messages
+	 * - serverAddress: the port the server will use to send and receive
+	 * messages, or the path of the server's Unix domain socket
 	 * 
 	 * - logMessages: whether the AI should report messages on stdout and stderr 
 	 */
@@ -126,7 +146,7 @@ public class RandomAI extends SpeedClueAI {
 			);
 			new RandomAI(
 				identifier,
-				Integer.parseInt(args[1]),
+				args[1],
 				logMessages
 			).run();
 		} catch (Exception e) {
@@ -1,10 +1,6 @@
 package com.sadakatsu.clue.ai;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -15,6 +11,8 @@ import com.sadakatsu.clue.exception.DuplicateSuggestion;
 import com.sadakatsu.clue.exception.InvalidDisprove;
 import com.sadakatsu.clue.exception.InvalidSuggestionString;
 import com.sadakatsu.clue.exception.ProtocolViolation;
+import com.sadakatsu.clue.transport.Connection;
+import com.sadakatsu.clue.transport.Connections;
 
 /**
  * SpeedClueAI is an abstract superclass for Java Speed Clue players.  It
@@ -26,15 +24,13 @@ import com.sadakatsu.clue.exception.ProtocolViolation;
 public abstract class SpeedClueAI {
 	//********************* Protected and Private Fields *********************//
 	private boolean playing;
-	private BufferedReader in;
-	private char[] buffer;
+	private Connection connection;
 	private int index;
 	private int playerCount;
 	private int playersInGame;
 	private List<Card> hand;
 	private List<Suggestion> pastSuggestions;
-	private PrintWriter out;
-	private Socket socket;
+	private MutableSuggestionSet suggested;
 	private String identifier;
 	
 	protected final boolean logMessages;
@@ -56,28 +52,63 @@ public abstract class SpeedClueAI {
 		int serverPort,
 		boolean logMessages
 	) throws IOException {
-		try {
-			socket = new Socket("localhost", serverPort);
-			in = new BufferedReader(
-				new InputStreamReader(socket.getInputStream())
-			);
-			out = new PrintWriter(socket.getOutputStream(), true);
-		} catch (IOException e) {
-			closeConnection();
-			throw e;
-		}
-		
-		buffer = new char[512];
+		this(identifier, Connections.connect(serverPort), logMessages);
+	}
+	
+	/**
+	 * Instantiates a new SpeedClueAI instance with a connection to the server.
+	 * @param identifier
+	 * The name given to this player by the server.
+	 * @param serverAddress
+	 * The address the server passed on the command line: either a localhost
+	 * port number or the path of the server's Unix domain socket.
+	 * @param logMessages
+	 * Whether to write messages received by and sent from this player to
+	 * stdout.
+	 * @throws IOException
+	 */
+	public SpeedClueAI(
+		String identifier,
+		String serverAddress,
+		boolean logMessages
+	) throws IOException {
+		this(identifier, Connections.connect(serverAddress), logMessages);
+	}
+	
+	/**
+	 * Instantiates a new SpeedClueAI instance that communicates with the
+	 * server through an open Connection.
+	 * @param identifier
+	 * The name given to this player by the server.
+	 * @param connection
+	 * The Connection to the server.
+	 * @param logMessages
+	 * Whether to write messages received by and sent from this player to
+	 * stdout.
+	 * @throws IOException
+	 */
+	public SpeedClueAI(
+		String identifier,
+		Connection connection,
+		boolean logMessages
+	) throws IOException {
+		this.connection = connection;
 		hand = new ArrayList<>();
 		index = -1;
 		this.identifier = identifier;
 		this.logMessages = logMessages;
 		pastSuggestions = new ArrayList<>();
+		suggested = new MutableSuggestionSet();
 		playing = false;
 		playerCount = -1;
 		playersInGame = -1;
 		
-		sendMessage(String.format("%s alive", identifier));
+		try {
+			sendMessage(String.format("%s alive", identifier));
+		} catch (IOException e) {
+			closeConnection();
+			throw e;
+		}
 	}
 	
 	/**
@@ -142,6 +173,18 @@ public abstract class SpeedClueAI {
 		return new ArrayList<>(pastSuggestions);
 	}
 	
+	/**
+	 * Determines whether the player has already made the passed Suggestion
+	 * this game.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if the Suggestion has been made this game, false otherwise.
+	 */
+	public boolean hasSuggested(Suggestion suggestion) {
+		return suggested.contains(suggestion);
+	}
+	
 	/**
 	 * The player's name.
 	 * @return
@@ -190,12 +233,13 @@ public abstract class SpeedClueAI {
 	 * @return
 	 * Whether the message allows the player to keep running (true) or not
 	 * (false).
+	 * @throws IOException
 	 * @throws InvalidDisprove
 	 * @throws DuplicateSuggestion
 	 */
 	private boolean handleMessage(
 		String message
-	) throws InvalidDisprove, DuplicateSuggestion {
+	) throws IOException, InvalidDisprove, DuplicateSuggestion {
 		boolean keepGoing = true;
 		
 		String type = getMessageType(message);
@@ -239,12 +283,11 @@ public abstract class SpeedClueAI {
 	 * @throws IOException
 	 */
 	private String getMessage() throws IOException {
-		int read = in.read(buffer);
-		while (read > 0 && buffer[read - 1] == '\0') {
-			--read;
+		String response = connection.receive();
+		if (response == null) {
+			throw new IOException("The server closed the connection.");
 		}
-		
-		String response = String.copyValueOf(buffer, 0, read).toLowerCase();
+		response = response.toLowerCase();
 		
 		if (logMessages) {
 			System.out.format("    %s <<: \"%s\"\n", this, response);
@@ -286,7 +329,7 @@ public abstract class SpeedClueAI {
 			Matcher m = accusationMessagePattern.matcher(message);
 			m.matches();
 			accuser = Integer.parseInt(m.group("accuser"));
-			accusation = new Suggestion(m.group("accusation"));
+			accusation = Suggestion.parse(m.group("accusation"));
 			correct = m.group("correct") == "+";
 		} catch (
 			InvalidSuggestionString |
@@ -316,6 +359,7 @@ public abstract class SpeedClueAI {
 			hand.clear();
 			index = -1;
 			pastSuggestions.clear();
+			suggested.clear();
 			playerCount = -1;
 			playersInGame = -1;
 			
@@ -363,7 +407,7 @@ public abstract class SpeedClueAI {
 			Matcher m = disproveMessagePattern.matcher(message);
 			m.matches();
 			suggester = Integer.parseInt(m.group("suggester"));
-			suggestion = new Suggestion(m.group("suggestion"));
+			suggestion = Suggestion.parse(m.group("suggestion"));
 		} catch (
 			InvalidSuggestionString |
 			IllegalStateException |
@@ -444,6 +488,7 @@ public abstract class SpeedClueAI {
 		hand = h;
 		index = i;
 		pastSuggestions.clear();
+		suggested.clear();
 		playerCount = pc;
 		playersInGame = pc;
 		playing = true;
@@ -466,7 +511,7 @@ public abstract class SpeedClueAI {
 	private String handleSuggestMessage() throws DuplicateSuggestion {
 		Suggestion suggestion = suggest();
 		
-		if (pastSuggestions.contains(suggestion)) {
+		if (!suggested.add(suggestion)) {
 			throw new DuplicateSuggestion(suggestion);
 		}
 		
@@ -495,7 +540,7 @@ public abstract class SpeedClueAI {
 			Matcher m = suggestionMessagePattern.matcher(message);
 			m.matches();
 			suggester = Integer.parseInt(m.group("suggester"));
-			suggestion = new Suggestion(m.group("suggestion"));
+			suggestion = Suggestion.parse(m.group("suggestion"));
 			
 			String d = m.group("disprover");
 			disprover = (d.equals("-") ? null : new Integer(d));
@@ -516,20 +561,12 @@ public abstract class SpeedClueAI {
 	}
 	
 	/**
-	 * Closes the Socket and its associated streams.
+	 * Closes the Connection to the server.
 	 */
 	private void closeConnection() {
 		try {
-			if (out != null) {
-				out.close();
-			}
-			
-			if (in != null) {
-				in.close();
-			}
-			
-			if (socket != null) {
-				socket.close();
+			if (connection != null) {
+				connection.close();
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -540,12 +577,13 @@ public abstract class SpeedClueAI {
 	 * Sends a message to the server.
 	 * @param message
 	 * The message to send to the server.
+	 * @throws IOException
 	 */
-	private void sendMessage(String message) {
+	private void sendMessage(String message) throws IOException {
 		if (logMessages) {
 			System.out.format("    %s :>> \"%s\"\n", this, message);
 		}
-		out.format(message);
+		connection.send(message);
 	}
 	
 	/**
@@ -562,8 +600,12 @@ public abstract class SpeedClueAI {
 		List<Card> hand,
 		Suggestion suggestion
 	) {
-		List<Card> intersection = suggestion.getCards();
-		intersection.retainAll(hand);
+		List<Card> intersection = new ArrayList<>(3);
+		for (Card c : suggestion.cards()) {
+			if (hand.contains(c)) {
+				intersection.add(c);
+			}
+		}
 		return intersection;
 	}
 	
@@ -679,7 +721,10 @@ public abstract class SpeedClueAI {
 	private static final String suggestionPattern =
 		cardPattern + " " + cardPattern + " " + cardPattern; 
 	
-	private static final Pattern accusationMessagePattern = Pattern.compile(
+	//******************** Package-Private Static Fields *********************//
+	// The message patterns are visible to the package so that the benchmarks
+	// can measure them in isolation.
+	static final Pattern accusationMessagePattern = Pattern.compile(
 		String.format(
 			"accusation (?<accuser>%s) (?<accusation>%s) (?<correct>\\+|-)",
 			playerIndexPattern,
@@ -688,7 +733,7 @@ public abstract class SpeedClueAI {
 		Pattern.CASE_INSENSITIVE
 	);
 	
-	private static final Pattern disproveMessagePattern = Pattern.compile(
+	static final Pattern disproveMessagePattern = Pattern.compile(
 		String.format(
 			"disprove (?<suggester>%s) (?<suggestion>%s)",
 			playerIndexPattern,
@@ -697,7 +742,7 @@ public abstract class SpeedClueAI {
 		Pattern.CASE_INSENSITIVE
 	);
 	
-	private static final Pattern resetMessagePattern = Pattern.compile(
+	static final Pattern resetMessagePattern = Pattern.compile(
 		String.format(
 			"reset (?<playerCount>[3-6]) (?<playerIndex>%s) " +
 				"(?<cards>(?:%s ?){3,6})",
@@ -707,7 +752,7 @@ public abstract class SpeedClueAI {
 		Pattern.CASE_INSENSITIVE
 	);
 	
-	private static final Pattern suggestionMessagePattern = Pattern.compile(
+	static final Pattern suggestionMessagePattern = Pattern.compile(
 		String.format(
 			"suggestion (?<suggester>%s) (?<suggestion>%s) (?<disprover>-|%s)" +
 				"(?: (?<shown>%s))?",
@@ -1,19 +1,30 @@
 package com.sadakatsu.clue.cards;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * The Card class represents a Card from the game of Clue.  There are three
  * types of Cards -- Suspect, Weapon, and Room -- which have their own
  * subclasses.
- * 
+ *
+ * There is exactly one instance of each of the 21 Cards, so Cards may be
+ * compared with ==.  Every Card has a dense id in the range [0..21): the
+ * Suspects come first, then the Weapons, then the Rooms, each in alphabetical
+ * order.  The id makes it cheap to represent sets of Cards as bitmasks (see
+ * getMask()).  All the Cards are built together, the first time any of them is
+ * needed, and the tables that hold them (see CardTable) are immutable and safe
+ * to share between threads.
+ *
  * @author Joseph A. Craig
  */
 public abstract class Card {
 	//********************* Protected and Private Fields *********************//
-	private String abbreviation;
-	private String name;
+	private final int id;
+	private final int index;
+	private final String abbreviation;
+	private final String name;
 	
 	//*************************** Public Interface ***************************//
 	/**
@@ -25,6 +36,34 @@ public abstract class Card {
 		return abbreviation;
 	}
 	
+	/**
+	 * The Card's position among all the Cards.
+	 * @return
+	 * A number in the range [0..COUNT).
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * The Card's position among the Cards of its own type.
+	 * @return
+	 * A number in the range [0..SUSPECT_COUNT) for a Suspect, [0..WEAPON_COUNT)
+	 * for a Weapon, or [0..ROOM_COUNT) for a Room.
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * The Card's bit in a Card bitmask.
+	 * @return
+	 * 1 shifted left by the Card's id.
+	 */
+	public int getMask() {
+		return 1 << id;
+	}
+	
 	/**
 	 * The full name of the Card.
 	 * @return
@@ -34,6 +73,14 @@ public abstract class Card {
 		return name;
 	}
 	
+	/**
+	 * Returns the Card's id, which is unique to each Card.
+	 */
+	@Override
+	public int hashCode() {
+		return id;
+	}
+	
 	/**
 	 * Returns a user-friendly representation for this Card.
 	 */
@@ -46,63 +93,152 @@ public abstract class Card {
 	 * Instantiates a new Card with the passed name.
 	 * @param name
 	 * The name of the Card.
+	 * @param id
+	 * The Card's position among all the Cards.
+	 * @param index
+	 * The Card's position among the Cards of its own type.
 	 */
-	protected Card(String name) {
+	Card(String name, int id, int index) {
+		this.id = id;
+		this.index = index;
 		this.name = name;
 		abbreviation = name.substring(0, 2);
 	}
 	
-	//***************** Protected and Private Static Fields ******************//
-	private static List<Card> all = null;
+	//************************* Public Static Fields *************************//
+	/**
+	 * The number of Cards in Clue.
+	 */
+	public static final int COUNT = 21;
+	
+	/**
+	 * The number of Suspect Cards, whose ids start at FIRST_SUSPECT.
+	 */
+	public static final int SUSPECT_COUNT = 6;
+	
+	/**
+	 * The number of Weapon Cards, whose ids start at FIRST_WEAPON.
+	 */
+	public static final int WEAPON_COUNT = 6;
+	
+	/**
+	 * The number of Room Cards, whose ids start at FIRST_ROOM.
+	 */
+	public static final int ROOM_COUNT = 9;
+	
+	public static final int FIRST_SUSPECT = 0;
+	public static final int FIRST_WEAPON = FIRST_SUSPECT + SUSPECT_COUNT;
+	public static final int FIRST_ROOM = FIRST_WEAPON + WEAPON_COUNT;
+	
+	/**
+	 * The bitmasks of all the Cards and of each type of Card.
+	 */
+	public static final int ALL_MASK = (1 << COUNT) - 1;
+	public static final int SUSPECT_MASK =
+		((1 << SUSPECT_COUNT) - 1) << FIRST_SUSPECT;
+	public static final int WEAPON_MASK =
+		((1 << WEAPON_COUNT) - 1) << FIRST_WEAPON;
+	public static final int ROOM_MASK = ((1 << ROOM_COUNT) - 1) << FIRST_ROOM;
+	
+	//******************** Package-Private Static Fields *********************//
+	/**
+	 * The number of letters in the alphabet, which sets the size of the
+	 * abbreviation decoder.
+	 */
+	static final int LETTERS = 26;
 	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * All the Cards in Clue.
 	 * @return
-	 * A List of the Cards.
+	 * A new List of the Cards in id order, which the caller may modify.
 	 */
 	public static List<Card> getCards() {
-		if (all == null) {
-			all = buildCards();
-		}
-		return new ArrayList<Card>(all);
+		return new ArrayList<Card>(CardTable.ALL);
+	}
+	
+	/**
+	 * All the Cards in Clue.
+	 * @return
+	 * An unmodifiable List of the Cards in id order.  The same List is shared
+	 * by all callers.
+	 */
+	public static List<Card> list() {
+		return CardTable.ALL;
 	}
 	
 	/**
 	 * Finds and returns the Card whose abbreviation matches the passed
 	 * abbreviation when ignoring case.
 	 * @param abbreviation
-	 * The abbreviation of the Card to get.
+	 * The abbreviation of the Card to get.  Only the first two characters are
+	 * considered.
 	 * @return
 	 * The Card instance if the abbreviation is valid, null otherwise.
 	 */
 	public static Card from(String abbreviation) {
-		Card card = null;
-		String abbr = abbreviation.substring(0, 2);
-		
-		if (all == null) {
-			all = buildCards();
-		}
-		for (Card c : all) {
-			if (c.getAbbreviation().equalsIgnoreCase(abbr)) {
-				card = c;
-				break;
-			}
+		return (
+			abbreviation.length() < 2 ?
+				null :
+				from(abbreviation.charAt(0), abbreviation.charAt(1))
+		);
+	}
+	
+	/**
+	 * Finds and returns the Card whose abbreviation is the passed characters
+	 * when ignoring case.
+	 * @param first
+	 * The first character of the abbreviation.
+	 * @param second
+	 * The second character of the abbreviation.
+	 * @return
+	 * The Card instance if the abbreviation is valid, null otherwise.
+	 */
+	public static Card from(char first, char second) {
+		int i = toLetterIndex(first);
+		int j = toLetterIndex(second);
+		return (i < 0 || j < 0 ? null : CardTable.DECODER[i * LETTERS + j]);
+	}
+	
+	/**
+	 * Returns the Card with the passed id.
+	 * @param id
+	 * A number in the range [0..COUNT).
+	 * @return
+	 * The Card instance.
+	 * @throws ArrayIndexOutOfBoundsException
+	 * If the id is out of range.
+	 */
+	public static Card of(int id) {
+		return CardTable.CARDS[id];
+	}
+	
+	/**
+	 * Builds the bitmask of a group of Cards.
+	 * @param cards
+	 * The Cards in question.
+	 * @return
+	 * The bitwise OR of the Cards' masks.
+	 */
+	public static int maskOf(Collection<? extends Card> cards) {
+		int mask = 0;
+		for (Card c : cards) {
+			mask |= c.getMask();
 		}
-		
-		return card;
+		return mask;
 	}
 	
-	//**************** Protected and Private Static Interface ****************//
+	//******************* Package-Private Static Interface *******************//
 	/**
-	 * Builds a List of all the Clue Cards by interacting with the subclasses.
+	 * Converts an ASCII letter of either case to its position in the alphabet.
+	 * @param c
+	 * The character to convert.
 	 * @return
-	 * The List of Clue Cards.
+	 * A number in the range [0..LETTERS), or -1 if the character is not an
+	 * ASCII letter.
 	 */
-	private static List<Card> buildCards() {
-		List<Card> cards = Suspect.getSuspects();
-		cards.addAll(Weapon.getWeapons());
-		cards.addAll(Room.getRooms());
-		return cards;
+	static int toLetterIndex(char c) {
+		int lower = c | 0x20;
+		return (lower >= 'a' && lower <= 'z' ? lower - 'a' : -1);
 	}
 }
@@ -0,0 +1,356 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The CardSet is an immutable set of Cards stored as a 21-bit mask of their
+ * ids (see Card.getMask()).  Set operations are single bitwise operations and
+ * never box or hash.  To walk a CardSet without allocating, loop with
+ * nextId():
+ *
+ *   for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) { ... }
+ *
+ * MutableCardSet is the modifiable counterpart.
+ *
+ * @author Joseph A. Craig
+ */
+public final class CardSet implements Iterable<Card> {
+	//********************* Protected and Private Fields *********************//
+	private final int mask;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Determines whether this CardSet holds the passed Card.
+	 * @param card
+	 * The Card in question.
+	 * @return
+	 * true if the Card is in this CardSet, false otherwise.
+	 */
+	public boolean contains(Card card) {
+		return (mask & card.getMask()) != 0;
+	}
+	
+	/**
+	 * Determines whether this CardSet holds every Card of another.
+	 * @param other
+	 * The CardSet in question.
+	 * @return
+	 * true if the other CardSet is a subset of this one, false otherwise.
+	 */
+	public boolean containsAll(CardSet other) {
+		return (other.mask & ~mask) == 0;
+	}
+	
+	/**
+	 * Determines whether this CardSet holds any of the passed Suggestion's
+	 * Cards.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if at least one of the Suggestion's Cards is in this CardSet, false
+	 * otherwise.
+	 */
+	public boolean containsAny(Suggestion suggestion) {
+		return (mask & suggestion.cardMask()) != 0;
+	}
+	
+	/**
+	 * @return
+	 * true if this CardSet holds no Cards, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return mask == 0;
+	}
+	
+	/**
+	 * @return
+	 * The bitwise OR of the masks of this CardSet's Cards.
+	 */
+	public int getMask() {
+		return mask;
+	}
+	
+	/**
+	 * Finds the lowest Card id in this CardSet that is no less than the passed
+	 * id.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	public int nextId(int from) {
+		return nextId(mask, from);
+	}
+	
+	/**
+	 * @return
+	 * The number of Cards in this CardSet.
+	 */
+	public int size() {
+		return Integer.bitCount(mask);
+	}
+	
+	/**
+	 * Returns the Cards in this CardSet that are not in another.
+	 * @param other
+	 * The CardSet to remove.
+	 * @return
+	 * The difference of the two CardSets.
+	 */
+	public CardSet minus(CardSet other) {
+		return fromMask(mask & ~other.mask);
+	}
+	
+	/**
+	 * Returns the Cards in both this CardSet and another.
+	 * @param other
+	 * The CardSet to intersect with.
+	 * @return
+	 * The intersection of the two CardSets.
+	 */
+	public CardSet intersection(CardSet other) {
+		return fromMask(mask & other.mask);
+	}
+	
+	/**
+	 * Returns the Cards in either this CardSet or another.
+	 * @param other
+	 * The CardSet to unite with.
+	 * @return
+	 * The union of the two CardSets.
+	 */
+	public CardSet union(CardSet other) {
+		return fromMask(mask | other.mask);
+	}
+	
+	/**
+	 * Returns a CardSet with the passed Card added.
+	 * @param card
+	 * The Card to add.
+	 * @return
+	 * A CardSet holding this CardSet's Cards and the passed Card.
+	 */
+	public CardSet with(Card card) {
+		return fromMask(mask | card.getMask());
+	}
+	
+	/**
+	 * Returns a CardSet with the passed Card removed.
+	 * @param card
+	 * The Card to remove.
+	 * @return
+	 * A CardSet holding this CardSet's Cards except for the passed Card.
+	 */
+	public CardSet without(Card card) {
+		return fromMask(mask & ~card.getMask());
+	}
+	
+	/**
+	 * Iterates through the Cards in id order.
+	 */
+	@Override
+	public Iterator<Card> iterator() {
+		return iterator(mask);
+	}
+	
+	/**
+	 * Determines whether the passed Object is a CardSet with the same Cards.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof CardSet && ((CardSet) obj).mask == mask;
+	}
+	
+	@Override
+	public int hashCode() {
+		return mask;
+	}
+	
+	/**
+	 * Returns a user-friendly description of the Cards in this CardSet.
+	 */
+	@Override
+	public String toString() {
+		return toString(mask);
+	}
+	
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Instantiates a CardSet.
+	 * @param mask
+	 * The mask of the Cards in the set.
+	 */
+	private CardSet(int mask) {
+		this.mask = mask;
+	}
+	
+	//***************** Protected and Private Static Fields ******************//
+	private static final CardSet[] SINGLETONS = buildSingletons();
+	private static final CardSet EMPTY = new CardSet(0);
+	private static final CardSet ALL = new CardSet(Card.ALL_MASK);
+	
+	//*********************** Public Static Interface ************************//
+	/**
+	 * @return
+	 * The CardSet of every Card.
+	 */
+	public static CardSet all() {
+		return ALL;
+	}
+	
+	/**
+	 * @return
+	 * The empty CardSet.
+	 */
+	public static CardSet empty() {
+		return EMPTY;
+	}
+	
+	/**
+	 * Returns the CardSet of a bitmask.
+	 * @param mask
+	 * The bitwise OR of the Cards' masks.
+	 * @return
+	 * The CardSet.
+	 * @throws IllegalArgumentException
+	 * If the mask has bits set that do not belong to any Card.
+	 */
+	public static CardSet fromMask(int mask) {
+		if ((mask & ~Card.ALL_MASK) != 0) {
+			throw new IllegalArgumentException(
+				"Not a Card mask: " + Integer.toHexString(mask)
+			);
+		}
+		
+		CardSet set;
+		if (mask == 0) {
+			set = EMPTY;
+		} else if (mask == Card.ALL_MASK) {
+			set = ALL;
+		} else if ((mask & (mask - 1)) == 0) {
+			set = SINGLETONS[Integer.numberOfTrailingZeros(mask)];
+		} else {
+			set = new CardSet(mask);
+		}
+		return set;
+	}
+	
+	/**
+	 * Returns the CardSet of the passed Cards.
+	 * @param cards
+	 * The Cards.
+	 * @return
+	 * The CardSet.
+	 */
+	public static CardSet of(Card... cards) {
+		int mask = 0;
+		for (Card c : cards) {
+			mask |= c.getMask();
+		}
+		return fromMask(mask);
+	}
+	
+	/**
+	 * Returns the CardSet of the passed Cards.
+	 * @param cards
+	 * The Cards.
+	 * @return
+	 * The CardSet.
+	 */
+	public static CardSet of(Collection<? extends Card> cards) {
+		return fromMask(Card.maskOf(cards));
+	}
+	
+	/**
+	 * Returns the CardSet of a Suggestion's Cards.
+	 * @param suggestion
+	 * The Suggestion.
+	 * @return
+	 * The CardSet.
+	 */
+	public static CardSet of(Suggestion suggestion) {
+		return fromMask(suggestion.cardMask());
+	}
+	
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Builds the CardSets holding one Card each.
+	 * @return
+	 * An array of the CardSets indexed by Card id.
+	 */
+	private static CardSet[] buildSingletons() {
+		CardSet[] singletons = new CardSet[Card.COUNT];
+		for (int i = 0; i < Card.COUNT; ++i) {
+			singletons[i] = new CardSet(1 << i);
+		}
+		return singletons;
+	}
+	
+	/**
+	 * Iterates through the Cards of a mask in id order.  MutableCardSet shares
+	 * this.
+	 * @param mask
+	 * The mask.
+	 * @return
+	 * The Iterator.
+	 */
+	static Iterator<Card> iterator(final int mask) {
+		return new Iterator<Card>() {
+			private int remaining = mask;
+			
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+			
+			@Override
+			public Card next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int id = Integer.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return Card.of(id);
+			}
+		};
+	}
+	
+	/**
+	 * Finds the lowest Card id in a mask that is no less than the passed id.
+	 * MutableCardSet shares this.
+	 * @param mask
+	 * The mask.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	static int nextId(int mask, int from) {
+		if (from >= Card.COUNT) {
+			return -1;
+		}
+		int bits = mask & (-1 << Math.max(0, from));
+		return (bits == 0 ? -1 : Integer.numberOfTrailingZeros(bits));
+	}
+	
+	/**
+	 * Describes the Cards of a mask.  MutableCardSet shares this.
+	 * @param mask
+	 * The mask.
+	 * @return
+	 * A String in the same format as a Set of the Cards.
+	 */
+	static String toString(int mask) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int bits = mask; bits != 0; bits &= bits - 1) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(Card.of(Integer.numberOfTrailingZeros(bits)));
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,93 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CardTable holds the one instance of each Card and the tables built from
+ * them.  They are kept out of Card itself because building them initializes
+ * Suspect, Weapon, and Room, and each of those must first initialize Card.  If
+ * Card built them, a thread initializing Card and another initializing one of
+ * its subclasses could each wait for the other forever.  Card's own
+ * initialization now touches neither its subclasses nor this class, so the
+ * classes can be reached in any order from any number of threads.
+ *
+ * @author Joseph A. Craig
+ */
+final class CardTable {
+	//******************** Package-Private Static Fields *********************//
+	/**
+	 * Every Card, indexed by id.
+	 */
+	static final Card[] CARDS = {
+		new Suspect("Green", 0),
+		new Suspect("Mustard", 1),
+		new Suspect("Peacock", 2),
+		new Suspect("Plum", 3),
+		new Suspect("Scarlet", 4),
+		new Suspect("White", 5),
+		new Weapon("Candlestick", 0),
+		new Weapon("Knife", 1),
+		new Weapon("Pipe", 2),
+		new Weapon("Revolver", 3),
+		new Weapon("Rope", 4),
+		new Weapon("Wrench", 5),
+		new Room("Ballroom", 0),
+		new Room("Billiards Room", 1),
+		new Room("Conservatory", 2),
+		new Room("Dining Room", 3),
+		new Room("Hall", 4),
+		new Room("Kitchen", 5),
+		new Room("Library", 6),
+		new Room("Lounge", 7),
+		new Room("Study", 8)
+	};
+	
+	/**
+	 * The Card whose abbreviation is spelled by each pair of letters.
+	 */
+	static final Card[] DECODER = buildDecoder();
+	
+	/**
+	 * Unmodifiable Lists of all the Cards and of each type of Card.
+	 */
+	static final List<Card> ALL = Collections.unmodifiableList(
+		Arrays.asList(CARDS)
+	);
+	static final List<Card> SUSPECTS = ALL.subList(
+		Card.FIRST_SUSPECT,
+		Card.FIRST_WEAPON
+	);
+	static final List<Card> WEAPONS = ALL.subList(
+		Card.FIRST_WEAPON,
+		Card.FIRST_ROOM
+	);
+	static final List<Card> ROOMS = ALL.subList(Card.FIRST_ROOM, Card.COUNT);
+	
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * CardTable is never instantiated.
+	 */
+	private CardTable() {}
+	
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Builds the table that maps each pair of letters to the Card whose
+	 * abbreviation they spell.
+	 * @return
+	 * An array of LETTERS * LETTERS entries, most of them null.
+	 */
+	private static Card[] buildDecoder() {
+		final int LETTERS = Card.LETTERS;
+		Card[] decoder = new Card[LETTERS * LETTERS];
+		for (Card c : CARDS) {
+			String abbr = c.getAbbreviation();
+			decoder[
+				Card.toLetterIndex(abbr.charAt(0)) * LETTERS +
+				Card.toLetterIndex(abbr.charAt(1))
+			] = c;
+		}
+		return decoder;
+	}
+}
@@ -0,0 +1,361 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The Deal is everything chance decides at the start of a Speed Clue game: the
+ * solution and the Hands dealt to the Players in ascending play order.  The
+ * 18 Cards left after the solution is chosen are dealt as evenly as possible,
+ * with the first Players getting the extra Cards.
+ *
+ * Every Deal for a given number of Players has a dense id in the range
+ * [0..count(playerCount)), so a Deal can be stored in a long and rebuilt
+ * exactly with Deal.of(playerCount, id).  The id is
+ *
+ *   solution.getId() + Suggestion.COUNT * handsRank
+ *
+ * where handsRank is a mixed-radix number whose digits are the ranks of each
+ * Hand (except the last, which is whatever is left) among the equally sized
+ * subsets of the Cards still undealt, using the combinatorial number system.
+ * A uniformly random id is therefore a uniformly random Deal.
+ *
+ * @author Joseph A. Craig
+ */
+public final class Deal {
+	//********************* Protected and Private Fields *********************//
+	private final List<Hand> hands;
+	private final long id;
+	private final Suggestion solution;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * @return
+	 * This Deal's id among all the Deals for its number of Players.
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	/**
+	 * @return
+	 * An unmodifiable List of the Hands in ascending play order.
+	 */
+	public List<Hand> getHands() {
+		return hands;
+	}
+	
+	/**
+	 * @return
+	 * The number of Players this Deal is for.
+	 */
+	public int getPlayerCount() {
+		return hands.size();
+	}
+	
+	/**
+	 * @return
+	 * The solution.
+	 */
+	public Suggestion getSolution() {
+		return solution;
+	}
+	
+	/**
+	 * Determines whether the passed Object is a Deal of the same solution and
+	 * Hands to the same number of Players.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return (
+			obj instanceof Deal &&
+			((Deal) obj).id == id &&
+			((Deal) obj).hands.size() == hands.size()
+		);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(id) * 31 + hands.size();
+	}
+	
+	/**
+	 * Returns a user-friendly description of this Deal.
+	 */
+	@Override
+	public String toString() {
+		return String.format("Deal{%d: %s, %s}", id, solution, hands);
+	}
+	
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Instantiates a Deal.
+	 * @param id
+	 * The Deal's id.
+	 * @param solution
+	 * The solution.
+	 * @param hands
+	 * The Hands in ascending play order.
+	 */
+	private Deal(long id, Suggestion solution, List<Hand> hands) {
+		this.hands = Collections.unmodifiableList(hands);
+		this.id = id;
+		this.solution = solution;
+	}
+	
+	//************************* Public Static Fields *************************//
+	/**
+	 * The fewest Players a Deal can be for.
+	 */
+	public static final int MIN_PLAYERS = 3;
+	
+	/**
+	 * The most Players a Deal can be for.
+	 */
+	public static final int MAX_PLAYERS = 6;
+	
+	//***************** Protected and Private Static Fields ******************//
+	private static final int DEALT = Card.COUNT - 3;
+	private static final long[][] BINOMIALS = buildBinomials();
+	private static final long[] COUNTS = buildCounts();
+	
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Returns the number of distinct Deals for the passed number of Players.
+	 * @param playerCount
+	 * A number in the range [MIN_PLAYERS..MAX_PLAYERS].
+	 * @return
+	 * The number of Deals, which is also one more than the highest id.
+	 * @throws IllegalArgumentException
+	 * If the Player count is out of range.
+	 */
+	public static long count(int playerCount) {
+		checkPlayerCount(playerCount);
+		return COUNTS[playerCount];
+	}
+	
+	/**
+	 * Returns the number of Cards dealt to a Player.
+	 * @param playerCount
+	 * The number of Players in the game.
+	 * @param playerIndex
+	 * The Player's index in the play order.
+	 * @return
+	 * The size of the Player's Hand.
+	 */
+	public static int handSize(int playerCount, int playerIndex) {
+		int extra = (playerIndex < DEALT % playerCount ? 1 : 0);
+		return DEALT / playerCount + extra;
+	}
+	
+	/**
+	 * Rebuilds the Deal with the passed id.
+	 * @param playerCount
+	 * The number of Players in the game.
+	 * @param id
+	 * A number in the range [0..count(playerCount)).
+	 * @return
+	 * The Deal.
+	 * @throws IllegalArgumentException
+	 * If the Player count or the id is out of range.
+	 */
+	public static Deal of(int playerCount, long id) {
+		if (id < 0 || id >= count(playerCount)) {
+			throw new IllegalArgumentException(
+				String.format(
+					"No deal %d for %d players.",
+					id,
+					playerCount
+				)
+			);
+		}
+		
+		Suggestion solution = Suggestion.of((int) (id % Suggestion.COUNT));
+		long rank = id / Suggestion.COUNT;
+		int undealt = Card.ALL_MASK & ~solution.cardMask();
+		
+		List<Hand> hands = new ArrayList<>(playerCount);
+		for (int i = 0; i < playerCount - 1; ++i) {
+			int size = handSize(playerCount, i);
+			long radix = BINOMIALS[Integer.bitCount(undealt)][size];
+			int mask = unrankSubset(undealt, size, rank % radix);
+			rank /= radix;
+			hands.add(new Hand(mask));
+			undealt &= ~mask;
+		}
+		hands.add(new Hand(undealt));
+		
+		return new Deal(id, solution, hands);
+	}
+	
+	/**
+	 * Builds the Deal of the passed solution and Hands.
+	 * @param solution
+	 * The solution.
+	 * @param hands
+	 * The Hands in ascending play order.
+	 * @return
+	 * The Deal.
+	 * @throws IllegalArgumentException
+	 * If the Hands are the wrong sizes, overlap, or include the solution's
+	 * Cards.
+	 */
+	public static Deal of(Suggestion solution, List<Hand> hands) {
+		int playerCount = hands.size();
+		checkPlayerCount(playerCount);
+		
+		int undealt = Card.ALL_MASK & ~solution.cardMask();
+		long rank = 0L;
+		long place = 1L;
+		for (int i = 0; i < playerCount; ++i) {
+			Hand hand = hands.get(i);
+			int mask = hand.getMask();
+			int size = handSize(playerCount, i);
+			if (hand.size() != size || (mask & ~undealt) != 0) {
+				throw new IllegalArgumentException(
+					String.format(
+						"%s cannot be player %d of %d's hand with solution %s.",
+						hand,
+						i,
+						playerCount,
+						solution
+					)
+				);
+			}
+			
+			if (i < playerCount - 1) {
+				rank += place * rankSubset(undealt, mask);
+				place *= BINOMIALS[Integer.bitCount(undealt)][size];
+			}
+			undealt &= ~mask;
+		}
+		
+		return new Deal(
+			solution.getId() + Suggestion.COUNT * rank,
+			solution,
+			new ArrayList<>(hands)
+		);
+	}
+	
+	/**
+	 * Chooses a Deal uniformly at random.
+	 * @param playerCount
+	 * The number of Players in the game.
+	 * @param random
+	 * The source of randomness.
+	 * @return
+	 * The Deal.
+	 * @throws IllegalArgumentException
+	 * If the Player count is out of range.
+	 */
+	public static Deal random(int playerCount, RandomGenerator random) {
+		return of(playerCount, random.nextLong(count(playerCount)));
+	}
+	
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Builds Pascal's triangle up to the number of dealt Cards.
+	 * @return
+	 * A table in which [n][k] holds n choose k.
+	 */
+	private static long[][] buildBinomials() {
+		long[][] binomials = new long[DEALT + 1][DEALT + 1];
+		for (int n = 0; n <= DEALT; ++n) {
+			binomials[n][0] = 1L;
+			for (int k = 1; k <= n; ++k) {
+				binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+			}
+		}
+		return binomials;
+	}
+	
+	/**
+	 * Counts the Deals for each number of Players.
+	 * @return
+	 * An array of the counts indexed by Player count.
+	 */
+	private static long[] buildCounts() {
+		long[] counts = new long[MAX_PLAYERS + 1];
+		for (int players = MIN_PLAYERS; players <= MAX_PLAYERS; ++players) {
+			long count = Suggestion.COUNT;
+			int undealt = DEALT;
+			for (int i = 0; i < players - 1; ++i) {
+				int size = handSize(players, i);
+				count *= BINOMIALS[undealt][size];
+				undealt -= size;
+			}
+			counts[players] = count;
+		}
+		return counts;
+	}
+	
+	/**
+	 * @param playerCount
+	 * The number of Players in question.
+	 * @throws IllegalArgumentException
+	 * If the number is not in the range [MIN_PLAYERS..MAX_PLAYERS].
+	 */
+	private static void checkPlayerCount(int playerCount) {
+		if (playerCount < MIN_PLAYERS || playerCount > MAX_PLAYERS) {
+			throw new IllegalArgumentException(
+				"There cannot be a deal for " + playerCount + " players."
+			);
+		}
+	}
+	
+	/**
+	 * Ranks a subset of the Cards in a mask among all the subsets of the same
+	 * size.  Positions are counted from the lowest Card id in the mask.
+	 * @param from
+	 * The mask of the Cards to choose from.
+	 * @param subset
+	 * The mask of the chosen Cards, which must all be in "from".
+	 * @return
+	 * The sum over the chosen positions p_1 < p_2 < ... of (p_j choose j).
+	 */
+	private static long rankSubset(int from, int subset) {
+		long rank = 0L;
+		int chosen = 0;
+		int position = 0;
+		for (int bits = from; bits != 0; bits &= bits - 1, ++position) {
+			if ((subset & bits & -bits) != 0) {
+				rank += BINOMIALS[position][++chosen];
+			}
+		}
+		return rank;
+	}
+	
+	/**
+	 * Reverses rankSubset().
+	 * @param from
+	 * The mask of the Cards to choose from.
+	 * @param size
+	 * The number of Cards to choose.
+	 * @param rank
+	 * A number in the range [0..(bitCount(from) choose size)).
+	 * @return
+	 * The mask of the chosen Cards.
+	 */
+	private static int unrankSubset(int from, int size, long rank) {
+		boolean[] chosen = new boolean[Integer.bitCount(from)];
+		int position = chosen.length;
+		for (int j = size; j > 0; --j) {
+			do {
+				--position;
+			} while (BINOMIALS[position][j] > rank);
+			chosen[position] = true;
+			rank -= BINOMIALS[position][j];
+		}
+		
+		int mask = 0;
+		position = 0;
+		for (int bits = from; bits != 0; bits &= bits - 1, ++position) {
+			if (chosen[position]) {
+				mask |= bits & -bits;
+			}
+		}
+		return mask;
+	}
+}
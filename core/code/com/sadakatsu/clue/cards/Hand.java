@@ -1,21 +1,29 @@
 package com.sadakatsu.clue.cards;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import com.sadakatsu.clue.cards.Card;
 
 /**
  * The Hand is a collection of Cards.  It is primarily intended to be used as a
  * class for a Match to deliver a Player its hand at the start of the game.
- * 
+ *
+ * A Hand is immutable.  It is stored as a bitmask of its Cards' ids (see
+ * Card.getMask()), so membership and intersection queries are single bitwise
+ * operations, and its String forms are built once when it is created.
+ *
  * @author Joseph A. Craig
  */
 public class Hand {
 	//********************* Protected and Private Fields *********************//
-	private Set<Card> cards;
+	private final Collection<Card> cards;
+	private final int hash;
+	private final int mask;
+	private final String abbreviation;
+	private final String distribution;
 	
 	//*************************** Public Interface ***************************//
 	/**
@@ -24,7 +32,56 @@ public class Hand {
 	 * The Cards in the hand.
 	 */
 	public Hand(Collection<? extends Card> cards) {
-		this.cards = new HashSet<>(cards);
+		this(Card.maskOf(cards));
+	}
+	
+	/**
+	 * Instantiates a new Hand holding the Cards in the passed bitmask.
+	 * @param mask
+	 * The bitwise OR of the Cards' masks.
+	 * @throws IllegalArgumentException
+	 * If the mask has bits set that do not belong to any Card.
+	 */
+	public Hand(int mask) {
+		if ((mask & ~Card.ALL_MASK) != 0) {
+			throw new IllegalArgumentException(
+				"Not a Card mask: " + Integer.toHexString(mask)
+			);
+		}
+		
+		List<Card> list = toCards(mask);
+		int sum = 0;
+		StringBuilder sb = new StringBuilder();
+		for (Card c : list) {
+			if (sb.length() > 0) {
+				sb.append(" ");
+			}
+			sb.append(c.getAbbreviation());
+			sum += c.hashCode();
+		}
+		
+		this.mask = mask;
+		abbreviation = sb.toString();
+		cards = Collections.unmodifiableList(list);
+		distribution = String.format(
+			"%d,%d,%d",
+				getSuspectCount(),
+				getWeaponCount(),
+				getRoomCount()
+		);
+		hash = sum;
+	}
+	
+	/**
+	 * Determines whether this Hand can disprove the passed Suggestion.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if this Hand holds at least one of the Suggestion's Cards, false
+	 * otherwise.
+	 */
+	public boolean canDisprove(Suggestion suggestion) {
+		return (mask & suggestion.cardMask()) != 0;
 	}
 	
 	/**
@@ -35,7 +92,7 @@ public class Hand {
 	 * true if the Hand has the passed Card in it, false otherwise.
 	 */
 	public boolean has(Card card) {
-		return cards.contains(card);
+		return (mask & card.getMask()) != 0;
 	}
 	
 	/**
@@ -46,18 +103,20 @@ public class Hand {
 	 * true if the Hand does not have the passed Card in it, false otherwise.
 	 */
 	public boolean doesNotHave(Card card) {
-		return !cards.contains(card);
+		return (mask & card.getMask()) == 0;
 	}
-
+	
 	/**
-	 * Determines whether the passed Object is a Collection of Cards that
-	 * contains the same Cards in this Hand (no more and no less).
+	 * Determines whether the passed Object is a Hand or a Collection of Cards
+	 * that contains the same Cards in this Hand (no more and no less).
 	 */
 	@Override
 	public boolean equals(Object obj) {
 		boolean equal = false;
 		
-		if (obj instanceof Collection<?>) {
+		if (obj instanceof Hand) {
+			equal = ((Hand) obj).mask == mask;
+		} else if (obj instanceof Collection<?>) {
 			Collection<?> c = (Collection<?>) obj;
 			equal = (
 				cards.size() == c.size() &&
@@ -68,18 +127,22 @@ public class Hand {
 		
 		return equal;
 	}
-
+	
+	/**
+	 * Returns the same hash code as a Set of this Hand's Cards.
+	 */
 	@Override
 	public int hashCode() {
-		return cards.hashCode();
+		return hash;
 	}
 	
 	/**
 	 * Returns an unmodifiable Collection of the Cards in this Hand.
 	 * @return
+	 * The Cards in id order.
 	 */
 	public Collection<Card> getCards() {
-		return Collections.unmodifiableSet(cards);
+		return cards;
 	}
 	
 	/**
@@ -93,9 +156,59 @@ public class Hand {
 	 * This Collection may be empty.
 	 */
 	public Collection<Card> getDisproveCards(Suggestion suggestion) {
-		Set<Card> intersection = new HashSet<>(cards);
-		intersection.retainAll(suggestion.getCards());
-		return intersection;
+		return toCards(getDisproveMask(suggestion));
+	}
+	
+	/**
+	 * Returns the bitmask of the Cards that are in both this Hand and in the
+	 * Suggestion.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * The bitwise AND of this Hand's mask and the Suggestion's.
+	 */
+	public int getDisproveMask(Suggestion suggestion) {
+		return mask & suggestion.cardMask();
+	}
+	
+	/**
+	 * @return
+	 * The bitwise OR of this Hand's Cards' masks.
+	 */
+	public int getMask() {
+		return mask;
+	}
+	
+	/**
+	 * @return
+	 * The number of Rooms in this Hand.
+	 */
+	public int getRoomCount() {
+		return Integer.bitCount(mask & Card.ROOM_MASK);
+	}
+	
+	/**
+	 * @return
+	 * The number of Suspects in this Hand.
+	 */
+	public int getSuspectCount() {
+		return Integer.bitCount(mask & Card.SUSPECT_MASK);
+	}
+	
+	/**
+	 * @return
+	 * The number of Weapons in this Hand.
+	 */
+	public int getWeaponCount() {
+		return Integer.bitCount(mask & Card.WEAPON_MASK);
+	}
+	
+	/**
+	 * @return
+	 * The number of Cards in this Hand.
+	 */
+	public int size() {
+		return Integer.bitCount(mask);
 	}
 	
 	/**
@@ -105,14 +218,7 @@ public class Hand {
 	 * A String formatted as described above.
 	 */
 	public String getAbbreviation() {
-		StringBuilder sb = new StringBuilder();
-		for (Card c : cards) {
-			if (sb.length() > 0) {
-				sb.append(" ");
-			}
-			sb.append(c.getAbbreviation());
-		}
-		return sb.toString();
+		return abbreviation;
 	}
 	
 	/**
@@ -125,21 +231,7 @@ public class Hand {
 	 * A String describing this Hand's Card distribution.
 	 */
 	public String getDistributionString() {
-		int suspects = 0;
-		int weapons = 0;
-		int rooms = 0;
-		
-		for (Card c : cards) {
-			if (c instanceof Suspect) {
-				++suspects;
-			} else if (c instanceof Weapon) {
-				++weapons;
-			} else if (c instanceof Room) {
-				++rooms;
-			}
-		}
-		
-		return String.format("%d,%d,%d", suspects, weapons, rooms);
+		return distribution;
 	}
 	
 	/**
@@ -160,4 +252,20 @@ public class Hand {
 		sb.append("}");
 		return sb.toString();
 	}
+	
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Lists the Cards in a bitmask.
+	 * @param mask
+	 * The bitmask.
+	 * @return
+	 * A new List of the Cards in id order.
+	 */
+	private static List<Card> toCards(int mask) {
+		List<Card> cards = new ArrayList<>(Integer.bitCount(mask));
+		for (int bits = mask; bits != 0; bits &= bits - 1) {
+			cards.add(Card.of(Integer.numberOfTrailingZeros(bits)));
+		}
+		return cards;
+	}
 }
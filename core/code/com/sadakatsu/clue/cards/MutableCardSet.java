@@ -0,0 +1,204 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * The MutableCardSet is a modifiable set of Cards stored as a 21-bit mask of
+ * their ids.  It is the working counterpart of CardSet: build up or whittle
+ * down a MutableCardSet, then take a snapshot() to share.  A MutableCardSet
+ * is not thread-safe.
+ *
+ * @author Joseph A. Craig
+ */
+public final class MutableCardSet implements Iterable<Card> {
+	//********************* Protected and Private Fields *********************//
+	private int mask;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates an empty MutableCardSet.
+	 */
+	public MutableCardSet() {
+		mask = 0;
+	}
+	
+	/**
+	 * Instantiates a MutableCardSet holding the Cards of a CardSet.
+	 * @param cards
+	 * The CardSet to copy.
+	 */
+	public MutableCardSet(CardSet cards) {
+		mask = cards.getMask();
+	}
+	
+	/**
+	 * Instantiates a MutableCardSet holding the passed Cards.
+	 * @param cards
+	 * The Cards to add.
+	 */
+	public MutableCardSet(Collection<? extends Card> cards) {
+		mask = Card.maskOf(cards);
+	}
+	
+	/**
+	 * Adds a Card.
+	 * @param card
+	 * The Card to add.
+	 * @return
+	 * true if the Card was not already in this set, false otherwise.
+	 */
+	public boolean add(Card card) {
+		int before = mask;
+		mask |= card.getMask();
+		return mask != before;
+	}
+	
+	/**
+	 * Adds every Card of a CardSet.
+	 * @param cards
+	 * The Cards to add.
+	 */
+	public void addAll(CardSet cards) {
+		mask |= cards.getMask();
+	}
+	
+	/**
+	 * Adds every Card of a Suggestion.
+	 * @param suggestion
+	 * The Suggestion whose Cards to add.
+	 */
+	public void addAll(Suggestion suggestion) {
+		mask |= suggestion.cardMask();
+	}
+	
+	/**
+	 * Removes every Card.
+	 */
+	public void clear() {
+		mask = 0;
+	}
+	
+	/**
+	 * Removes a Card.
+	 * @param card
+	 * The Card to remove.
+	 * @return
+	 * true if the Card was in this set, false otherwise.
+	 */
+	public boolean remove(Card card) {
+		int before = mask;
+		mask &= ~card.getMask();
+		return mask != before;
+	}
+	
+	/**
+	 * Removes every Card of a CardSet.
+	 * @param cards
+	 * The Cards to remove.
+	 */
+	public void removeAll(CardSet cards) {
+		mask &= ~cards.getMask();
+	}
+	
+	/**
+	 * Removes every Card that is not in a CardSet.
+	 * @param cards
+	 * The Cards to keep.
+	 */
+	public void retainAll(CardSet cards) {
+		mask &= cards.getMask();
+	}
+	
+	/**
+	 * Replaces this set's Cards with those of a CardSet.
+	 * @param cards
+	 * The Cards to hold.
+	 */
+	public void set(CardSet cards) {
+		mask = cards.getMask();
+	}
+	
+	/**
+	 * Determines whether this set holds the passed Card.
+	 * @param card
+	 * The Card in question.
+	 * @return
+	 * true if the Card is in this set, false otherwise.
+	 */
+	public boolean contains(Card card) {
+		return (mask & card.getMask()) != 0;
+	}
+	
+	/**
+	 * Determines whether this set holds any of the passed Suggestion's Cards.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if at least one of the Suggestion's Cards is in this set, false
+	 * otherwise.
+	 */
+	public boolean containsAny(Suggestion suggestion) {
+		return (mask & suggestion.cardMask()) != 0;
+	}
+	
+	/**
+	 * @return
+	 * true if this set holds no Cards, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return mask == 0;
+	}
+	
+	/**
+	 * @return
+	 * The bitwise OR of the masks of this set's Cards.
+	 */
+	public int getMask() {
+		return mask;
+	}
+	
+	/**
+	 * Finds the lowest Card id in this set that is no less than the passed id.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	public int nextId(int from) {
+		return CardSet.nextId(mask, from);
+	}
+	
+	/**
+	 * @return
+	 * The number of Cards in this set.
+	 */
+	public int size() {
+		return Integer.bitCount(mask);
+	}
+	
+	/**
+	 * @return
+	 * An immutable CardSet holding this set's current Cards.
+	 */
+	public CardSet snapshot() {
+		return CardSet.fromMask(mask);
+	}
+	
+	/**
+	 * Iterates through the Cards in id order.  Changes made during the
+	 * iteration are not reflected by the Iterator.
+	 */
+	@Override
+	public Iterator<Card> iterator() {
+		return CardSet.iterator(mask);
+	}
+	
+	/**
+	 * Returns a user-friendly description of the Cards in this set.
+	 */
+	@Override
+	public String toString() {
+		return CardSet.toString(mask);
+	}
+}
@@ -0,0 +1,176 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The MutableSuggestionSet is a modifiable set of Suggestions stored as a
+ * 324-bit bitset of their ids.  It is the working counterpart of
+ * SuggestionSet: build up or whittle down a MutableSuggestionSet, then take a
+ * snapshot() to share.  A MutableSuggestionSet is not thread-safe.
+ *
+ * @author Joseph A. Craig
+ */
+public final class MutableSuggestionSet implements Iterable<Suggestion> {
+	//********************* Protected and Private Fields *********************//
+	private final long[] words;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates an empty MutableSuggestionSet.
+	 */
+	public MutableSuggestionSet() {
+		words = new long[SuggestionSet.WORDS];
+	}
+	
+	/**
+	 * Instantiates a MutableSuggestionSet holding the Suggestions of a
+	 * SuggestionSet.
+	 * @param suggestions
+	 * The SuggestionSet to copy.
+	 */
+	public MutableSuggestionSet(SuggestionSet suggestions) {
+		this();
+		suggestions.copyTo(words);
+	}
+	
+	/**
+	 * Adds a Suggestion.
+	 * @param suggestion
+	 * The Suggestion to add.
+	 * @return
+	 * true if the Suggestion was not already in this set, false otherwise.
+	 */
+	public boolean add(Suggestion suggestion) {
+		int id = suggestion.getId();
+		boolean added = !SuggestionSet.contains(words, id);
+		SuggestionSet.add(words, id);
+		return added;
+	}
+	
+	/**
+	 * Adds every Suggestion of a SuggestionSet.
+	 * @param suggestions
+	 * The Suggestions to add.
+	 */
+	public void addAll(SuggestionSet suggestions) {
+		long[] other = suggestions.words();
+		for (int i = 0; i < words.length; ++i) {
+			words[i] |= other[i];
+		}
+	}
+	
+	/**
+	 * Removes every Suggestion.
+	 */
+	public void clear() {
+		Arrays.fill(words, 0L);
+	}
+	
+	/**
+	 * Removes a Suggestion.
+	 * @param suggestion
+	 * The Suggestion to remove.
+	 * @return
+	 * true if the Suggestion was in this set, false otherwise.
+	 */
+	public boolean remove(Suggestion suggestion) {
+		int id = suggestion.getId();
+		boolean removed = SuggestionSet.contains(words, id);
+		SuggestionSet.remove(words, id);
+		return removed;
+	}
+	
+	/**
+	 * Removes every Suggestion of a SuggestionSet.
+	 * @param suggestions
+	 * The Suggestions to remove.
+	 */
+	public void removeAll(SuggestionSet suggestions) {
+		long[] other = suggestions.words();
+		for (int i = 0; i < words.length; ++i) {
+			words[i] &= ~other[i];
+		}
+	}
+	
+	/**
+	 * Removes every Suggestion that is not in a SuggestionSet.
+	 * @param suggestions
+	 * The Suggestions to keep.
+	 */
+	public void retainAll(SuggestionSet suggestions) {
+		long[] other = suggestions.words();
+		for (int i = 0; i < words.length; ++i) {
+			words[i] &= other[i];
+		}
+	}
+	
+	/**
+	 * Determines whether this set holds the passed Suggestion.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if the Suggestion is in this set, false otherwise.
+	 */
+	public boolean contains(Suggestion suggestion) {
+		return SuggestionSet.contains(words, suggestion.getId());
+	}
+	
+	/**
+	 * @return
+	 * true if this set holds no Suggestions, false otherwise.
+	 */
+	public boolean isEmpty() {
+		for (long w : words) {
+			if (w != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Finds the lowest Suggestion id in this set that is no less than the
+	 * passed id.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	public int nextId(int from) {
+		return SuggestionSet.nextId(words, from);
+	}
+	
+	/**
+	 * @return
+	 * The number of Suggestions in this set.
+	 */
+	public int size() {
+		return SuggestionSet.size(words);
+	}
+	
+	/**
+	 * @return
+	 * An immutable SuggestionSet holding this set's current Suggestions.
+	 */
+	public SuggestionSet snapshot() {
+		return SuggestionSet.wrap(words.clone());
+	}
+	
+	/**
+	 * Iterates through the Suggestions in id order.  The set must not be
+	 * modified during the iteration.
+	 */
+	@Override
+	public Iterator<Suggestion> iterator() {
+		return SuggestionSet.iterator(words);
+	}
+	
+	/**
+	 * Returns a user-friendly description of the Suggestions in this set.
+	 */
+	@Override
+	public String toString() {
+		return SuggestionSet.toString(words);
+	}
+}
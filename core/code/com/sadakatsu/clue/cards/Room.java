@@ -12,47 +12,33 @@ import java.util.List;
 public class Room extends Card {
 	//******************* Protected and Private Interface ********************//
 	/**
-	 * Builds a Room Card.
+	 * Builds a Room Card.  Only CardTable builds Cards.
 	 * @param name
 	 * The Card's name.
+	 * @param index
+	 * The Card's position among the Room Cards.
 	 */
-	private Room(String name) {
-		super(name);
+	Room(String name, int index) {
+		super(name, Card.FIRST_ROOM + index, index);
 	}
 	
-	//***************** Protected and Private Static Fields ******************//
-	private static List<Card> all;
-	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * All Room Cards.
 	 * @return
-	 * A List of all Room Cards.
+	 * A new List of all Room Cards in id order, which the caller may modify.
 	 */
 	public static List<Card> getRooms() {
-		if (all == null) {
-			all = buildRooms();
-		}
-		return new ArrayList<Card>(all);
+		return new ArrayList<Card>(CardTable.ROOMS);
 	}
 	
-	//**************** Protected and Private Static Interface ****************//
 	/**
-	 * Builds all Room Card instances and returns them in a List.
+	 * All Room Cards.
 	 * @return
-	 * The List of all Room Card instances.
+	 * An unmodifiable List of all Room Cards in id order.  The same List is
+	 * shared by all callers.
 	 */
-	private static List<Card> buildRooms() {
-		List<Card> rooms = new ArrayList<Card>();
-		rooms.add(new Room("Ballroom"));
-		rooms.add(new Room("Billiards Room"));
-		rooms.add(new Room("Conservatory"));
-		rooms.add(new Room("Dining Room"));
-		rooms.add(new Room("Hall"));
-		rooms.add(new Room("Kitchen"));
-		rooms.add(new Room("Library"));
-		rooms.add(new Room("Lounge"));
-		rooms.add(new Room("Study"));
-		return rooms;
+	public static List<Card> list() {
+		return CardTable.ROOMS;
 	}
 }
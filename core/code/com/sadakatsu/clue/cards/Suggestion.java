@@ -1,6 +1,8 @@
 package com.sadakatsu.clue.cards;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.sadakatsu.clue.exception.IncorrectCategory;
@@ -16,10 +18,20 @@ import com.sadakatsu.clue.exception.InvalidSuggestionString;
  * playing Clue, "Suggestion" was chosen as the name for the structure for all
  * three.
  * 
+ * Every Suggestion has an id in the range [0..COUNT) computed from its Cards'
+ * indices as suspect * 54 + weapon * 9 + room.  One canonical instance of
+ * each Suggestion is built when this class is initialized; Suggestion.of() and
+ * Suggestion.parse() return these instances, so callers that use them never
+ * allocate Suggestions.  The public constructors still build new (equal)
+ * instances for compatibility.
+ * 
  * @author Joseph A. Craig
  */
 public class Suggestion {
 	//********************* Protected and Private Fields *********************//
+	private int id;
+	private int mask;
+	private List<Card> cards;
 	private Suspect s;
 	private Weapon w;
 	private Room r;
@@ -38,6 +50,7 @@ public class Suggestion {
 		s = suspect;
 		w = weapon;
 		r = room;
+		cacheDerivedValues();
 	}
 	
 	/**
@@ -101,12 +114,46 @@ public class Suggestion {
 	/**
 	 * Determines whether two Suggestions are similar.
 	 */
+	@Override
 	public boolean equals(Object other) {
-		if (!(other instanceof Suggestion)) {
-			return false;
-		}
-		Suggestion that = (Suggestion) other;
-		return this.s == that.s && this.w == that.w && this.r == that.r;
+		return other instanceof Suggestion && ((Suggestion) other).id == id;
+	}
+	
+	/**
+	 * Returns this Suggestion's id, which is unique to each distinct
+	 * Suggestion.
+	 */
+	@Override
+	public int hashCode() {
+		return id;
+	}
+	
+	/**
+	 * The bitmask of this Suggestion's Cards (see Card.getMask()).
+	 * @return
+	 * The bitwise OR of the three Cards' masks.
+	 */
+	public int cardMask() {
+		return mask;
+	}
+	
+	/**
+	 * All this Suggestion's Cards in "Suspect Weapon Room" order.
+	 * @return
+	 * An unmodifiable List of this Suggestion's Cards that is shared by all
+	 * callers.
+	 */
+	public List<Card> cards() {
+		return cards;
+	}
+	
+	/**
+	 * This Suggestion's position among all the Suggestions.
+	 * @return
+	 * A number in the range [0..COUNT).
+	 */
+	public int getId() {
+		return id;
 	}
 	
 	/**
@@ -117,7 +164,7 @@ public class Suggestion {
 	 * true if the Card is in the Suggestion, false otherwise.
 	 */
 	public boolean has(Card card) {
-		return s == card || w == card || r == card;
+		return (mask & card.getMask()) != 0;
 	}
 	
 	/**
@@ -150,14 +197,11 @@ public class Suggestion {
 	/**
 	 * All this Suggestion's Cards in "Suspect Weapon Room" order.
 	 * @return
-	 * A List of this Suggestion's Cards.
+	 * A new List of this Suggestion's Cards, which the caller may modify.
+	 * Use cards() to avoid the copy.
 	 */
 	public List<Card> getCards() {
-		List<Card> cards = new ArrayList<>();
-		cards.add(s);
-		cards.add(w);
-		cards.add(r);
-		return cards;
+		return new ArrayList<>(cards);
 	}
 	
 	/**
@@ -190,6 +234,15 @@ public class Suggestion {
 	}
 	
 	//******************* Protected and Private Interface ********************//
+	/**
+	 * Computes the id, mask, and Card List from the Suspect, Weapon, and Room.
+	 */
+	private void cacheDerivedValues() {
+		id = toId(s.getIndex(), w.getIndex(), r.getIndex());
+		mask = s.getMask() | w.getMask() | r.getMask();
+		cards = Collections.unmodifiableList(Arrays.<Card>asList(s, w, r));
+	}
+	
 	/**
 	 * Determines that each of the Cards is of the expected category, then
 	 * initializes this Suggestion with the passed Cards.
@@ -207,73 +260,176 @@ public class Suggestion {
 		s = (Suspect) suspect;
 		w = (Weapon) weapon;
 		r = (Room) room;
+		cacheDerivedValues();
 	}
 	
+	//************************* Public Static Fields *************************//
 	/**
-	 * Validates that each of the passed Cards is of the expected category.
+	 * The number of distinct Suggestions.
+	 */
+	public static final int COUNT =
+		Card.SUSPECT_COUNT * Card.WEAPON_COUNT * Card.ROOM_COUNT;
+	
+	//***************** Protected and Private Static Fields ******************//
+	private static final int SUSPECT_STRIDE =
+		Card.WEAPON_COUNT * Card.ROOM_COUNT;
+	private static final int WEAPON_STRIDE = Card.ROOM_COUNT;
+	private static final Suggestion[] ALL = buildAll();
+	private static final List<Suggestion> LIST =
+		Collections.unmodifiableList(Arrays.asList(ALL));
+	
+	//*********************** Public Static Interface ************************//
+	/**
+	 * All 324 possible Suggestions.
+	 * @return
+	 * A new List of all the possible Suggestions in id order, which the caller
+	 * may modify.
+	 */
+	public static List<Suggestion> getSuggestions() {
+		return new ArrayList<Suggestion>(LIST);
+	}
+	
+	/**
+	 * All 324 possible Suggestions.
+	 * @return
+	 * An unmodifiable List of the canonical Suggestions in id order.  The same
+	 * List is shared by all callers.
+	 */
+	public static List<Suggestion> list() {
+		return LIST;
+	}
+	
+	/**
+	 * Returns the canonical Suggestion with the passed id.
+	 * @param id
+	 * A number in the range [0..COUNT).
+	 * @return
+	 * The Suggestion instance.
+	 * @throws ArrayIndexOutOfBoundsException
+	 * If the id is out of range.
+	 */
+	public static Suggestion of(int id) {
+		return ALL[id];
+	}
+	
+	/**
+	 * Returns the canonical Suggestion of the passed Cards.
 	 * @param suspect
-	 * A Suspect Card.
+	 * The Suspect for the Suggestion.
 	 * @param weapon
-	 * A Weapon Card.
+	 * The Weapon for the Suggestion.
 	 * @param room
-	 * A Room Card.
+	 * The Room for the Suggestion.
+	 * @return
+	 * The Suggestion instance.
 	 * @throws IncorrectCategory
 	 */
-	private void validateCardTypes(
+	public static Suggestion of(
 		Card suspect,
 		Card weapon,
 		Card room
 	) throws IncorrectCategory {
-		if (!(suspect instanceof Suspect)) {
-			throw new IncorrectCategory(Suspect.class, suspect);
-		}
-		
-		if (!(weapon instanceof Weapon)) {
-			throw new IncorrectCategory(Weapon.class, weapon);
-		}
-		
-		if (!(room instanceof Room)) {
-			throw new IncorrectCategory(Room.class, room);
-		}
+		validateCardTypes(suspect, weapon, room);
+		return ALL[
+			toId(suspect.getIndex(), weapon.getIndex(), room.getIndex())
+		];
 	}
 	
-	//***************** Protected and Private Static Fields ******************//
-	private static List<Suggestion> all;
-	
-	//*********************** Public Static Interface ************************//
 	/**
-	 * All 324 possible Suggestions.
+	 * Returns the canonical Suggestion described by a server-player-style
+	 * message, which has the format "Su We Ro".  This accepts exactly the
+	 * Strings the String constructor accepts.
+	 * @param from
+	 * The String from which to read the Suggestion.
 	 * @return
-	 * A List of all the possible Suggestions.
+	 * The Suggestion instance.
+	 * @throws InvalidSuggestionString
 	 */
-	public static List<Suggestion> getSuggestions() {
-		if (all == null) {
-			all = buildAll();
+	public static Suggestion parse(String from) throws InvalidSuggestionString {
+		// Decode the common, well-formed case directly.  Anything else goes
+		// through the constructor so that the errors are reported the same way.
+		if (
+			from.length() == 8 &&
+			from.charAt(2) == ' ' &&
+			from.charAt(5) == ' '
+		) {
+			Card s = Card.from(from.charAt(0), from.charAt(1));
+			Card w = Card.from(from.charAt(3), from.charAt(4));
+			Card r = Card.from(from.charAt(6), from.charAt(7));
+			if (
+				s instanceof Suspect &&
+				w instanceof Weapon &&
+				r instanceof Room
+			) {
+				return ALL[toId(s.getIndex(), w.getIndex(), r.getIndex())];
+			}
 		}
-		return new ArrayList<Suggestion>(all);
+		return ALL[new Suggestion(from).id];
 	}
 	
 	//**************** Protected and Private Static Interface ****************//
 	/**
 	 * Instantiates every possible Suggestion.
 	 * @return
-	 * Returns a List of every possible Suggestion.
+	 * Returns an array of every possible Suggestion in id order.
 	 */
-	private static List<Suggestion> buildAll() {
-		List<Suggestion> suggestions = new ArrayList<Suggestion>();
-		for (Card s : Suspect.getSuspects()) {
-			for (Card w : Weapon.getWeapons()) {
-				for (Card r : Room.getRooms()) {
-					suggestions.add(
-						new Suggestion(
-							(Suspect) s,
-							(Weapon) w,
-							(Room) r
-						)
+	private static Suggestion[] buildAll() {
+		Suggestion[] suggestions = new Suggestion[COUNT];
+		for (Card s : Suspect.list()) {
+			for (Card w : Weapon.list()) {
+				for (Card r : Room.list()) {
+					Suggestion suggestion = new Suggestion(
+						(Suspect) s,
+						(Weapon) w,
+						(Room) r
 					);
+					suggestions[suggestion.id] = suggestion;
 				}
 			}
 		}
 		return suggestions;
 	}
+	
+	/**
+	 * Computes a Suggestion's id.
+	 * @param suspect
+	 * The Suspect's index.
+	 * @param weapon
+	 * The Weapon's index.
+	 * @param room
+	 * The Room's index.
+	 * @return
+	 * The Suggestion's id.
+	 */
+	private static int toId(int suspect, int weapon, int room) {
+		return suspect * SUSPECT_STRIDE + weapon * WEAPON_STRIDE + room;
+	}
+	
+	/**
+	 * Validates that each of the passed Cards is of the expected category.
+	 * @param suspect
+	 * A Suspect Card.
+	 * @param weapon
+	 * A Weapon Card.
+	 * @param room
+	 * A Room Card.
+	 * @throws IncorrectCategory
+	 */
+	private static void validateCardTypes(
+		Card suspect,
+		Card weapon,
+		Card room
+	) throws IncorrectCategory {
+		if (!(suspect instanceof Suspect)) {
+			throw new IncorrectCategory(Suspect.class, suspect);
+		}
+		
+		if (!(weapon instanceof Weapon)) {
+			throw new IncorrectCategory(Weapon.class, weapon);
+		}
+		
+		if (!(room instanceof Room)) {
+			throw new IncorrectCategory(Room.class, room);
+		}
+	}
 }
@@ -0,0 +1,409 @@
+package com.sadakatsu.clue.cards;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The SuggestionSet is an immutable set of Suggestions stored as a 324-bit
+ * bitset of their ids (see Suggestion.getId()) in six longs.  Set operations
+ * work a word at a time and never box or hash.  To walk a SuggestionSet
+ * without allocating, loop with nextId():
+ *
+ *   for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) { ... }
+ *
+ * MutableSuggestionSet is the modifiable counterpart.
+ *
+ * @author Joseph A. Craig
+ */
+public final class SuggestionSet implements Iterable<Suggestion> {
+	//********************* Protected and Private Fields *********************//
+	private final long[] words;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Determines whether this SuggestionSet holds the passed Suggestion.
+	 * @param suggestion
+	 * The Suggestion in question.
+	 * @return
+	 * true if the Suggestion is in this SuggestionSet, false otherwise.
+	 */
+	public boolean contains(Suggestion suggestion) {
+		return contains(words, suggestion.getId());
+	}
+	
+	/**
+	 * Determines whether this SuggestionSet holds every Suggestion of another.
+	 * @param other
+	 * The SuggestionSet in question.
+	 * @return
+	 * true if the other SuggestionSet is a subset of this one, false
+	 * otherwise.
+	 */
+	public boolean containsAll(SuggestionSet other) {
+		for (int i = 0; i < WORDS; ++i) {
+			if ((other.words[i] & ~words[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return
+	 * true if this SuggestionSet holds no Suggestions, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	/**
+	 * Finds the lowest Suggestion id in this SuggestionSet that is no less
+	 * than the passed id.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	public int nextId(int from) {
+		return nextId(words, from);
+	}
+	
+	/**
+	 * @return
+	 * The number of Suggestions in this SuggestionSet.
+	 */
+	public int size() {
+		return size(words);
+	}
+	
+	/**
+	 * Returns the Suggestions in this SuggestionSet that are not in another.
+	 * @param other
+	 * The SuggestionSet to remove.
+	 * @return
+	 * The difference of the two SuggestionSets.
+	 */
+	public SuggestionSet minus(SuggestionSet other) {
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; ++i) {
+			result[i] = words[i] & ~other.words[i];
+		}
+		return new SuggestionSet(result);
+	}
+	
+	/**
+	 * Returns the Suggestions in both this SuggestionSet and another.
+	 * @param other
+	 * The SuggestionSet to intersect with.
+	 * @return
+	 * The intersection of the two SuggestionSets.
+	 */
+	public SuggestionSet intersection(SuggestionSet other) {
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; ++i) {
+			result[i] = words[i] & other.words[i];
+		}
+		return new SuggestionSet(result);
+	}
+	
+	/**
+	 * Returns the Suggestions in either this SuggestionSet or another.
+	 * @param other
+	 * The SuggestionSet to unite with.
+	 * @return
+	 * The union of the two SuggestionSets.
+	 */
+	public SuggestionSet union(SuggestionSet other) {
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; ++i) {
+			result[i] = words[i] | other.words[i];
+		}
+		return new SuggestionSet(result);
+	}
+	
+	/**
+	 * Iterates through the Suggestions in id order.
+	 */
+	@Override
+	public Iterator<Suggestion> iterator() {
+		return iterator(words);
+	}
+	
+	/**
+	 * Determines whether the passed Object is a SuggestionSet with the same
+	 * Suggestions.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return (
+			obj instanceof SuggestionSet &&
+			Arrays.equals(words, ((SuggestionSet) obj).words)
+		);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words);
+	}
+	
+	/**
+	 * Returns a user-friendly description of the Suggestions in this set.
+	 */
+	@Override
+	public String toString() {
+		return toString(words);
+	}
+	
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Instantiates a SuggestionSet.
+	 * @param words
+	 * The bitset, which the new instance takes ownership of.
+	 */
+	private SuggestionSet(long[] words) {
+		this.words = words;
+	}
+	
+	/**
+	 * Copies this SuggestionSet's bits into another bitset.  MutableSuggestion
+	 * Set uses this to avoid exposing the words.
+	 * @param destination
+	 * A bitset of WORDS longs.
+	 */
+	void copyTo(long[] destination) {
+		System.arraycopy(words, 0, destination, 0, WORDS);
+	}
+	
+	/**
+	 * @return
+	 * This SuggestionSet's bitset.  Callers in this package must not modify
+	 * it.
+	 */
+	long[] words() {
+		return words;
+	}
+	
+	//******************** Package-Private Static Fields *********************//
+	/**
+	 * The number of longs in a Suggestion bitset.
+	 */
+	static final int WORDS = (Suggestion.COUNT + Long.SIZE - 1) / Long.SIZE;
+	
+	//***************** Protected and Private Static Fields ******************//
+	private static final SuggestionSet EMPTY = new SuggestionSet(
+		new long[WORDS]
+	);
+	private static final SuggestionSet ALL = buildAll();
+	private static final SuggestionSet[] CONTAINING = buildContaining();
+	
+	//*********************** Public Static Interface ************************//
+	/**
+	 * @return
+	 * The SuggestionSet of every Suggestion.
+	 */
+	public static SuggestionSet all() {
+		return ALL;
+	}
+	
+	/**
+	 * Returns the SuggestionSet of every Suggestion that includes a Card.
+	 * @param card
+	 * The Card in question.
+	 * @return
+	 * The shared SuggestionSet.
+	 */
+	public static SuggestionSet containing(Card card) {
+		return CONTAINING[card.getId()];
+	}
+	
+	/**
+	 * @return
+	 * The empty SuggestionSet.
+	 */
+	public static SuggestionSet empty() {
+		return EMPTY;
+	}
+	
+	/**
+	 * Returns the SuggestionSet of the passed Suggestions.
+	 * @param suggestions
+	 * The Suggestions.
+	 * @return
+	 * The SuggestionSet.
+	 */
+	public static SuggestionSet of(Collection<Suggestion> suggestions) {
+		long[] words = new long[WORDS];
+		for (Suggestion s : suggestions) {
+			add(words, s.getId());
+		}
+		return new SuggestionSet(words);
+	}
+	
+	/**
+	 * Returns the SuggestionSet of the passed Suggestions.
+	 * @param suggestions
+	 * The Suggestions.
+	 * @return
+	 * The SuggestionSet.
+	 */
+	public static SuggestionSet of(Suggestion... suggestions) {
+		long[] words = new long[WORDS];
+		for (Suggestion s : suggestions) {
+			add(words, s.getId());
+		}
+		return new SuggestionSet(words);
+	}
+	
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Wraps a bitset.
+	 * @param words
+	 * The bitset, which the new instance takes ownership of.
+	 * @return
+	 * The SuggestionSet.
+	 */
+	static SuggestionSet wrap(long[] words) {
+		return new SuggestionSet(words);
+	}
+	
+	/**
+	 * Sets an id in a bitset.
+	 */
+	static void add(long[] words, int id) {
+		words[id >>> 6] |= 1L << id;
+	}
+	
+	/**
+	 * Tests whether an id is set in a bitset.
+	 */
+	static boolean contains(long[] words, int id) {
+		return (words[id >>> 6] & (1L << id)) != 0;
+	}
+	
+	/**
+	 * Clears an id in a bitset.
+	 */
+	static void remove(long[] words, int id) {
+		words[id >>> 6] &= ~(1L << id);
+	}
+	
+	/**
+	 * Counts the ids set in a bitset.
+	 */
+	static int size(long[] words) {
+		int size = 0;
+		for (long w : words) {
+			size += Long.bitCount(w);
+		}
+		return size;
+	}
+	
+	/**
+	 * Finds the lowest id set in a bitset that is no less than the passed id.
+	 * @param words
+	 * The bitset.
+	 * @param from
+	 * The id at which to start looking.
+	 * @return
+	 * The id, or -1 if there is none.
+	 */
+	static int nextId(long[] words, int from) {
+		if (from < 0) {
+			from = 0;
+		}
+		int i = from >>> 6;
+		if (i >= WORDS) {
+			return -1;
+		}
+		
+		long word = words[i] & (-1L << from);
+		while (word == 0) {
+			if (++i == WORDS) {
+				return -1;
+			}
+			word = words[i];
+		}
+		return i * Long.SIZE + Long.numberOfTrailingZeros(word);
+	}
+	
+	/**
+	 * Iterates through the Suggestions of a bitset in id order.
+	 * @param words
+	 * The bitset, which must not change during the iteration.
+	 * @return
+	 * The Iterator.
+	 */
+	static Iterator<Suggestion> iterator(final long[] words) {
+		return new Iterator<Suggestion>() {
+			private int next = nextId(words, 0);
+			
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+			
+			@Override
+			public Suggestion next() {
+				if (next < 0) {
+					throw new NoSuchElementException();
+				}
+				Suggestion s = Suggestion.of(next);
+				next = nextId(words, next + 1);
+				return s;
+			}
+		};
+	}
+	
+	/**
+	 * Describes the Suggestions of a bitset.
+	 * @param words
+	 * The bitset.
+	 * @return
+	 * A String in the same format as a Set of the Suggestions.
+	 */
+	static String toString(long[] words) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int id = nextId(words, 0); id >= 0; id = nextId(words, id + 1)) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(Suggestion.of(id));
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * @return
+	 * The SuggestionSet of every Suggestion.
+	 */
+	private static SuggestionSet buildAll() {
+		long[] words = new long[WORDS];
+		for (int id = 0; id < Suggestion.COUNT; ++id) {
+			add(words, id);
+		}
+		return new SuggestionSet(words);
+	}
+	
+	/**
+	 * @return
+	 * For each Card id, the SuggestionSet of the Suggestions that include the
+	 * Card.
+	 */
+	private static SuggestionSet[] buildContaining() {
+		long[][] words = new long[Card.COUNT][WORDS];
+		for (Suggestion s : Suggestion.list()) {
+			for (Card c : s.cards()) {
+				add(words[c.getId()], s.getId());
+			}
+		}
+		
+		SuggestionSet[] containing = new SuggestionSet[Card.COUNT];
+		for (int i = 0; i < Card.COUNT; ++i) {
+			containing[i] = new SuggestionSet(words[i]);
+		}
+		return containing;
+	}
+}
@@ -12,44 +12,33 @@ import java.util.List;
 public class Suspect extends Card {
 	//******************* Protected and Private Interface ********************//
 	/**
-	 * Builds a Suspect Card.
+	 * Builds a Suspect Card.  Only CardTable builds Cards.
 	 * @param name
 	 * The Card's name.
+	 * @param index
+	 * The Card's position among the Suspect Cards.
 	 */
-	private Suspect(String name) {
-		super(name);
+	Suspect(String name, int index) {
+		super(name, Card.FIRST_SUSPECT + index, index);
 	}
 	
-	//***************** Protected and Private Static Fields ******************//
-	private static List<Card> all;
-	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * All Suspect Cards.
 	 * @return
-	 * A List of all Suspect Cards.
+	 * A new List of all Suspect Cards in id order, which the caller may modify.
 	 */
 	public static List<Card> getSuspects() {
-		if (all == null) {
-			all = buildSuspects();
-		}
-		return new ArrayList<Card>(all);
+		return new ArrayList<Card>(CardTable.SUSPECTS);
 	}
 	
-	//**************** Protected and Private Static Interface ****************//
 	/**
-	 * Builds all Suspect Card instances and returns them in a List.
+	 * All Suspect Cards.
 	 * @return
-	 * The List of all Suspect Card instances.
+	 * An unmodifiable List of all Suspect Cards in id order.  The same List is
+	 * shared by all callers.
 	 */
-	private static List<Card> buildSuspects() {
-		List<Card> suspects = new ArrayList<Card>();
-		suspects.add(new Suspect("Green"));
-		suspects.add(new Suspect("Mustard"));
-		suspects.add(new Suspect("Peacock"));
-		suspects.add(new Suspect("Plum"));
-		suspects.add(new Suspect("Scarlet"));
-		suspects.add(new Suspect("White"));
-		return suspects;
+	public static List<Card> list() {
+		return CardTable.SUSPECTS;
 	}
 }
@@ -12,44 +12,33 @@ import java.util.List;
 public class Weapon extends Card {
 	//******************* Protected and Private Interface ********************//
 	/**
-	 * Builds a Weapon Card.
+	 * Builds a Weapon Card.  Only CardTable builds Cards.
 	 * @param name
-	 * The Weapon's name.
+	 * The Card's name.
+	 * @param index
+	 * The Card's position among the Weapon Cards.
 	 */
-	private Weapon(String name) {
-		super(name);
+	Weapon(String name, int index) {
+		super(name, Card.FIRST_WEAPON + index, index);
 	}
 	
-	//***************** Protected and Private Static Fields ******************//
-	private static List<Card> all;
-	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * All Weapon Cards.
 	 * @return
-	 * A List of all Weapon Cards.
+	 * A new List of all Weapon Cards in id order, which the caller may modify.
 	 */
 	public static List<Card> getWeapons() {
-		if (all == null) {
-			all = buildWeapons();
-		}
-		return new ArrayList<Card>(all);
+		return new ArrayList<Card>(CardTable.WEAPONS);
 	}
 	
-	//**************** Protected and Private Static Interface ****************//
 	/**
-	 * Builds all Weapon instances and returns them in a List.
+	 * All Weapon Cards.
 	 * @return
-	 * The List of all Weapon Card instances.
+	 * An unmodifiable List of all Weapon Cards in id order.  The same List is
+	 * shared by all callers.
 	 */
-	private static List<Card> buildWeapons() {
-		List<Card> weapons = new ArrayList<Card>();
-		weapons.add(new Weapon("Candlestick"));
-		weapons.add(new Weapon("Knife"));
-		weapons.add(new Weapon("Pipe"));
-		weapons.add(new Weapon("Revolver"));
-		weapons.add(new Weapon("Rope"));
-		weapons.add(new Weapon("Wrench"));
-		return weapons;
+	public static List<Card> list() {
+		return CardTable.WEAPONS;
 	}
 }
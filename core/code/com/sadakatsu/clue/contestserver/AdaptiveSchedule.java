@@ -0,0 +1,250 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import com.sadakatsu.util.BalancedOrders;
+
+/**
+ * An AdaptiveSchedule hands out MatchUps one table at a time, choosing each
+ * table from the entries' current Ratings instead of following a fixed plan.
+ *
+ * Each entry is weighted by how plausibly it is the strongest: twice the
+ * probability that it is stronger than the current leader, capped at one.
+ * Each pair of entries is scored by the product of their weights and by how
+ * much a game between them could teach, which is large when their strengths
+ * are close and uncertain.  A table starts with the best-scoring pair and
+ * grows with whichever entry adds the most score, so that most games go to
+ * the close contenders at the top of the ranking while entries with few games
+ * still get measured.  Every table plays all its balanced orders (see
+ * com.sadakatsu.util.BalancedOrders) so that no entry is favored by its seat,
+ * and the table sizes rotate through 3-6.
+ *
+ * The schedule ends when the leader is stronger than every other eligible
+ * entry with the requested confidence or when the game budget is spent.
+ *
+ * @author Joseph A. Craig
+ */
+public class AdaptiveSchedule {
+	//********************* Protected and Private Fields *********************//
+	private final double confidence;
+	private final int gamesPerMatchUp;
+	private final int maxGames;
+	private final List<String> entries;
+	private final long seed;
+	private final Predicate<String> eligible;
+	private final Queue<MatchUp> pending;
+	private final Ratings ratings;
+	private final SplittableRandom random;
+	private int gamesScheduled;
+	private int tables;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new AdaptiveSchedule.
+	 * @param entries
+	 * The identifiers of the entries in the contest.
+	 * @param eligible
+	 * Tests whether an entry may still play (that is, is not disqualified).
+	 * @param ratings
+	 * The Ratings that are updated as games finish.
+	 * @param gamesPerMatchUp
+	 * The number of games each order of each table plays.
+	 * @param maxGames
+	 * The most games the schedule will hand out.
+	 * @param confidence
+	 * The probability with which the leader must be stronger than every other
+	 * entry for the schedule to end early.
+	 * @param seed
+	 * The seed from which the MatchUps' seeds and the tie-breaking are
+	 * derived.
+	 */
+	public AdaptiveSchedule(
+		List<String> entries,
+		Predicate<String> eligible,
+		Ratings ratings,
+		int gamesPerMatchUp,
+		int maxGames,
+		double confidence,
+		long seed
+	) {
+		this.confidence = confidence;
+		this.eligible = eligible;
+		this.entries = new ArrayList<>(entries);
+		this.gamesPerMatchUp = gamesPerMatchUp;
+		this.maxGames = maxGames;
+		this.ratings = ratings;
+		this.seed = seed;
+		gamesScheduled = 0;
+		pending = new ArrayDeque<>();
+		random = new SplittableRandom(MatchUp.deriveSeed(seed, -1));
+		tables = 0;
+	}
+
+	/**
+	 * Returns the next MatchUp to play, choosing a new table if the orders of
+	 * the last one have all been handed out.
+	 * @return
+	 * The MatchUp, or null if the schedule has ended.
+	 */
+	public synchronized MatchUp next() {
+		if (pending.isEmpty() && !isFinished()) {
+			List<String> available = new ArrayList<>();
+			for (String e : entries) {
+				if (eligible.test(e)) {
+					available.add(e);
+				}
+			}
+
+			int largest = Math.min(6, available.size());
+			if (largest >= 3) {
+				int size = 3 + tables % (largest - 2);
+				long tableSeed = MatchUp.deriveSeed(seed, tables++);
+				int order = 0;
+				for (
+					List<String> o :
+					BalancedOrders.get(chooseTable(available, size))
+				) {
+					pending.add(
+						new MatchUp(
+							o,
+							gamesPerMatchUp,
+							MatchUp.deriveSeed(tableSeed, order++)
+						)
+					);
+					gamesScheduled += gamesPerMatchUp;
+				}
+			}
+		}
+		return pending.poll();
+	}
+
+	/**
+	 * @return
+	 * The number of games handed out so far.
+	 */
+	public synchronized int getGamesScheduled() {
+		return gamesScheduled;
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Chooses the entries for a table.
+	 * @param available
+	 * The identifiers of the eligible entries.
+	 * @param size
+	 * The number of entries to seat.
+	 * @return
+	 * The identifiers of the chosen entries.
+	 */
+	private List<String> chooseTable(List<String> available, int size) {
+		// Shuffling first makes the seeded random order break any ties that
+		// remain after preferring entries with fewer games.
+		List<String> candidates = new ArrayList<>(available);
+		for (int i = candidates.size() - 1; i > 0; --i) {
+			Collections.swap(candidates, i, random.nextInt(i + 1));
+		}
+		Collections.sort(
+			candidates,
+			(a, b) -> Integer.compare(ratings.getGames(a), ratings.getGames(b))
+		);
+
+		final int N = candidates.size();
+		String leader = ratings.rank(candidates).get(0);
+		double[] weights = new double[N];
+		for (int i = 0; i < N; ++i) {
+			weights[i] = Math.min(
+				1.0,
+				2.0 * ratings.probabilityStronger(candidates.get(i), leader)
+			);
+		}
+
+		double[][] scores = new double[N][N];
+		int firstA = 0;
+		int firstB = 1;
+		for (int i = 0; i < N; ++i) {
+			for (int j = i + 1; j < N; ++j) {
+				String a = candidates.get(i);
+				String b = candidates.get(j);
+				double variance = (
+					ratings.getVariance(a) + ratings.getVariance(b)
+				);
+				double gap = ratings.getMean(a) - ratings.getMean(b);
+				scores[i][j] = scores[j][i] = (
+					weights[i] * weights[j] * variance *
+					Math.exp(-gap * gap / (2.0 * variance))
+				);
+				if (scores[i][j] > scores[firstA][firstB]) {
+					firstA = i;
+					firstB = j;
+				}
+			}
+		}
+
+		List<Integer> seated = new ArrayList<>();
+		seated.add(firstA);
+		seated.add(firstB);
+		while (seated.size() < size) {
+			int best = -1;
+			double bestScore = -1.0;
+			for (int c = 0; c < N; ++c) {
+				if (seated.contains(c)) {
+					continue;
+				}
+				double score = 0.0;
+				for (int s : seated) {
+					score += scores[c][s];
+				}
+				if (score > bestScore) {
+					best = c;
+					bestScore = score;
+				}
+			}
+			seated.add(best);
+		}
+
+		List<String> table = new ArrayList<>(size);
+		for (int s : seated) {
+			table.add(candidates.get(s));
+		}
+		return table;
+	}
+
+	/**
+	 * @return
+	 * true if the game budget is spent or the leader is known with the
+	 * requested confidence, false otherwise.
+	 */
+	private boolean isFinished() {
+		if (gamesScheduled >= maxGames) {
+			return true;
+		}
+
+		List<String> available = new ArrayList<>();
+		for (String e : entries) {
+			if (eligible.test(e)) {
+				if (ratings.getGames(e) == 0) {
+					return false;
+				}
+				available.add(e);
+			}
+		}
+		if (available.size() < 3) {
+			return true;
+		}
+
+		List<String> ranking = ratings.rank(available);
+		String leader = ranking.get(0);
+		for (String e : ranking.subList(1, ranking.size())) {
+			if (ratings.probabilityStronger(leader, e) < confidence) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,204 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.function.Supplier;
+
+/**
+ * A ConcurrencyController limits how many MatchSlots play at the same time.
+ * Every slot acquires a permit before it takes a MatchUp and releases it when
+ * the MatchUp is done.
+ *
+ * A fixed controller allows every slot to play at once, which is how the
+ * contest has always run.  An adaptive controller instead tunes the limit
+ * with additive increase and multiplicative decrease.  After each window of
+ * play it reads three measures:
+ * - the 99th percentile of the entries' response times during the window
+ * - the host's load average relative to its number of cores
+ * - the games finished per second during the window
+ * If the percentile is above its target or the host is overloaded, the limit
+ * is halved, since slow responses are the first step toward timeouts that
+ * would be the server's fault rather than the entries'.  Otherwise it grows
+ * by one, unless the last increase lowered the throughput, in which case the
+ * limit steps back down and holds for several windows before probing again.
+ *
+ * ConcurrencyController is thread-safe.
+ *
+ * @author Joseph A. Craig
+ */
+public class ConcurrencyController {
+	//********************* Protected and Private Fields *********************//
+	private final boolean adaptive;
+	private final double targetMillis;
+	private final int maxLimit;
+	private final OperatingSystemMXBean system;
+	private final Supplier<ResponseStatistics> responses;
+	private boolean increased;
+	private double lastThroughput;
+	private int hold;
+	private int inFlight;
+	private int limit;
+	private long windowGames;
+	private long windowStart;
+	private ResponseStatistics windowResponses;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a fixed ConcurrencyController that allows a constant
+	 * number of MatchUps at once.
+	 * @param limit
+	 * The number of MatchUps allowed at once.
+	 */
+	public ConcurrencyController(int limit) {
+		this(limit, 0.0, null);
+	}
+
+	/**
+	 * Instantiates an adaptive ConcurrencyController.
+	 * @param maxLimit
+	 * The most MatchUps allowed at once (the number of MatchSlots).
+	 * @param targetMillis
+	 * The 99th percentile response time, in milliseconds, that the controller
+	 * keeps the entries under.
+	 * @param responses
+	 * Returns the response times of every replica so far, combined.  The
+	 * controller compares successive results to see the responses of each
+	 * window.
+	 */
+	public ConcurrencyController(
+		int maxLimit,
+		double targetMillis,
+		Supplier<ResponseStatistics> responses
+	) {
+		this.adaptive = (responses != null);
+		this.maxLimit = maxLimit;
+		this.responses = responses;
+		this.targetMillis = targetMillis;
+		system = ManagementFactory.getOperatingSystemMXBean();
+		hold = 0;
+		increased = false;
+		inFlight = 0;
+		lastThroughput = 0.0;
+		int cores = system.getAvailableProcessors();
+		limit = (adaptive ? Math.max(1, Math.min(maxLimit, cores)) : maxLimit);
+		windowGames = 0;
+		windowStart = System.nanoTime();
+		windowResponses = (adaptive ? responses.get() : null);
+	}
+
+	/**
+	 * Waits until another MatchUp may be played and claims a permit for it.
+	 * @throws InterruptedException
+	 */
+	public synchronized void acquire() throws InterruptedException {
+		while (inFlight >= limit) {
+			wait();
+		}
+		++inFlight;
+	}
+
+	/**
+	 * Returns a permit claimed by acquire() and, if the controller is adaptive
+	 * and a window has passed, adjusts the limit.
+	 * @param games
+	 * The number of games played with the permit.
+	 */
+	public synchronized void release(int games) {
+		--inFlight;
+		windowGames += games;
+		if (adaptive) {
+			adjust();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * @return
+	 * The number of MatchUps currently allowed at once.
+	 */
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Adjusts the limit if the current window is long enough and has seen
+	 * enough responses, then starts a new window.
+	 */
+	private void adjust() {
+		long elapsed = System.nanoTime() - windowStart;
+		if (elapsed < WINDOW_NANOS) {
+			return;
+		}
+
+		ResponseStatistics now = responses.get();
+		ResponseStatistics window = now.since(windowResponses);
+		if (window.getCount() < MIN_RESPONSES) {
+			return;
+		}
+
+		double p99 = window.getPercentileMillis(0.99);
+		double load = system.getSystemLoadAverage();
+		boolean overloaded = (
+			p99 > targetMillis ||
+			(load >= 0.0 && load > system.getAvailableProcessors())
+		);
+		double throughput = windowGames * 1.0e9 / elapsed;
+
+		int previous = limit;
+		boolean slower = throughput < lastThroughput * (1.0 - TOLERANCE);
+		if (overloaded) {
+			limit = Math.max(1, limit / 2);
+			increased = false;
+			hold = 0;
+		} else if (increased && slower) {
+			limit = Math.max(1, limit - 1);
+			increased = false;
+			hold = HOLD_WINDOWS;
+		} else if (hold > 0) {
+			--hold;
+			increased = false;
+		} else {
+			increased = (limit < maxLimit);
+			limit = Math.min(maxLimit, limit + 1);
+		}
+		lastThroughput = throughput;
+
+		if (limit != previous) {
+			System.out.format(
+				"concurrency %d -> %d (p99 %.1f ms, load %.2f, %.2f games/s)\n",
+					previous,
+					limit,
+					p99,
+					load,
+					throughput
+			);
+		}
+
+		windowGames = 0;
+		windowResponses = now;
+		windowStart = System.nanoTime();
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of windows the limit holds after an increase is undone.
+	 */
+	private static final int HOLD_WINDOWS = 10;
+
+	/**
+	 * The fewest responses a window needs for its percentile to mean much.
+	 */
+	private static final int MIN_RESPONSES = 200;
+
+	/**
+	 * The fraction by which the throughput must fall after an increase for
+	 * the increase to be undone.
+	 */
+	private static final double TOLERANCE = 0.05;
+
+	/**
+	 * The shortest window between adjustments.
+	 */
+	private static final long WINDOW_NANOS = 2000000000L;
+}
@@ -8,19 +8,30 @@ import java.net.ServerSocket;
 import java.net.SocketException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import com.sadakatsu.clue.cards.Hand;
 import com.sadakatsu.clue.exception.ClueException;
 import com.sadakatsu.clue.exception.DisqualifiedPlayer;
 import com.sadakatsu.clue.exception.DuplicateIdentifier;
 import com.sadakatsu.clue.exception.InvalidPlayerCount;
 import com.sadakatsu.clue.exception.ProtocolViolation;
 import com.sadakatsu.clue.exception.TimeoutViolation;
-import com.sadakatsu.util.EntryScript;
+import com.sadakatsu.util.BalancedBlocks;
+import com.sadakatsu.util.BalancedOrders;
 import com.sadakatsu.util.Combinations;
+import com.sadakatsu.util.EntryScript;
 import com.sadakatsu.util.Permutations;
 
 /**
@@ -31,26 +42,80 @@ import com.sadakatsu.util.Permutations;
  * played are invalidated.  All players' results are reported in the file
  * "playerOutcomes.txt" and all legal match's data are reported in the
  * "matchTranscripts.txt".
- * 
- * It receives the arguments "entrantsFile gamesPerPermutation".  The first
- * argument is the name of the file listing the launch commands for the contest
- * entries; see com.sadakatsu.util.EntryScript for a description of the format
- * for the file.  The second argument describes the number of games each match-
- * up of entrants will play.
- * 
+ *
+ * It receives the arguments "entrantsFile gamesPerPermutation [name=value
+ * ...]".  The first argument is the name of the file listing the launch
+ * commands for the contest entries; see com.sadakatsu.util.EntryScript for a
+ * description of the format for the file.  The second argument describes the
+ * number of games each match-up of entrants will play.  Any further arguments
+ * are options described by ContestSettings.
+ *
+ * Matches can be played in parallel.  Each of the requested MatchSlots runs
+ * its own replica of every entry, optionally pinned to its own CPU cores, and
+ * takes match-ups from a shared schedule until the schedule is exhausted.  A
+ * disqualification in any slot applies to the entry's replicas in every slot
+ * and stops their games in progress at the next turn.
+ * The match-ups expected to take longest can be handed out first (see
+ * LongestFirstSchedule) so that the slots finish at about the same time.
+ * The number of slots playing at once can also be tuned as the contest runs
+ * (see ConcurrencyController), so that the entries' response times stay well
+ * inside the time limit.  How busy each slot was is reported in
+ * "slotMetrics.txt".
+ *
+ * Every scored game is dealt from its own seed, derived from the master seed
+ * (which is printed when the contest starts), the entries at the table, and
+ * the game's place in its match-up, so a contest can be replayed with the
+ * same deals by passing the same "seed=" option, however many slots play it.
+ * A table keeps its deals when other entries are added to or removed from the
+ * contest.
+ *
+ * If a result store is requested, every match-up that is played to the end is
+ * saved in it, and every match-up that is already in it is read back instead
+ * of being played (see ResultStore).  The store's key changes with each
+ * entry's launch command and files, so after entries are added or changed,
+ * a contest with the same seed plays only their match-ups.
+ *
+ * Every game's winner also updates an online rating of the entries (see
+ * Ratings), which an adaptive schedule uses to choose the next table (see
+ * AdaptiveSchedule).  The final ratings are reported in "ratings.txt".
+ *
+ * If a warm-up is requested, every entry first plays unscored blocks of games
+ * until its mean response time settles, so that entries running on a JIT
+ * compiler are not penalized for their first, slow decisions.  The warm-up
+ * results are reported in "warmUp.txt", and the response times of the scored
+ * games are reported in "playerMetrics.txt".
+ *
+ * On systems with a "/proc" file system, every entry's process is sampled
+ * periodically for its CPU time, resident set size, and thread count.  The
+ * totals and peaks are reported in both "playerOutcomes.txt" and
+ * "playerMetrics.txt".  The same samples let the server charge entries for
+ * the CPU time they use instead of wall-clock time (see TimeoutMode), which
+ * keeps heavily loaded machines from causing false timeouts.
+ *
  * The structure of the tournament is described in
  * "SpeedClueContest/tournament.md".
- * 
+ *
  * @author Joseph A. Craig
  *
  */
 public class ContestServer {
 	//********************* Protected and Private Fields *********************//
+	private final boolean ownsSlots;
+	private final Consumer<MatchRecord> listener;
+	private final File directory;
+	private volatile boolean aborted;
 	private BufferedWriter matchTranscripts;
 	private BufferedWriter playerOutcomes;
-	private List<Match> matches;
-	private Map<String, Player> players;
-	
+	private ConcurrencyController concurrency;
+	private ContestSettings settings;
+	private List<MatchRecord> matches;
+	private List<MatchSlot> slots;
+	private List<String> warmUpResults;
+	private long elapsedNanos;
+	private ProcessMonitor monitor;
+	private Ratings ratings;
+	private ResultStore store;
+
 	//*************************** Public Interface ***************************//
 	/**
 	 * Runs the contest.
@@ -73,55 +138,756 @@ public class ContestServer {
 		DisqualifiedPlayer,
 		InvalidPlayerCount
 	{
+		this(new ContestSettings(agentScript, gamesPerPermutation));
+	}
+
+	/**
+	 * Runs the contest.
+	 * @param settings
+	 * The ContestSettings describing the entrants and how the contest is run.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws DuplicateIdentifier
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 */
+	public ContestServer(ContestSettings settings)
+	throws
+		IOException,
+		InterruptedException,
+		DuplicateIdentifier,
+		DisqualifiedPlayer,
+		InvalidPlayerCount
+	{
+		this.settings = settings;
+		directory = null;
+		listener = null;
+		ownsSlots = true;
+
 		try (ServerSocket accept = new ServerSocket(0)) {
 			accept.setSoTimeout(TimeoutViolation.TIMEOUT);
-			matchTranscripts = new BufferedWriter(
-				new FileWriter("matchTranscripts.txt")
+			openOutputs();
+			slots = launchSlots(settings, accept);
+			configureReplicas();
+			play();
+		} finally {
+			cleanUp();
+		}
+	}
+
+	//*********************** Package-Private Interface **********************//
+	/**
+	 * Runs a contest on MatchSlots whose replicas are already running, as
+	 * ContestService does for each of its jobs.  The replicas' response
+	 * statistics and the slots' busy times are cleared first so that the
+	 * reports describe only this contest, and the replicas are left running
+	 * afterward.  Entries disqualified by an earlier contest stay
+	 * disqualified.
+	 * @param settings
+	 * The ContestSettings describing how the contest is run.  Its slot and
+	 * core settings are ignored in favor of the passed slots.
+	 * @param slots
+	 * The MatchSlots on which to play.
+	 * @param directory
+	 * The directory in which the reports are written.
+	 * @param listener
+	 * Receives the MatchRecord of every game as soon as it is played or read
+	 * from the ResultStore, or null.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws DuplicateIdentifier
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 */
+	ContestServer(
+		ContestSettings settings,
+		List<MatchSlot> slots,
+		File directory,
+		Consumer<MatchRecord> listener
+	) throws
+		IOException,
+		InterruptedException,
+		DuplicateIdentifier,
+		DisqualifiedPlayer,
+		InvalidPlayerCount
+	{
+		this.settings = settings;
+		this.slots = slots;
+		this.directory = directory;
+		this.listener = listener;
+		ownsSlots = false;
+
+		try {
+			openOutputs();
+			for (MatchSlot slot : slots) {
+				slot.resetBusyTime();
+				for (Player p : slot.getPlayers().values()) {
+					if (p != null) {
+						p.resetResponseStatistics();
+					}
+				}
+			}
+			configureReplicas();
+			play();
+		} finally {
+			cleanUp();
+		}
+	}
+
+	/**
+	 * Creates the MatchSlots and starts every slot's replicas of the entries.
+	 * @param settings
+	 * The ContestSettings that name the entrants file and the number of slots
+	 * and cores per slot.
+	 * @param accept
+	 * The ServerSocket through which the replicas connect.
+	 * @return
+	 * The MatchSlots.
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 */
+	static List<MatchSlot> launchSlots(
+		ContestSettings settings,
+		ServerSocket accept
+	) throws IOException, DuplicateIdentifier {
+		final int SLOTS = settings.getSlots();
+		final int CORES = settings.getCoresPerSlot();
+		if (CORES > 0 && SLOTS * CORES > availableCores()) {
+			throw new IllegalArgumentException(
+				String.format(
+					"%d slots of %d cores need more than the %d cores " +
+					"available.",
+						SLOTS,
+						CORES,
+						availableCores()
+				)
+			);
+		}
+
+		List<MatchSlot> slots = new ArrayList<>();
+		for (int i = 0; i < SLOTS; ++i) {
+			int[] cores = null;
+			if (CORES > 0) {
+				cores = new int[CORES];
+				for (int j = 0; j < CORES; ++j) {
+					cores[j] = i * CORES + j;
+				}
+			}
+
+			MatchSlot slot = new MatchSlot(i, cores);
+			slots.add(slot);
+			slot.launch(settings.getEntrantsFile(), accept);
+		}
+		return slots;
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Opens the reports that are written as the contest runs and creates the
+	 * collections of results.
+	 * @throws IOException
+	 */
+	private void openOutputs() throws IOException {
+		matchTranscripts = new BufferedWriter(
+			new FileWriter(output("matchTranscripts.txt"))
+		);
+		playerOutcomes = new BufferedWriter(
+			new FileWriter(output("playerOutcomes.txt"))
+		);
+		matches = Collections.synchronizedList(new ArrayList<MatchRecord>());
+		warmUpResults = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	/**
+	 * Plays the contest on the running MatchSlots.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 * @throws DuplicateIdentifier
+	 */
+	private void play()
+	throws
+		IOException,
+		InterruptedException,
+		DisqualifiedPlayer,
+		InvalidPlayerCount,
+		DuplicateIdentifier
+	{
+		System.out.format("seed=%d\n", settings.getSeed());
+		if (settings.getEntries() != null) {
+			for (String identifier : settings.getEntries()) {
+				if (!slots.get(0).getPlayers().containsKey(identifier)) {
+					throw new IllegalArgumentException(
+						"Unknown entry \"" + identifier + "\""
+					);
+				}
+			}
+		}
+
+		if (settings.getStore() != null) {
+			store = new ResultStore(
+				settings.getStore(),
+				EntryScript.fingerprint(settings.getEntrantsFile())
+			);
+		}
+		if (settings.isAdaptiveConcurrency()) {
+			concurrency = new ConcurrencyController(
+				slots.size(),
+				settings.getTargetP99(),
+				this::getResponseStatistics
+			);
+		} else {
+			concurrency = new ConcurrencyController(slots.size());
+		}
+		List<String> playing = getPlaying();
+		ratings = new Ratings(playing);
+		runSchedule(playing, getSchedule(playing));
+	}
+
+	/**
+	 * Builds the tournament schedule: every permutation (or, if requested,
+	 * every balanced order) of every combination of 3-6 entries (or, if
+	 * requested, every group of a pair-balanced block design), each playing
+	 * gamesPerPermutation games.
+	 * Every permutation's seed is derived from the master seed and its
+	 * entries in play order, so that it does not change when other entries
+	 * join or leave the contest.  In duplicate mode, every permutation uses
+	 * its combination's seed instead, which is derived from the entries in
+	 * sorted order, so they all replay the same Deals.
+	 * @param playing
+	 * The identifiers of the entries that are eligible to play.
+	 * @return
+	 * The MatchUps in the order they should be played.
+	 */
+	private List<MatchUp> buildSchedule(List<String> playing) {
+		List<MatchUp> schedule = new ArrayList<>();
+
+		final int GAMES = settings.getGamesPerPermutation();
+		final int MAX_COUNT = Math.min(6, playing.size());
+		for (int i = 3; i <= MAX_COUNT; ++i) {
+			long sizeSeed = MatchUp.deriveSeed(settings.getSeed(), i);
+			Iterable<Collection<String>> tables = (
+				settings.getTableMode() == TableMode.BLOCKS ?
+					BalancedBlocks.get(
+						playing,
+						i,
+						settings.getMeetings(),
+						new SplittableRandom(MatchUp.deriveSeed(sizeSeed, -1))
+					) :
+					Combinations.get(playing, i)
+			);
+			for (Collection<String> inGame : tables) {
+				List<String> sorted = new ArrayList<>(inGame);
+				Collections.sort(sorted);
+				long seed = MatchUp.deriveSeed(settings.getSeed(), sorted);
+				Iterable<List<String>> orders = (
+					settings.isBalancedOrders() ?
+						BalancedOrders.get(inGame) :
+						Permutations.get(inGame)
+				);
+				for (List<String> order : orders) {
+					schedule.add(
+						new MatchUp(
+							order,
+							GAMES,
+							settings.isDuplicate() ?
+								seed :
+								MatchUp.deriveSeed(settings.getSeed(), order)
+						)
+					);
+				}
+			}
+		}
+
+		return schedule;
+	}
+
+	/**
+	 * Returns the source of the MatchUps to play: either the fixed schedule
+	 * built by buildSchedule(), in order or longest first, or an
+	 * AdaptiveSchedule.
+	 * @param playing
+	 * The identifiers of the entries that are eligible to play.
+	 * @return
+	 * A thread-safe Supplier of MatchUps that returns null when there are no
+	 * more to play.
+	 */
+	private Supplier<MatchUp> getSchedule(List<String> playing) {
+		Supplier<MatchUp> schedule;
+		if (settings.getTableMode() == TableMode.ADAPTIVE) {
+			int maxGames = settings.getMaxGames();
+			if (maxGames == 0) {
+				maxGames = countExhaustiveGames(
+					playing.size(),
+					settings.getGamesPerPermutation()
+				);
+			}
+
+			AdaptiveSchedule adaptive = new AdaptiveSchedule(
+				playing,
+				(identifier) -> {
+					Player p = getRepresentative(identifier);
+					return p != null && !p.isDisqualified();
+				},
+				ratings,
+				settings.getGamesPerPermutation(),
+				maxGames,
+				settings.getConfidence(),
+				settings.getSeed()
+			);
+			schedule = adaptive::next;
+		} else if (settings.isLongestFirst()) {
+			LongestFirstSchedule longest = new LongestFirstSchedule(
+				buildSchedule(playing),
+				(identifier) -> {
+					ResponseStatistics rs = getResponseStatistics(identifier);
+					return (
+						rs.getCount() > 0 ? rs.getMeanMillis() : Double.NaN
+					);
+				}
 			);
-			playerOutcomes = new BufferedWriter(
-				new FileWriter("playerOutcomes.txt")
+			schedule = longest::next;
+		} else {
+			Queue<MatchUp> pending = new ConcurrentLinkedQueue<>(
+				buildSchedule(playing)
+			);
+			schedule = pending::poll;
+		}
+		return schedule;
+	}
+
+	/**
+	 * Applies the contest's timeout settings to every replica and starts
+	 * sampling the replicas' processes.
+	 * @throws IOException
+	 */
+	private void configureReplicas() throws IOException {
+		List<Player> replicas = new ArrayList<>();
+		for (MatchSlot slot : slots) {
+			for (Player p : slot.getPlayers().values()) {
+				if (p != null) {
+					p.setTimeoutMode(
+						settings.getTimeoutMode(),
+						settings.getHardTimeout()
+					);
+					replicas.add(p);
+				}
+			}
+		}
+
+		if (settings.getSampleInterval() > 0) {
+			monitor = new ProcessMonitor(
+				replicas,
+				settings.getSampleInterval()
 			);
-			matches = new ArrayList<>();
-			
-			players = EntryScript.process(agentScript, accept, false);
-			
-			List<Player> playing = new ArrayList<>();
-			for (Player p : players.values()) {
-				if (p != null && !p.isDisqualified()) {
-					playing.add(p);
+		}
+	}
+
+	/**
+	 * Plays the schedule on all the MatchSlots at once.  If any slot fails
+	 * with an error that is not a rule violation, the other slots stop taking
+	 * new match-ups and the error is rethrown once they have all stopped.
+	 * @param playing
+	 * The identifiers of the entries that are eligible to play.
+	 * @param schedule
+	 * The source of the MatchUps to play.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 */
+	private void runSchedule(
+		List<String> playing,
+		Supplier<MatchUp> schedule
+	) throws
+		IOException,
+		InterruptedException,
+		DisqualifiedPlayer,
+		InvalidPlayerCount
+	{
+		ExecutorService workers = Executors.newFixedThreadPool(slots.size());
+		List<Future<Void>> running = new ArrayList<>();
+		long start = System.nanoTime();
+		try {
+			for (final MatchSlot slot : slots) {
+				running.add(
+					workers.submit(() -> {
+						runSlot(slot, playing, schedule);
+						return null;
+					})
+				);
+			}
+
+			Throwable failure = null;
+			for (Future<Void> f : running) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					aborted = true;
+					if (failure == null) {
+						failure = e.getCause();
+					}
+				}
+			}
+
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			} else if (failure instanceof InterruptedException) {
+				throw (InterruptedException) failure;
+			} else if (failure instanceof DisqualifiedPlayer) {
+				throw (DisqualifiedPlayer) failure;
+			} else if (failure instanceof InvalidPlayerCount) {
+				throw (InvalidPlayerCount) failure;
+			} else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure != null) {
+				throw new IllegalStateException(failure);
+			}
+		} finally {
+			workers.shutdown();
+			elapsedNanos = System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Warms up a MatchSlot's replicas if requested, then plays MatchUps from
+	 * the shared schedule on the slot until the schedule is exhausted.  The
+	 * slot holds a permit from the ConcurrencyController while it takes and
+	 * plays each MatchUp.
+	 * @param slot
+	 * The MatchSlot on which to play.
+	 * @param playing
+	 * The identifiers of the entries that are eligible to play.
+	 * @param schedule
+	 * The source of the MatchUps not yet taken by any slot.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 */
+	private void runSlot(
+		MatchSlot slot,
+		List<String> playing,
+		Supplier<MatchUp> schedule
+	) throws
+		IOException,
+		InterruptedException,
+		DisqualifiedPlayer,
+		InvalidPlayerCount
+	{
+		if (settings.getWarmUpGames() > 0) {
+			warmUp(slot, slot.getPlayers(playing));
+		}
+
+		while (!aborted) {
+			concurrency.acquire();
+			int played = 0;
+			try {
+				MatchUp matchUp = schedule.get();
+				if (matchUp == null) {
+					break;
+				}
+				played = playMatchUp(slot, matchUp);
+			} finally {
+				concurrency.release(played);
+			}
+		}
+	}
+
+	/**
+	 * Plays one MatchUp on a MatchSlot.  MatchUps that involve a disqualified
+	 * entry are skipped, and MatchUps in the ResultStore are read from it
+	 * instead of being played.  Every game's result updates the Ratings.  If
+	 * one of the entries is disqualified in another slot while the MatchUp is
+	 * being played, the current game stops at its next turn and the rest of
+	 * the MatchUp is abandoned.
+	 * @param slot
+	 * The MatchSlot on which to play.
+	 * @param matchUp
+	 * The MatchUp to play.
+	 * @return
+	 * The number of games played, which does not count games read from the
+	 * ResultStore.
+	 * @throws IOException
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 */
+	private int playMatchUp(MatchSlot slot, MatchUp matchUp)
+	throws IOException, DisqualifiedPlayer, InvalidPlayerCount {
+		List<Player> order = slot.getPlayers(matchUp.getOrder());
+		if (!mayPlay(order)) {
+			return 0;
+		}
+
+		List<MatchRecord> records = (
+			store == null ? null : store.load(matchUp)
+		);
+		if (records != null) {
+			System.out.format("%d %s stored\n", slot.getIndex(), order);
+			for (MatchRecord r : records) {
+				addRecord(r);
+			}
+			return 0;
+		}
+
+		System.out.format("%d %s\n", slot.getIndex(), order);
+		records = new ArrayList<>();
+		int played = 0;
+		long start = System.nanoTime();
+		try {
+			for (int j = 0; j < matchUp.getGames(); ++j) {
+				MatchRecord r = MatchRecord.of(
+					new Match(order, matchUp.getDeal(j))
+				);
+				addRecord(r);
+				records.add(r);
+				++played;
+			}
+
+			if (store != null && mayPlay(order)) {
+				try {
+					store.save(matchUp, records);
+				} catch (IOException ioe) {
+					// The results still count; they will just be played again
+					// by the next contest.
+					System.out.format(
+						"Error storing %s: %s\n",
+							matchUp,
+							ioe.getMessage()
+					);
 				}
 			}
-			
-			final int MAX_COUNT = Math.min(6, players.size());
-			for (int i = 3; i <= MAX_COUNT; ++i) {
+		} catch (ClueException e) {
+			disqualify(e);
+		} catch (DisqualifiedPlayer e) {
+			// Another slot disqualified one of these entries after the check
+			// above, and the Match stopped at its next turn, so the rest of
+			// this MatchUp would not count either.
+			System.out.format(
+				"%d %s stopped: %s\n",
+					slot.getIndex(),
+					order,
+					e.getMessage()
+			);
+		} finally {
+			slot.addBusyTime(System.nanoTime() - start, played);
+		}
+		return played;
+	}
+
+	/**
+	 * Adds the result of a game to the contest's results and Ratings and
+	 * passes it to the listener, if there is one.
+	 * @param record
+	 * The MatchRecord of the game.
+	 */
+	private void addRecord(MatchRecord record) {
+		matches.add(record);
+		ratings.update(record.getPlayers(), record.getWinner());
+		if (listener != null) {
+			listener.accept(record);
+		}
+	}
+
+	/**
+	 * Plays unscored blocks of games for each entry until the entry's mean
+	 * response time changes by less than the warm-up tolerance between two
+	 * consecutive blocks or the maximum number of blocks has been played.  The
+	 * entry rotates through every seat, and its opponents rotate through all
+	 * the other entries.  Rule violations during the warm-up still disqualify
+	 * the offender.  All response statistics are cleared afterward so that
+	 * they describe only the scored games.
+	 * @param slot
+	 * The MatchSlot whose replicas are warmed up.
+	 * @param playing
+	 * The slot's Players that are eligible to play.
+	 * @throws DisqualifiedPlayer
+	 * @throws InvalidPlayerCount
+	 * @throws IOException
+	 */
+	private void warmUp(MatchSlot slot, List<Player> playing)
+	throws DisqualifiedPlayer, InvalidPlayerCount, IOException {
+		final int TABLE_SIZE = Math.min(6, playing.size());
+		if (TABLE_SIZE < 3) {
+			return;
+		}
+
+		for (Player p : playing) {
+			List<Player> opponents = new ArrayList<>(playing);
+			opponents.remove(p);
+
+			int blocks = 0;
+			int games = 0;
+			boolean settled = false;
+			double first = 0.0;
+			double last = 0.0;
+			double previous = -1.0;
+			System.out.format("%d warming up %s\n", slot.getIndex(), p);
+
+			while (
+				!settled &&
+				!p.isDisqualified() &&
+				blocks < settings.getWarmUpBlocks()
+			) {
+				p.resetResponseStatistics();
 				for (
-					Collection<Player> inGame : Combinations.get(playing, i)
+					int i = 0;
+					!p.isDisqualified() && i < settings.getWarmUpGames();
+					++i, ++games
 				) {
-					if (!mayPlay(inGame)) {
-						continue;
+					List<Player> available = new ArrayList<>();
+					for (Player o : opponents) {
+						if (!o.isDisqualified()) {
+							available.add(o);
+						}
 					}
-					
+					if (available.size() < 2) {
+						break;
+					}
+
+					int seated = Math.min(TABLE_SIZE - 1, available.size());
+					List<Player> order = new ArrayList<>();
+					for (int j = 0; j < seated; ++j) {
+						int k = (games + j) % available.size();
+						order.add(available.get(k));
+					}
+					order.add(games % (seated + 1), p);
+
 					try {
-						for (List<Player> order : Permutations.get(inGame)) {
-							System.out.println(order);
-							for (int j = 0; j < gamesPerPermutation; ++j) {
-								System.out.format(" %d", j + 1);
-								matches.add(new Match(order));
-							}
-							System.out.println();
-						}
+						new Match(order);
 					} catch (ClueException e) {
-						e.getOffender().disqualify(e);
-						System.out.println();
+						disqualify(e);
+					} catch (DisqualifiedPlayer e) {
+						// Another slot disqualified one of the opponents; the
+						// next game is seated without it.
 					}
 				}
+				++blocks;
+
+				last = p.getResponseStatistics().getMeanMillis();
+				if (blocks == 1) {
+					first = last;
+				}
+				settled = (
+					previous >= 0.0 &&
+					Math.abs(last - previous) <=
+						settings.getWarmUpTolerance() * previous
+				);
+				previous = last;
 			}
-		} finally {
-			cleanUp();
+
+			warmUpResults.add(
+				String.format(
+					"%s,%d,%d,%d,%b,%.3f,%.3f,%.3f",
+						p.getIndentifier(),
+						slot.getIndex(),
+						blocks,
+						games,
+						settled,
+						first,
+						last,
+						p.getResponseStatistics().getMaxMillis()
+				)
+			);
+		}
+
+		for (Player p : playing) {
+			p.resetResponseStatistics();
 		}
 	}
-	
-	//******************* Protected and Private Interface ********************//
+
+	/**
+	 * Disqualifies the offender of a rule violation in every MatchSlot.
+	 * @param violation
+	 * The ClueException raised by the offending replica.
+	 */
+	private void disqualify(ClueException violation) {
+		String identifier = violation.getOffender().getIndentifier();
+		for (MatchSlot slot : slots) {
+			Player p = slot.getPlayer(identifier);
+			if (p != null && !p.isDisqualified()) {
+				p.disqualify(violation);
+			}
+		}
+	}
+
+	/**
+	 * Returns the identifiers of the selected entries whose replicas started
+	 * in every MatchSlot and have not been disqualified.
+	 * @return
+	 * The identifiers of the entries that are eligible to play.
+	 */
+	private List<String> getPlaying() {
+		List<String> playing = new ArrayList<>();
+		for (String identifier : getSelected()) {
+			Player p = getRepresentative(identifier);
+			if (p != null && !p.isDisqualified()) {
+				playing.add(identifier);
+			}
+		}
+		return playing;
+	}
+
+	/**
+	 * Returns the identifiers of the entries taking part in this contest.
+	 * @return
+	 * The identifiers named by the "entries" setting, or of every entry in
+	 * the entrants file if it is not set.
+	 */
+	private Collection<String> getSelected() {
+		Collection<String> all = slots.get(0).getPlayers().keySet();
+		List<String> selected = new ArrayList<>();
+		for (String identifier : all) {
+			if (
+				settings.getEntries() == null ||
+				settings.getEntries().contains(identifier)
+			) {
+				selected.add(identifier);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Returns the replica of an entry whose state represents the entry as a
+	 * whole.  Disqualifications are applied to every replica, so the first
+	 * slot's replica suffices.
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The first slot's replica, or null if the entry failed to start in any
+	 * slot.
+	 */
+	private Player getRepresentative(String identifier) {
+		for (MatchSlot slot : slots) {
+			if (slot.getPlayer(identifier) == null) {
+				return null;
+			}
+		}
+		return slots.get(0).getPlayer(identifier);
+	}
+
+	/**
+	 * Determines whether a recorded match counts toward the results.
+	 * @param record
+	 * The MatchRecord in question.
+	 * @return
+	 * true if none of the match's entries have been disqualified, false
+	 * otherwise.
+	 */
+	private boolean isValid(MatchRecord record) {
+		boolean valid = true;
+		for (String identifier : record.getPlayers()) {
+			Player p = getRepresentative(identifier);
+			if (p == null || p.isDisqualified()) {
+				valid = false;
+				break;
+			}
+		}
+		return valid;
+	}
+
 	/**
 	 * Determines whether all the players in the proposed combination are
 	 * eligible to play.
@@ -133,7 +899,7 @@ public class ContestServer {
 	private boolean mayPlay(Collection<Player> candidates) {
 		boolean valid = true;
 		for (Player p : candidates) {
-			if (p.isDisqualified()) {
+			if (p == null || p.isDisqualified()) {
 				valid = false;
 				break;
 			}
@@ -144,42 +910,49 @@ public class ContestServer {
 	/**
 	 * Ensures that all clean up code is performed regardless of any error
 	 * states that may exist, and logs the tournament results as far as is
-	 * possible.
+	 * possible.  The replicas are stopped only if this ContestServer launched
+	 * them.
 	 */
 	private void cleanUp() {
-		if (players != null) {
-			for (Player p : players.values()) {
-				try {
-					if (p != null) {
-						p.done();
+		if (slots != null && !slots.isEmpty()) {
+			recordMetrics();
+
+			if (ownsSlots) {
+				for (MatchSlot slot : slots) {
+					for (Player p : slot.getPlayers().values()) {
+						try {
+							if (p != null) {
+								p.done();
+							}
+						} catch (ProtocolViolation | TimeoutViolation e) {
+							if (!p.isDisqualified()) {
+								disqualify(e);
+							}
+						} catch (SocketException se) {
+							// blank
+						} catch (IOException ioe) {
+							ioe.printStackTrace();
+						}
 					}
-				} catch (ProtocolViolation | TimeoutViolation e) {
-					p.disqualify(e);
-				} catch (SocketException se) {
-					// blank
-				} catch (IOException ioe) {
-					ioe.printStackTrace();
 				}
 			}
-			
+
 			if (matchTranscripts != null && playerOutcomes != null) {
-				Map<Player, Integer> played = new HashMap<>();
-				Map<Player, Integer> won = new HashMap<>();
-				for (Player p : players.values()) {
-					if (p != null && !p.isDisqualified()) {
-						played.put(p, 0);
-						won.put(p, 0);
-					}
+				Map<String, Integer> played = new HashMap<>();
+				Map<String, Integer> won = new HashMap<>();
+				for (String identifier : getPlaying()) {
+					played.put(identifier, 0);
+					won.put(identifier, 0);
 				}
-				
-				for (Match m : matches) {
-					if (!m.hasDisqualifiedPlayer()) {
-						Player winner = m.getWinner();
+
+				for (MatchRecord m : matches) {
+					if (isValid(m)) {
+						String winner = m.getWinner();
 						int wins = won.get(winner) + 1;
 						won.put(winner, wins);
-						for (Player p : m.getPlayers()) {
-							int games = played.get(p) + 1;
-							played.put(p, games);
+						for (String identifier : m.getPlayers()) {
+							int games = played.get(identifier) + 1;
+							played.put(identifier, games);
 						}
 						try {
 							recordMatch(m);
@@ -192,15 +965,16 @@ public class ContestServer {
 						}
 					}
 				}
-				
-				for (Map.Entry<String, Player> entry : players.entrySet()) {
-					String identifier = entry.getKey();
-					Player player = entry.getValue();
-					
+
+				recordRatings();
+
+				for (String identifier : getSelected()) {
+					Player player = getRepresentative(identifier);
+
 					try {
 						playerOutcomes.write(identifier);
 						playerOutcomes.write(",");
-						
+
 						if (player == null) {
 							playerOutcomes.write(
 								"disqualified - failed to start"
@@ -211,15 +985,20 @@ public class ContestServer {
 								player.getViolation().getMessage()
 							);
 						} else {
+							ResourceStatistics us =
+								getResourceStatistics(identifier);
 							playerOutcomes.write(
 								String.format(
-									"%d,%d",
-										won.get(player),
-										played.get(player)
+									"%d,%d,%.0f,%d,%d",
+										won.get(identifier),
+										played.get(identifier),
+										us.getCpuMillis(),
+										us.getPeakRssKiB(),
+										us.getPeakThreads()
 								)
 							);
 						}
-						
+
 						playerOutcomes.write("\n");
 						playerOutcomes.flush();
 					} catch (IOException ioe) {
@@ -232,7 +1011,7 @@ public class ContestServer {
 				}
 			}
 		}
-		
+
 		if (matchTranscripts != null) {
 			try {
 				matchTranscripts.close();
@@ -240,7 +1019,7 @@ public class ContestServer {
 				ioe.printStackTrace();
 			}
 		}
-		
+
 		if (playerOutcomes != null) {
 			try {
 				playerOutcomes.close();
@@ -249,60 +1028,308 @@ public class ContestServer {
 			}
 		}
 	}
-	
+
 	/**
-	 * Writes data about a match to "matchTranscripts.txt".  The data written is
-	 * a comma-separated line with the following data in the following order:
-	 * - number of players
-	 * - position in play order of winner
-	 * - round when game was won
-	 * - for each player by ascending order of play position:
-	 * -- player identifier
-	 * -- number of suspects dealt
-	 * -- number of weapons dealt
-	 * -- number of rooms dealt
-	 * @param match
-	 * The Match to be recorded.
-	 * @throws IOException
+	 * Combines the resource usage of all the replicas of an entry.
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The combined ResourceStatistics.
 	 */
-	private void recordMatch(Match match) throws IOException {
-		int playerCount = match.getPlayerCount();
-		List<Hand> hands = match.getHands();
-		List<Player> players = match.getPlayers();
-		
-		StringBuilder sb = new StringBuilder(
-			String.format(
-				"%d,%d,%d",
-					playerCount,
-					match.getPlayers().indexOf(match.getWinner()),
-					match.getRounds()
-			)
-		);
-		
-		for (int i = 0; i < playerCount; ++i) {
-			Hand h = hands.get(i);
-			Player p = players.get(i);
-			sb.append(
-				String.format(
-					",%s,%s",
-						p.getIndentifier(),
-						h.getDistributionString()
+	private ResourceStatistics getResourceStatistics(String identifier) {
+		ResourceStatistics combined = new ResourceStatistics();
+		for (MatchSlot slot : slots) {
+			Player p = slot.getPlayer(identifier);
+			if (p != null) {
+				combined.merge(p.getResourceStatistics());
+			}
+		}
+		return combined;
+	}
+
+	/**
+	 * Combines the response times of every replica of every entry.
+	 * @return
+	 * The combined ResponseStatistics.
+	 */
+	private ResponseStatistics getResponseStatistics() {
+		ResponseStatistics combined = new ResponseStatistics();
+		for (MatchSlot slot : slots) {
+			for (Player p : slot.getPlayers().values()) {
+				if (p != null) {
+					combined.merge(p.getResponseStatistics());
+				}
+			}
+		}
+		return combined;
+	}
+
+	/**
+	 * Combines the response times of all the replicas of an entry.
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The combined ResponseStatistics.
+	 */
+	private ResponseStatistics getResponseStatistics(String identifier) {
+		ResponseStatistics combined = new ResponseStatistics();
+		for (MatchSlot slot : slots) {
+			Player p = slot.getPlayer(identifier);
+			if (p != null) {
+				combined.merge(p.getResponseStatistics());
+			}
+		}
+		return combined;
+	}
+
+	/**
+	 * Writes the warm-up results to "warmUp.txt", the response statistics for
+	 * the scored games to "playerMetrics.txt", and the MatchSlots' utilization
+	 * to "slotMetrics.txt".  Each line of "warmUp.txt" holds the following
+	 * comma-separated data:
+	 * - player identifier
+	 * - slot index
+	 * - number of warm-up blocks played
+	 * - number of warm-up games played
+	 * - whether the response time settled before the block limit
+	 * - mean response time in the first block in milliseconds
+	 * - mean response time in the last block in milliseconds
+	 * - longest response time in the last block in milliseconds
+	 *
+	 * Each line of "playerMetrics.txt" holds the following comma-separated
+	 * data, combined over all of the entry's replicas:
+	 * - player identifier
+	 * - number of responses
+	 * - mean response time in milliseconds
+	 * - longest response time in milliseconds
+	 * - CPU time consumed in milliseconds
+	 * - mean resident set size in KiB
+	 * - peak resident set size in KiB
+	 * - mean thread count
+	 * - peak thread count
+	 *
+	 * Each line of "slotMetrics.txt" holds the following comma-separated data:
+	 * - slot index
+	 * - cores the slot is pinned to, separated by semicolons, or "*"
+	 * - number of scored matches played
+	 * - time spent playing scored matches in milliseconds
+	 * - fraction of the tournament's duration spent playing scored matches
+	 * - CPU time consumed by the slot's replicas in milliseconds
+	 * - fraction of the slot's cores' capacity used by its replicas, or "-"
+	 *   if the slot is not pinned
+	 *
+	 * This must be called before the Players are told to stop so that the
+	 * final process sample can still be taken.
+	 */
+	private void recordMetrics() {
+		if (monitor != null) {
+			monitor.close();
+			monitor.sample();
+		}
+
+		if (warmUpResults != null && !warmUpResults.isEmpty()) {
+			try (
+				BufferedWriter bw = new BufferedWriter(
+					new FileWriter(output("warmUp.txt"))
 				)
-			);
+			) {
+				for (String line : warmUpResults) {
+					bw.write(line);
+					bw.write("\n");
+				}
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+
+		try (
+			BufferedWriter bw = new BufferedWriter(
+				new FileWriter(output("playerMetrics.txt"))
+			)
+		) {
+			for (String identifier : getSelected()) {
+				if (getRepresentative(identifier) != null) {
+					ResponseStatistics rs = getResponseStatistics(identifier);
+					ResourceStatistics us = getResourceStatistics(identifier);
+					bw.write(
+						String.format(
+							"%s,%d,%.3f,%.3f,%.0f,%d,%d,%.1f,%d\n",
+								identifier,
+								rs.getCount(),
+								rs.getMeanMillis(),
+								rs.getMaxMillis(),
+								us.getCpuMillis(),
+								us.getMeanRssKiB(),
+								us.getPeakRssKiB(),
+								us.getMeanThreads(),
+								us.getPeakThreads()
+						)
+					);
+				}
+			}
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
 		}
-		
-		sb.append("\n");
-		
-		matchTranscripts.write(sb.toString());
+
+		try (
+			BufferedWriter bw = new BufferedWriter(
+				new FileWriter(output("slotMetrics.txt"))
+			)
+		) {
+			for (MatchSlot slot : slots) {
+				double cpuMillis = 0.0;
+				for (Player p : slot.getPlayers().values()) {
+					if (p != null) {
+						cpuMillis += p.getResourceStatistics().getCpuMillis();
+					}
+				}
+
+				double elapsedMillis = elapsedNanos / 1000000.0;
+				double busyMillis = slot.getBusyNanos() / 1000000.0;
+				double busyFraction = (
+					elapsedMillis > 0.0 ? busyMillis / elapsedMillis : 0.0
+				);
+				String cpuUtilization = "-";
+				if (slot.getCores() != null && elapsedMillis > 0.0) {
+					cpuUtilization = String.format(
+						"%.3f",
+						cpuMillis / (slot.getCores().length * elapsedMillis)
+					);
+				}
+
+				bw.write(
+					String.format(
+						"%d,%s,%d,%.0f,%.3f,%.0f,%s\n",
+							slot.getIndex(),
+							slot.getCoreDescription(),
+							slot.getMatchesPlayed(),
+							busyMillis,
+							busyFraction,
+							cpuMillis,
+							cpuUtilization
+					)
+				);
+			}
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes the entries' final Ratings to "ratings.txt", strongest first.  The
+	 * Ratings are rebuilt from the valid matches only, so that games against
+	 * entries disqualified later do not count.  Each line holds the following
+	 * comma-separated data:
+	 * - player identifier
+	 * - mean strength
+	 * - standard deviation of the strength
+	 * - number of games rated
+	 */
+	private void recordRatings() {
+		List<String> identifiers = new ArrayList<>();
+		for (String identifier : getPlaying()) {
+			identifiers.add(identifier);
+		}
+
+		Ratings replayed = new Ratings(identifiers);
+		synchronized (matches) {
+			for (MatchRecord m : matches) {
+				if (isValid(m)) {
+					replayed.update(m.getPlayers(), m.getWinner());
+				}
+			}
+		}
+
+		try (
+			BufferedWriter bw = new BufferedWriter(
+				new FileWriter(output("ratings.txt"))
+			)
+		) {
+			for (String identifier : replayed.rank(identifiers)) {
+				bw.write(
+					String.format(
+						"%s,%.4f,%.4f,%d\n",
+							identifier,
+							replayed.getMean(identifier),
+							Math.sqrt(replayed.getVariance(identifier)),
+							replayed.getGames(identifier)
+					)
+				);
+			}
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes data about a match to "matchTranscripts.txt" in the format of
+	 * MatchRecord.toString(), one match per line.
+	 * @param match
+	 * The MatchRecord to be recorded.
+	 * @throws IOException
+	 */
+	private void recordMatch(MatchRecord match) throws IOException {
+		matchTranscripts.write(match.toString());
+		matchTranscripts.write("\n");
 		matchTranscripts.flush();
 	}
-	
+
+	/**
+	 * Returns the File of one of the reports.
+	 * @param name
+	 * The report's file name.
+	 * @return
+	 * The File in the contest's output directory.
+	 */
+	private File output(String name) {
+		return new File(directory, name);
+	}
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * @return
+	 * The number of CPU cores available to the server.
+	 */
+	private static int availableCores() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Counts the games the exhaustive schedule plays.
+	 * @param entries
+	 * The number of entries.
+	 * @param gamesPerPermutation
+	 * The number of games each permutation plays.
+	 * @return
+	 * The number of games, or Integer.MAX_VALUE if there are more.
+	 */
+	private static int countExhaustiveGames(
+		int entries,
+		int gamesPerPermutation
+	) {
+		long games = 0L;
+		for (int k = 3; k <= Math.min(6, entries); ++k) {
+			// C(entries, k) * k! is the number of k-permutations of entries.
+			long permutations = 1L;
+			for (int i = 0; i < k; ++i) {
+				permutations *= entries - i;
+			}
+			games += Math.min(permutations, Integer.MAX_VALUE) *
+				gamesPerPermutation;
+			if (games >= Integer.MAX_VALUE) {
+				return Integer.MAX_VALUE;
+			}
+		}
+		return (int) games;
+	}
+
 	//*********************** Public Static Interface ************************//
 	/**
 	 * Runs the contest.
 	 * @param args
 	 * The first should be the name of the entrant launch script.  The second
-	 * should be the number of games each player permutation will play.
+	 * should be the number of games each player permutation will play.  Any
+	 * remaining arguments are "name=value" options; see ContestSettings.
 	 * @throws NumberFormatException
 	 * @throws DisqualifiedPlayer
 	 * @throws IOException
@@ -319,6 +1346,6 @@ public class ContestServer {
 		DuplicateIdentifier,
 		InvalidPlayerCount
 	{
-		new ContestServer(new File(args[0]), Integer.parseInt(args[1]));
+		new ContestServer(ContestSettings.parse(args));
 	}
 }
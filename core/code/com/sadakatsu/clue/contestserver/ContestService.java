@@ -0,0 +1,503 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sadakatsu.clue.exception.DuplicateIdentifier;
+import com.sadakatsu.clue.exception.ProtocolViolation;
+import com.sadakatsu.clue.exception.TimeoutViolation;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The ContestService is a resident ContestServer.  It launches the replicas of
+ * the entries once and then runs contests ("jobs") on them one at a time as
+ * they are submitted through a small HTTP interface, so that repeated runs
+ * during AI development skip starting and warming up the entries.
+ *
+ * It receives the arguments "entrantsFile port [name=value ...]".  The
+ * entrants file is read as for ContestServer, and the options set how the
+ * replicas are launched ("slots" and "coresPerSlot"; see ContestSettings).
+ * The service listens on the loopback interface only.  Its interface is:
+ * - GET /entries: one line per entry with its identifier and either "ok" or
+ *   why it is disqualified
+ * - POST /jobs: submits a job.  The body holds the arguments a ContestServer
+ *   would get after the entrants file: "gamesPerPermutation [name=value
+ *   ...]", where the "entries" option picks the entries that take part and
+ *   "slots" and "coresPerSlot" are ignored.  The response is the job's id.
+ * - GET /jobs: one line per job with its id and state
+ * - GET /jobs/{id}: the job's state, and its error if it failed
+ * - GET /jobs/{id}/results: the job's "matchTranscripts.txt" lines, streamed
+ *   as the games finish until the job ends
+ * - GET /jobs/{id}/{report}: one of the job's reports, such as
+ *   "playerOutcomes.txt" or "ratings.txt", once the job has ended
+ * - POST /shutdown: cancels the jobs that have not started, waits for the
+ *   running one, stops the replicas, and exits
+ *
+ * Each job writes its reports to the directory "jobs/{id}".  An entry that is
+ * disqualified by one job stays disqualified for the later ones, since its
+ * replicas may no longer be in a state to play.
+ *
+ * @author Joseph A. Craig
+ */
+public class ContestService {
+	//********************* Protected and Private Fields *********************//
+	private final CountDownLatch stopped;
+	private final ContestSettings settings;
+	private final ExecutorService runner;
+	private final HttpServer server;
+	private final List<MatchSlot> slots;
+	private final Map<Integer, Job> jobs;
+	private volatile boolean stopping;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Launches the replicas of the entries and starts listening for jobs.
+	 * @param settings
+	 * The ContestSettings that name the entrants file and how many slots to
+	 * launch.
+	 * @param port
+	 * The loopback port on which to listen, or 0 to choose a free one.
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 */
+	public ContestService(ContestSettings settings, int port)
+	throws IOException, DuplicateIdentifier {
+		this.settings = settings;
+		jobs = new LinkedHashMap<>();
+		runner = Executors.newSingleThreadExecutor();
+		stopped = new CountDownLatch(1);
+		stopping = false;
+
+		try (ServerSocket accept = new ServerSocket(0)) {
+			accept.setSoTimeout(TimeoutViolation.TIMEOUT);
+			slots = ContestServer.launchSlots(settings, accept);
+		}
+
+		server = HttpServer.create(
+			new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+			0
+		);
+		server.createContext("/entries", this::handleEntries);
+		server.createContext("/jobs", this::handleJobs);
+		server.createContext("/shutdown", this::handleShutdown);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		System.out.format(
+			"listening on port %d\n",
+			server.getAddress().getPort()
+		);
+	}
+
+	/**
+	 * Waits until the service has been shut down through its interface.
+	 * @throws InterruptedException
+	 */
+	public void awaitShutdown() throws InterruptedException {
+		stopped.await();
+	}
+
+	/**
+	 * @return
+	 * The port on which the service listens.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Answers GET /entries.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @throws IOException
+	 */
+	private void handleEntries(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equals("GET")) {
+			respond(exchange, 405, "Use GET.\n");
+			return;
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (String identifier : slots.get(0).getPlayers().keySet()) {
+			String state = "ok";
+			for (MatchSlot slot : slots) {
+				Player p = slot.getPlayer(identifier);
+				if (p == null) {
+					state = "disqualified - failed to start";
+					break;
+				} else if (p.isDisqualified()) {
+					state = "disqualified - " + p.getViolation().getMessage();
+					break;
+				}
+			}
+			sb.append(identifier).append(",").append(state).append("\n");
+		}
+		respond(exchange, 200, sb.toString());
+	}
+
+	/**
+	 * Answers the requests under /jobs.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @throws IOException
+	 */
+	private void handleJobs(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String[] path = exchange.getRequestURI().getPath().split("/");
+		// path[0] is empty and path[1] is "jobs".
+		if (path.length == 2 && method.equals("POST")) {
+			submit(exchange);
+		} else if (path.length == 2 && method.equals("GET")) {
+			StringBuilder sb = new StringBuilder();
+			synchronized (jobs) {
+				for (Job job : jobs.values()) {
+					sb.append(
+						String.format("%d,%s\n", job.getId(), job.getState())
+					);
+				}
+			}
+			respond(exchange, 200, sb.toString());
+		} else if (path.length >= 3 && method.equals("GET")) {
+			Job job = null;
+			try {
+				synchronized (jobs) {
+					job = jobs.get(Integer.parseInt(path[2]));
+				}
+			} catch (NumberFormatException e) {
+				// The job is not found.
+			}
+
+			if (job == null) {
+				respond(exchange, 404, "No such job.\n");
+			} else if (path.length == 3) {
+				respond(exchange, 200, job.describe());
+			} else if (path.length == 4 && path[3].equals("results")) {
+				exchange.sendResponseHeaders(200, 0);
+				try (OutputStream out = exchange.getResponseBody()) {
+					job.stream(out);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			} else if (path.length == 4 && job.getState().isFinished()) {
+				File report = new File(job.getDirectory(), path[3]);
+				if (report.isFile()) {
+					respond(exchange, 200, Files.readAllBytes(report.toPath()));
+				} else {
+					respond(exchange, 404, "No such report.\n");
+				}
+			} else {
+				respond(exchange, 409, "The job has not finished.\n");
+			}
+		} else {
+			respond(exchange, 405, "Unsupported request.\n");
+		}
+	}
+
+	/**
+	 * Answers POST /shutdown and stops the service in the background.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @throws IOException
+	 */
+	private void handleShutdown(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equals("POST")) {
+			respond(exchange, 405, "Use POST.\n");
+			return;
+		}
+
+		respond(exchange, 202, "Shutting down.\n");
+		stopping = true;
+		Thread t = new Thread(this::shutDown, "ContestService shutdown");
+		t.start();
+	}
+
+	/**
+	 * Waits for the running job to end, stops every replica, and stops
+	 * listening.
+	 */
+	private void shutDown() {
+		runner.shutdown();
+		try {
+			runner.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		for (MatchSlot slot : slots) {
+			for (Player p : slot.getPlayers().values()) {
+				try {
+					if (p != null) {
+						p.done();
+					}
+				} catch (ProtocolViolation | TimeoutViolation e) {
+					// The replica is stopping anyway.
+				} catch (SocketException se) {
+					// blank
+				} catch (IOException ioe) {
+					ioe.printStackTrace();
+				}
+			}
+		}
+
+		server.stop(0);
+		((ExecutorService) server.getExecutor()).shutdown();
+		stopped.countDown();
+	}
+
+	/**
+	 * Answers POST /jobs by queueing a new job.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @throws IOException
+	 */
+	private void submit(HttpExchange exchange) throws IOException {
+		if (stopping) {
+			respond(exchange, 503, "The service is shutting down.\n");
+			return;
+		}
+
+		String body;
+		try (InputStream in = exchange.getRequestBody()) {
+			body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		List<String> args = new ArrayList<>();
+		args.add(settings.getEntrantsFile().getPath());
+		for (String arg : body.trim().split("\\s+")) {
+			if (!arg.isEmpty()) {
+				args.add(arg);
+			}
+		}
+
+		ContestSettings jobSettings;
+		try {
+			jobSettings = ContestSettings.parse(args.toArray(new String[0]));
+		} catch (IllegalArgumentException e) {
+			respond(exchange, 400, e.getMessage() + "\n");
+			return;
+		}
+
+		Job job;
+		synchronized (jobs) {
+			int id = jobs.size() + 1;
+			job = new Job(id, new File("jobs", String.valueOf(id)));
+			jobs.put(id, job);
+		}
+		final ContestSettings SETTINGS = jobSettings;
+		runner.execute(() -> run(job, SETTINGS));
+		respond(exchange, 202, job.getId() + "\n");
+	}
+
+	/**
+	 * Runs a job on the service's replicas.
+	 * @param job
+	 * The job.
+	 * @param jobSettings
+	 * The ContestSettings the job was submitted with.
+	 */
+	private void run(Job job, ContestSettings jobSettings) {
+		if (stopping) {
+			job.finish(JobState.CANCELLED, null);
+			return;
+		}
+
+		job.start();
+		try {
+			File directory = job.getDirectory();
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException(
+					"Could not create \"" + directory + "\"."
+				);
+			}
+			new ContestServer(
+				jobSettings,
+				slots,
+				job.getDirectory(),
+				(record) -> job.add(record.toString())
+			);
+			job.finish(JobState.DONE, null);
+		} catch (Exception e) {
+			job.finish(JobState.FAILED, e.toString());
+		}
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Starts a ContestService and waits for it to be shut down.
+	 * @param args
+	 * "entrantsFile port [name=value ...]"
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args)
+	throws IOException, DuplicateIdentifier, InterruptedException {
+		if (args.length < 2) {
+			throw new IllegalArgumentException(
+				"Usage: entrantsFile port [name=value ...]"
+			);
+		}
+
+		ContestSettings settings = new ContestSettings(new File(args[0]), 1);
+		for (int i = 2; i < args.length; ++i) {
+			settings.apply(args[i]);
+		}
+		new ContestService(settings, Integer.parseInt(args[1])).awaitShutdown();
+	}
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Sends a complete response.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @param status
+	 * The HTTP status code.
+	 * @param body
+	 * The response's text.
+	 * @throws IOException
+	 */
+	private static void respond(HttpExchange exchange, int status, String body)
+	throws IOException {
+		respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Sends a complete response.
+	 * @param exchange
+	 * The HTTP exchange.
+	 * @param status
+	 * The HTTP status code.
+	 * @param body
+	 * The response's bytes.
+	 * @throws IOException
+	 */
+	private static void respond(HttpExchange exchange, int status, byte[] body)
+	throws IOException {
+		exchange.getResponseHeaders().set(
+			"Content-Type",
+			"text/plain; charset=utf-8"
+		);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	//***************** Protected and Private Static Classes *****************//
+	/**
+	 * The states a job passes through.
+	 */
+	private enum JobState {
+		QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+		/**
+		 * @return
+		 * true if the job will not produce any more results, false otherwise.
+		 */
+		private boolean isFinished() {
+			return this != QUEUED && this != RUNNING;
+		}
+	}
+
+	/**
+	 * One submitted contest and the results it has produced so far.
+	 */
+	private static class Job {
+		private final File directory;
+		private final int id;
+		private final List<String> results;
+		private JobState state;
+		private String error;
+
+		private Job(int id, File directory) {
+			this.directory = directory;
+			this.id = id;
+			results = new ArrayList<>();
+			state = JobState.QUEUED;
+			error = null;
+		}
+
+		private File getDirectory() {
+			return directory;
+		}
+
+		private int getId() {
+			return id;
+		}
+
+		private synchronized JobState getState() {
+			return state;
+		}
+
+		private synchronized String describe() {
+			return state + (error != null ? "\n" + error : "") + "\n";
+		}
+
+		private synchronized void start() {
+			state = JobState.RUNNING;
+		}
+
+		private synchronized void add(String result) {
+			results.add(result);
+			notifyAll();
+		}
+
+		private synchronized void finish(JobState state, String error) {
+			this.state = state;
+			this.error = error;
+			notifyAll();
+		}
+
+		/**
+		 * Writes the job's results to a stream as they arrive, returning once
+		 * the job has finished and every result has been written.
+		 * @param out
+		 * The stream to write to.
+		 * @throws IOException
+		 * @throws InterruptedException
+		 */
+		private void stream(OutputStream out)
+		throws IOException, InterruptedException {
+			int sent = 0;
+			while (true) {
+				List<String> batch;
+				boolean finished;
+				synchronized (this) {
+					while (sent == results.size() && !state.isFinished()) {
+						wait();
+					}
+					batch = new ArrayList<>(
+						results.subList(sent, results.size())
+					);
+					finished = state.isFinished();
+				}
+
+				for (String line : batch) {
+					out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+				}
+				out.flush();
+				sent += batch.size();
+				if (finished && batch.isEmpty()) {
+					return;
+				}
+			}
+		}
+	}
+}
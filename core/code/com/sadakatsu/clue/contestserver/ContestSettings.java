@@ -0,0 +1,682 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sadakatsu.clue.exception.TimeoutViolation;
+
+/**
+ * The ContestSettings class holds the configuration for a ContestServer run.
+ * The two required values -- the entrants file and the number of games per
+ * permutation -- are passed to the constructor.  Everything else has a default
+ * that can be overridden with a "name=value" option on the command line.
+ *
+ * The supported options are:
+ * - entries: a comma-separated list of the identifiers of the entries that
+ *   take part (default every entry in the entrants file)
+ * - warmUp: the number of unscored games in each warm-up block (default 0,
+ *   which disables the warm-up phase)
+ * - warmUpBlocks: the maximum number of warm-up blocks each entry plays
+ *   (default 10)
+ * - warmUpTolerance: the relative change in mean response time between two
+ *   consecutive warm-up blocks under which an entry is considered warmed up
+ *   (default 0.1)
+ * - sampleInterval: the number of milliseconds between samples of the entry
+ *   processes' resource usage (default 1000; 0 disables sampling)
+ * - timeoutMode: "wall" to charge entries wall-clock time against the
+ *   contest time limit or "cpu" to charge them the CPU time their processes
+ *   use while the server waits (default "wall")
+ * - hardTimeout: the number of milliseconds of wall-clock time an entry may
+ *   take to respond in "cpu" mode (default TimeoutViolation.HARD_TIMEOUT)
+ * - slots: the number of matches played at the same time, each with its own
+ *   replica of every entry (default 1)
+ * - concurrency: "fixed" to play a match-up in every slot at once or
+ *   "adaptive" to tune how many slots play at once from the entries'
+ *   response times, the host's load average, and the games finished per
+ *   second (see ConcurrencyController) (default "fixed")
+ * - targetP99: in "adaptive" concurrency, the 99th percentile response time
+ *   in milliseconds above which fewer slots play (default a tenth of
+ *   TimeoutViolation.TIMEOUT)
+ * - coresPerSlot: the number of CPU cores each slot's replicas are pinned to
+ *   (default 0, which leaves the replicas unpinned); slots are assigned
+ *   consecutive, non-overlapping cores starting with core 0
+ * - duplicate: "true" to play duplicate deals, in which every permutation of
+ *   a combination of entries replays the same gamesPerPermutation deals so
+ *   that each entry plays each deal from each seat (default "false")
+ * - tables: "all" to play every combination of 3-6 entries, "blocks" to
+ *   play, for each table size, only the groups of a pair-balanced block
+ *   design (see com.sadakatsu.util.BalancedBlocks), whose size grows with
+ *   the square of the number of entries, or "adaptive" to choose each table
+ *   from the entries' ratings so far (see AdaptiveSchedule) (default "all")
+ * - meetings: in "blocks" mode, the number of tables of each size every pair
+ *   of entries shares at least (default 1)
+ * - maxGames: in "adaptive" mode, the most games played (default 0, which
+ *   means as many as "all" would play)
+ * - confidence: in "adaptive" mode, the probability with which the leader
+ *   must be stronger than every other entry to stop early (default 0.95)
+ * - orders: "all" to play every permutation of each combination of entries
+ *   or "balanced" to play only the orders of a Williams design (see
+ *   com.sadakatsu.util.BalancedOrders), which give every entry every seat and
+ *   every predecessor equally often with k or 2k orders instead of k!
+ *   (default "all")
+ * - dispatch: "schedule" to hand out the match-ups in schedule order or
+ *   "longest" to hand out the ones expected to take longest first, with the
+ *   costs estimated from the entries' response times so far (see
+ *   LongestFirstSchedule), so that parallel slots finish together; this does
+ *   not apply to "adaptive" tables (default "schedule")
+ * - seed: the tournament's master seed, from which every game's deal is
+ *   derived (default chosen at random); running the same entries with the
+ *   same seed and gamesPerPermutation deals every game the same way
+ * - store: a directory in which the results of every match-up are kept and
+ *   from which later contests with the same seed reuse them, so that only
+ *   the match-ups of new or changed entries are played (see ResultStore)
+ *   (default none, which plays every match-up)
+ *
+ * @author Joseph A. Craig
+ */
+public class ContestSettings {
+	//********************* Protected and Private Fields *********************//
+	private boolean adaptiveConcurrency;
+	private boolean balancedOrders;
+	private boolean duplicate;
+	private boolean longestFirst;
+	private double confidence;
+	private double warmUpTolerance;
+	private File entrantsFile;
+	private File store;
+	private int coresPerSlot;
+	private int gamesPerPermutation;
+	private int hardTimeout;
+	private int maxGames;
+	private int meetings;
+	private int sampleInterval;
+	private int slots;
+	private int targetP99;
+	private int warmUpBlocks;
+	private int warmUpGames;
+	private long seed;
+	private Set<String> entries;
+	private TableMode tableMode;
+	private TimeoutMode timeoutMode;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new ContestSettings instance with default values for all
+	 * the optional settings.
+	 * @param entrantsFile
+	 * The file that contains the launch commands for the contest entrants.
+	 * @param gamesPerPermutation
+	 * The number of games each permutation of players will play against each
+	 * other.
+	 */
+	public ContestSettings(File entrantsFile, int gamesPerPermutation) {
+		this.entrantsFile = entrantsFile;
+		this.gamesPerPermutation = gamesPerPermutation;
+		adaptiveConcurrency = false;
+		balancedOrders = false;
+		confidence = 0.95;
+		coresPerSlot = 0;
+		duplicate = false;
+		entries = null;
+		hardTimeout = TimeoutViolation.HARD_TIMEOUT;
+		longestFirst = false;
+		maxGames = 0;
+		meetings = 1;
+		sampleInterval = 1000;
+		seed = ThreadLocalRandom.current().nextLong();
+		slots = 1;
+		store = null;
+		tableMode = TableMode.ALL;
+		targetP99 = TimeoutViolation.TIMEOUT / 10;
+		timeoutMode = TimeoutMode.WALL_CLOCK;
+		warmUpBlocks = 10;
+		warmUpGames = 0;
+		warmUpTolerance = 0.1;
+	}
+
+	/**
+	 * Applies a single "name=value" option to these settings.
+	 * @param option
+	 * The option String.
+	 * @throws IllegalArgumentException
+	 * If the option is not formatted correctly, names an unknown setting, or
+	 * has an invalid value.
+	 */
+	public void apply(String option) {
+		String[] parts = option.split("=", 2);
+		if (parts.length != 2) {
+			throw new IllegalArgumentException(
+				"Expected an option of the form name=value: \"" + option + "\""
+			);
+		}
+
+		String name = parts[0];
+		String value = parts[1];
+		switch (name) {
+			case "entries":
+				entries = parseEntries(value);
+				break;
+			case "warmUp":
+				warmUpGames = parseCount(name, value, 0);
+				break;
+			case "warmUpBlocks":
+				warmUpBlocks = parseCount(name, value, 1);
+				break;
+			case "concurrency":
+				adaptiveConcurrency = parseConcurrency(value);
+				break;
+			case "targetP99":
+				targetP99 = parseCount(name, value, 1);
+				break;
+			case "coresPerSlot":
+				coresPerSlot = parseCount(name, value, 0);
+				break;
+			case "duplicate":
+				duplicate = parseSwitch(name, value);
+				break;
+			case "hardTimeout":
+				hardTimeout = parseCount(name, value, TimeoutViolation.TIMEOUT);
+				break;
+			case "meetings":
+				meetings = parseCount(name, value, 1);
+				break;
+			case "tables":
+				tableMode = parseTableMode(value);
+				break;
+			case "maxGames":
+				maxGames = parseCount(name, value, 0);
+				break;
+			case "confidence":
+				confidence = parseFraction(name, value);
+				break;
+			case "orders":
+				balancedOrders = parseOrders(value);
+				break;
+			case "dispatch":
+				longestFirst = parseDispatch(value);
+				break;
+			case "seed":
+				seed = parseSeed(value);
+				break;
+			case "sampleInterval":
+				sampleInterval = parseCount(name, value, 0);
+				break;
+			case "slots":
+				slots = parseCount(name, value, 1);
+				break;
+			case "store":
+				store = new File(value);
+				break;
+			case "timeoutMode":
+				timeoutMode = parseTimeoutMode(value);
+				break;
+			case "warmUpTolerance":
+				warmUpTolerance = parseFraction(name, value);
+				break;
+			default:
+				throw new IllegalArgumentException(
+					"Unknown option \"" + name + "\""
+				);
+		}
+	}
+
+	/**
+	 * @return
+	 * The probability with which an adaptive schedule's leader must be
+	 * stronger than every other entry for the schedule to end early.
+	 */
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * @return
+	 * The number of CPU cores each slot is pinned to, or 0 if the slots are
+	 * not pinned.
+	 */
+	public int getCoresPerSlot() {
+		return coresPerSlot;
+	}
+
+	/**
+	 * @return
+	 * true if the number of slots playing at once is tuned as the contest
+	 * runs, false if every slot plays at once.
+	 */
+	public boolean isAdaptiveConcurrency() {
+		return adaptiveConcurrency;
+	}
+
+	/**
+	 * @return
+	 * true if each combination of entries plays only a balanced subset of its
+	 * permutations, false if it plays all of them.
+	 */
+	public boolean isBalancedOrders() {
+		return balancedOrders;
+	}
+
+	/**
+	 * @return
+	 * true if every permutation of a combination of entries replays the same
+	 * deals, false if every game is dealt at random.
+	 */
+	public boolean isDuplicate() {
+		return duplicate;
+	}
+
+	/**
+	 * @return
+	 * true if the match-ups expected to take longest are handed out first,
+	 * false if they are handed out in schedule order.
+	 */
+	public boolean isLongestFirst() {
+		return longestFirst;
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable Set of the identifiers of the entries that take part,
+	 * or null if every entry in the entrants file does.
+	 */
+	public Set<String> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return
+	 * The file that contains the launch commands for the contest entrants.
+	 */
+	public File getEntrantsFile() {
+		return entrantsFile;
+	}
+
+	/**
+	 * @return
+	 * The number of games each permutation of players will play.
+	 */
+	public int getGamesPerPermutation() {
+		return gamesPerPermutation;
+	}
+
+	/**
+	 * @return
+	 * The number of milliseconds of wall-clock time an entry may take to
+	 * respond when it is charged for CPU time.
+	 */
+	public int getHardTimeout() {
+		return hardTimeout;
+	}
+
+	/**
+	 * @return
+	 * The most games an adaptive schedule plays, or 0 if it may play as many
+	 * as the exhaustive schedule.
+	 */
+	public int getMaxGames() {
+		return maxGames;
+	}
+
+	/**
+	 * @return
+	 * The number of tables of each size every pair of entries shares at least
+	 * when the tables are chosen by a block design.
+	 */
+	public int getMeetings() {
+		return meetings;
+	}
+
+	/**
+	 * @return
+	 * The number of milliseconds between resource usage samples, or 0 if the
+	 * entry processes are not sampled.
+	 */
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * @return
+	 * The tournament's master seed.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return
+	 * The number of matches played at the same time.
+	 */
+	public int getSlots() {
+		return slots;
+	}
+
+	/**
+	 * @return
+	 * The directory that holds the results of earlier match-ups, or null if
+	 * every match-up is played.
+	 */
+	public File getStore() {
+		return store;
+	}
+
+	/**
+	 * @return
+	 * The 99th percentile response time in milliseconds above which adaptive
+	 * concurrency lets fewer slots play.
+	 */
+	public int getTargetP99() {
+		return targetP99;
+	}
+
+	/**
+	 * @return
+	 * How the groups of entries that play each other are chosen.
+	 */
+	public TableMode getTableMode() {
+		return tableMode;
+	}
+
+	/**
+	 * @return
+	 * How entries are charged for time against the contest time limit.
+	 */
+	public TimeoutMode getTimeoutMode() {
+		return timeoutMode;
+	}
+
+	/**
+	 * @return
+	 * The maximum number of warm-up blocks each entry will play.
+	 */
+	public int getWarmUpBlocks() {
+		return warmUpBlocks;
+	}
+
+	/**
+	 * @return
+	 * The number of games in each warm-up block, or 0 if there is no warm-up
+	 * phase.
+	 */
+	public int getWarmUpGames() {
+		return warmUpGames;
+	}
+
+	/**
+	 * @return
+	 * The relative change in mean response time under which an entry is
+	 * considered warmed up.
+	 */
+	public double getWarmUpTolerance() {
+		return warmUpTolerance;
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Builds a ContestSettings instance from command line arguments of the form
+	 * "entrantsFile gamesPerPermutation [name=value ...]".
+	 * @param args
+	 * The command line arguments.
+	 * @return
+	 * The ContestSettings the arguments describe.
+	 * @throws IllegalArgumentException
+	 * If the arguments are malformed.
+	 */
+	public static ContestSettings parse(String[] args) {
+		if (args.length < 2) {
+			throw new IllegalArgumentException(
+				"Usage: entrantsFile gamesPerPermutation [name=value ...]"
+			);
+		}
+
+		ContestSettings settings = new ContestSettings(
+			new File(args[0]),
+			parseCount("gamesPerPermutation", args[1], 1)
+		);
+		for (int i = 2; i < args.length; ++i) {
+			settings.apply(args[i]);
+		}
+		return settings;
+	}
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Parses a non-negative integer setting.
+	 * @param name
+	 * The name of the setting, used for error reporting.
+	 * @param value
+	 * The String to parse.
+	 * @param minimum
+	 * The smallest legal value.
+	 * @return
+	 * The parsed value.
+	 */
+	private static int parseCount(String name, String value, int minimum) {
+		int count;
+		try {
+			count = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			count = minimum - 1;
+		}
+
+		if (count < minimum) {
+			throw new IllegalArgumentException(
+				String.format(
+					"%s must be an integer no less than %d: \"%s\"",
+						name,
+						minimum,
+						value
+				)
+			);
+		}
+		return count;
+	}
+
+	/**
+	 * Parses the entries setting.
+	 * @param value
+	 * A comma-separated list of identifiers.
+	 * @return
+	 * An unmodifiable Set of the identifiers in the order listed.
+	 */
+	private static Set<String> parseEntries(String value) {
+		Set<String> identifiers = new LinkedHashSet<>();
+		for (String identifier : value.split(",")) {
+			if (!identifier.isEmpty()) {
+				identifiers.add(identifier);
+			}
+		}
+		if (identifiers.size() < 3) {
+			throw new IllegalArgumentException(
+				"entries must name at least three entries: \"" + value + "\""
+			);
+		}
+		return Collections.unmodifiableSet(identifiers);
+	}
+
+	/**
+	 * Parses a setting that must be a number in the range (0..1].
+	 * @param name
+	 * The name of the setting, used for error reporting.
+	 * @param value
+	 * The String to parse.
+	 * @return
+	 * The parsed value.
+	 */
+	private static double parseFraction(String name, String value) {
+		double fraction;
+		try {
+			fraction = Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			fraction = -1.0;
+		}
+
+		if (!(fraction > 0.0 && fraction <= 1.0)) {
+			throw new IllegalArgumentException(
+				String.format(
+					"%s must be a number in (0..1]: \"%s\"",
+						name,
+						value
+				)
+			);
+		}
+		return fraction;
+	}
+
+	/**
+	 * Parses the orders setting.
+	 * @param value
+	 * Either "all" or "balanced".
+	 * @return
+	 * true for "balanced", false for "all".
+	 */
+	private static boolean parseOrders(String value) {
+		boolean balanced;
+		if (value.equalsIgnoreCase("all")) {
+			balanced = false;
+		} else if (value.equalsIgnoreCase("balanced")) {
+			balanced = true;
+		} else {
+			throw new IllegalArgumentException(
+				"orders must be \"all\" or \"balanced\": \"" + value + "\""
+			);
+		}
+		return balanced;
+	}
+
+	/**
+	 * Parses the concurrency setting.
+	 * @param value
+	 * Either "fixed" or "adaptive".
+	 * @return
+	 * true for "adaptive", false for "fixed".
+	 */
+	private static boolean parseConcurrency(String value) {
+		boolean adaptive;
+		if (value.equalsIgnoreCase("fixed")) {
+			adaptive = false;
+		} else if (value.equalsIgnoreCase("adaptive")) {
+			adaptive = true;
+		} else {
+			throw new IllegalArgumentException(
+				"concurrency must be \"fixed\" or \"adaptive\": \"" +
+				value + "\""
+			);
+		}
+		return adaptive;
+	}
+
+	/**
+	 * Parses the dispatch setting.
+	 * @param value
+	 * Either "schedule" or "longest".
+	 * @return
+	 * true for "longest", false for "schedule".
+	 */
+	private static boolean parseDispatch(String value) {
+		boolean longest;
+		if (value.equalsIgnoreCase("schedule")) {
+			longest = false;
+		} else if (value.equalsIgnoreCase("longest")) {
+			longest = true;
+		} else {
+			throw new IllegalArgumentException(
+				"dispatch must be \"schedule\" or \"longest\": \"" +
+				value + "\""
+			);
+		}
+		return longest;
+	}
+
+	/**
+	 * Parses the seed setting.
+	 * @param value
+	 * A decimal long.
+	 * @return
+	 * The parsed value.
+	 */
+	private static long parseSeed(String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				"seed must be an integer: \"" + value + "\""
+			);
+		}
+	}
+
+	/**
+	 * Parses a setting that must be "true" or "false".
+	 * @param name
+	 * The name of the setting, used for error reporting.
+	 * @param value
+	 * The String to parse.
+	 * @return
+	 * The parsed value.
+	 */
+	private static boolean parseSwitch(String name, String value) {
+		boolean on;
+		if (value.equalsIgnoreCase("true")) {
+			on = true;
+		} else if (value.equalsIgnoreCase("false")) {
+			on = false;
+		} else {
+			throw new IllegalArgumentException(
+				String.format(
+					"%s must be \"true\" or \"false\": \"%s\"",
+						name,
+						value
+				)
+			);
+		}
+		return on;
+	}
+
+	/**
+	 * Parses the tables setting.
+	 * @param value
+	 * One of "all", "blocks", or "adaptive".
+	 * @return
+	 * The corresponding TableMode.
+	 */
+	private static TableMode parseTableMode(String value) {
+		TableMode mode;
+		if (value.equalsIgnoreCase("all")) {
+			mode = TableMode.ALL;
+		} else if (value.equalsIgnoreCase("blocks")) {
+			mode = TableMode.BLOCKS;
+		} else if (value.equalsIgnoreCase("adaptive")) {
+			mode = TableMode.ADAPTIVE;
+		} else {
+			throw new IllegalArgumentException(
+				"tables must be \"all\", \"blocks\", or \"adaptive\": \"" +
+				value + "\""
+			);
+		}
+		return mode;
+	}
+
+	/**
+	 * Parses the timeoutMode setting.
+	 * @param value
+	 * Either "wall" or "cpu".
+	 * @return
+	 * The corresponding TimeoutMode.
+	 */
+	private static TimeoutMode parseTimeoutMode(String value) {
+		TimeoutMode mode;
+		if (value.equalsIgnoreCase("wall")) {
+			mode = TimeoutMode.WALL_CLOCK;
+		} else if (value.equalsIgnoreCase("cpu")) {
+			mode = TimeoutMode.CPU_TIME;
+		} else {
+			throw new IllegalArgumentException(
+				"timeoutMode must be \"wall\" or \"cpu\": \"" + value + "\""
+			);
+		}
+		return mode;
+	}
+}
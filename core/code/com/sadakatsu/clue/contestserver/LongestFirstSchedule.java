@@ -0,0 +1,124 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A LongestFirstSchedule hands out a fixed set of MatchUps in decreasing order
+ * of their estimated cost, so that the slow MatchUps start early and the
+ * quick ones fill in around them at the end of the contest (the "longest
+ * processing time first" rule, which keeps a parallel contest from ending
+ * with one slot still playing a slow MatchUp while the others sit idle).
+ *
+ * A MatchUp's cost is estimated as its number of games times the sum of its
+ * entries' mean response times, which are learned as the contest is played.
+ * An entry that has not responded yet is assumed to be as fast as the
+ * average entry that has, so before anything is known the largest tables go
+ * first.  The remaining MatchUps are reordered whenever a few have been
+ * handed out, so the order follows the estimates as they improve.
+ *
+ * LongestFirstSchedule is thread-safe.
+ *
+ * @author Joseph A. Craig
+ */
+public class LongestFirstSchedule {
+	//********************* Protected and Private Fields *********************//
+	private final List<MatchUp> matchUps;
+	private final ToDoubleFunction<String> latency;
+	private int next;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new LongestFirstSchedule.
+	 * @param matchUps
+	 * The MatchUps to hand out.  MatchUps with the same estimated cost are
+	 * handed out in this order.
+	 * @param latency
+	 * Returns an entry's mean response time in milliseconds, given its
+	 * identifier, or NaN if the entry has not responded yet.  It is called
+	 * while other threads are playing, so it need only be approximately
+	 * current.
+	 */
+	public LongestFirstSchedule(
+		Collection<MatchUp> matchUps,
+		ToDoubleFunction<String> latency
+	) {
+		this.matchUps = new ArrayList<>(matchUps);
+		this.latency = latency;
+		next = 0;
+	}
+
+	/**
+	 * Returns the remaining MatchUp with the highest estimated cost.
+	 * @return
+	 * The MatchUp, or null if all of them have been handed out.
+	 */
+	public synchronized MatchUp next() {
+		if (next >= matchUps.size()) {
+			return null;
+		}
+
+		if (next % REORDER_INTERVAL == 0) {
+			reorder();
+		}
+		return matchUps.get(next++);
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Sorts the MatchUps that have not been handed out by decreasing
+	 * estimated cost with the current response times.
+	 */
+	private void reorder() {
+		Map<String, Double> known = new HashMap<>();
+		double total = 0.0;
+		List<MatchUp> remaining = matchUps.subList(next, matchUps.size());
+		for (MatchUp m : remaining) {
+			for (String identifier : m.getOrder()) {
+				if (!known.containsKey(identifier)) {
+					double millis = latency.applyAsDouble(identifier);
+					known.put(identifier, millis);
+					if (!Double.isNaN(millis)) {
+						total += millis;
+					}
+				}
+			}
+		}
+
+		int measured = 0;
+		for (double millis : known.values()) {
+			if (!Double.isNaN(millis)) {
+				++measured;
+			}
+		}
+		double fallback = (measured > 0 ? total / measured : 1.0);
+
+		Map<MatchUp, Double> costs = new HashMap<>();
+		for (MatchUp m : remaining) {
+			double sum = 0.0;
+			for (String identifier : m.getOrder()) {
+				double millis = known.get(identifier);
+				sum += (Double.isNaN(millis) ? fallback : millis);
+			}
+			costs.put(m, m.getGames() * sum);
+		}
+
+		// The sort is stable, so MatchUps of equal cost keep their order.
+		Collections.sort(
+			remaining,
+			Comparator.comparingDouble((MatchUp m) -> costs.get(m)).reversed()
+		);
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of MatchUps handed out between reorderings.
+	 */
+	private static final int REORDER_INTERVAL = 16;
+}
@@ -4,11 +4,12 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.clue.cards.Deal;
 import com.sadakatsu.clue.cards.Hand;
 import com.sadakatsu.clue.cards.Suggestion;
 import com.sadakatsu.clue.exception.DisqualifiedPlayer;
@@ -31,12 +32,14 @@ public class Match {
 	//********************* Protected and Private Fields *********************//
 	private BufferedWriter log;
 	private Card shown;
+	private Deal deal;
 	private int activeIndex;
 	private int playersInGame;
 	private int rounds;
 	private Integer disproverIndex;
 	private List<Hand> hands;
 	private List<Player> players;
+	private MatchProfile profile;
 	private Player activePlayer;
 	private Player winner;
 	private Suggestion last;
@@ -71,7 +74,86 @@ public class Match {
 		MissedAccusation
 	{
 		log = null;
-		init(players);
+		profile = null;
+		init(players, null);
+	}
+	
+	/**
+	 * Runs a Speed Clue game with a predetermined Deal and stores the results.
+	 * This constructor does not log the game play.  Replaying the same Deal
+	 * with the Players in different seats is how duplicate tournaments remove
+	 * the luck of the deal from the comparison of the entries.
+	 * @param players
+	 * The Players participating in the Match, listed in play order.
+	 * @param deal
+	 * The solution and the Hands to deal to the Players in play order.
+	 * @throws ProtocolViolation
+	 * @throws TimeoutViolation
+	 * @throws IOException
+	 * @throws DisqualifiedPlayer
+	 * @throws DuplicateSuggestion
+	 * @throws InvalidDisprove
+	 * @throws InvalidPlayerCount
+	 * @throws IllegalArgumentException
+	 * If the Deal is for a different number of Players.
+	 * @throws SuicidalAccusation
+	 * @throws MissedAccusation
+	 */
+	public Match(List<Player> players, Deal deal)
+	throws
+		ProtocolViolation,
+		TimeoutViolation,
+		IOException,
+		DisqualifiedPlayer,
+		DuplicateSuggestion,
+		InvalidDisprove,
+		InvalidPlayerCount,
+		SuicidalAccusation,
+		MissedAccusation
+	{
+		log = null;
+		profile = null;
+		init(players, deal);
+	}
+	
+	/**
+	 * Runs a Speed Clue game with a predetermined Deal, charging the time and
+	 * memory each phase of the game takes to a MatchProfile.  This constructor
+	 * does not log the game play.
+	 * @param players
+	 * The Players participating in the Match, listed in play order.
+	 * @param deal
+	 * The solution and the Hands to deal to the Players in play order, or null
+	 * to deal at random.
+	 * @param profile
+	 * The MatchProfile to which to add this game's phases.
+	 * @throws ProtocolViolation
+	 * @throws TimeoutViolation
+	 * @throws IOException
+	 * @throws DisqualifiedPlayer
+	 * @throws DuplicateSuggestion
+	 * @throws InvalidDisprove
+	 * @throws InvalidPlayerCount
+	 * @throws IllegalArgumentException
+	 * If the Deal is for a different number of Players.
+	 * @throws SuicidalAccusation
+	 * @throws MissedAccusation
+	 */
+	public Match(List<Player> players, Deal deal, MatchProfile profile)
+	throws
+		ProtocolViolation,
+		TimeoutViolation,
+		IOException,
+		DisqualifiedPlayer,
+		DuplicateSuggestion,
+		InvalidDisprove,
+		InvalidPlayerCount,
+		SuicidalAccusation,
+		MissedAccusation
+	{
+		log = null;
+		this.profile = profile;
+		init(players, deal);
 	}
 	
 	/**
@@ -111,7 +193,8 @@ public class Match {
 		} else {
 			this.log = null;
 		}
-		init(players);
+		profile = null;
+		init(players, null);
 	}
 	
 	/**
@@ -148,13 +231,22 @@ public class Match {
 		return rounds;
 	}
 	
+	/**
+	 * @return
+	 * The solution and Hands this game was played with.  Its id is enough to
+	 * replay the game's deal with Deal.of().
+	 */
+	public Deal getDeal() {
+		return deal;
+	}
+	
 	/**
 	 * @return
 	 * An unmodifiable list of the Hands dealt to each of the Players in
 	 * ascending play order. 
 	 */
 	public List<Hand> getHands() {
-		return Collections.unmodifiableList(hands);
+		return hands;
 	}
 	
 	/**
@@ -193,62 +285,42 @@ public class Match {
 	}
 	
 	/**
-	 * @param solution
-	 * The chosen solution.
-	 * @return
-	 * A List of all the Clue Cards except for those in the solution.
-	 */
-	private List<Card> getDeck() {
-		List<Card> deck = Card.getCards();
-		deck.removeAll(solution.getCards());
-		return deck;
-	}	
-		
-	/**
-	 * Builds random Hands to be assigned to the Players and stores them in the
-	 * "hands" field in ascending play order.
-	 */
-	private void buildHands() {
-		hands = new ArrayList<>();
-		
-		List<Card> deck = getDeck();
-		Collections.shuffle(deck);
-		
-		int cardCount = deck.size();
-		int playerCount = players.size();
-		int minHandSize = cardCount / playerCount;
-		int remainder = cardCount % playerCount;
-		
-		for (int i = 0, dealt = 0; i < playerCount; ++i) {
-			int handSize = minHandSize + (i < remainder ? 1 : 0);
-			hands.add(new Hand(deck.subList(dealt, dealt + handSize)));
-			dealt += handSize;
-		}
-	}
-	
-	/**
-	 * Chooses a random solution for the game, logging it if this Match is
-	 * logging.
+	 * Stores the Deal for the game and its solution and Hands in the "deal",
+	 * "solution" and "hands" fields, logging them if this Match is logging.
+	 * @param deal
+	 * The predetermined Deal, or null to choose one at random.
 	 * @throws IOException
 	 */
-	private void chooseSolution() throws IOException {
-		List<Suggestion> solutions = Suggestion.getSuggestions();
-		Collections.shuffle(solutions);
-		solution = solutions.get(0);
+	private void chooseDeal(Deal deal) throws IOException {
+		if (deal == null) {
+			deal = Deal.random(players.size(), ThreadLocalRandom.current());
+		} else if (deal.getPlayerCount() != players.size()) {
+			throw new IllegalArgumentException(
+				String.format(
+					"%s cannot be played by %d players.",
+						deal,
+						players.size()
+				)
+			);
+		}
+		
+		this.deal = deal;
+		hands = deal.getHands();
+		solution = deal.getSolution();
 		
+		writeToLog("The deal is #%d.\n", deal.getId());
 		writeToLog("The solution is %s.\n", solution);
 	}
 	
 	/**
-	 * Builds Hands for the Players and informs each of them that the game is
-	 * starting.
+	 * Informs each of the Players that the game is starting with the Hands
+	 * chosen for them.
 	 * @throws ProtocolViolation
 	 * @throws TimeoutViolation
 	 * @throws IOException
 	 */
 	private void dealCards()
 	throws ProtocolViolation, TimeoutViolation, IOException {
-		buildHands();
 		resetPlayers();
 	}
 	
@@ -395,6 +467,8 @@ public class Match {
 	 * If this Match is logging, most of these steps will be logged.
 	 * @param players
 	 * The Players to play this game.
+	 * @param deal
+	 * The predetermined Deal, or null to choose one at random.
 	 * @throws DisqualifiedPlayer
 	 * @throws InvalidPlayerCount
 	 * @throws ProtocolViolation
@@ -405,7 +479,7 @@ public class Match {
 	 * @throws SuicidalAccusation
 	 * @throws MissedAccusation
 	 */
-	private void init(List<Player> players)
+	private void init(List<Player> players, Deal deal)
 	throws
 		DisqualifiedPlayer,
 		InvalidPlayerCount,
@@ -418,11 +492,27 @@ public class Match {
 		MissedAccusation
 	{
 		processPlayers(players);
-		chooseSolution();
+		if (profile != null) {
+			profile.begin();
+		}
+		chooseDeal(deal);
 		dealCards();
+		lap(MatchProfile.Phase.DEAL);
 		runGame();
 	}
 	
+	/**
+	 * If this Match is being profiled, this method charges the time since the
+	 * last phase ended to the phase that just ended.
+	 * @param phase
+	 * The phase that just ended.
+	 */
+	private void lap(MatchProfile.Phase phase) {
+		if (profile != null) {
+			profile.lap(phase);
+		}
+	}
+	
 	/**
 	 * If this Match is logging, this method writes the last output for the log:
 	 * who won and in which round.
@@ -524,7 +614,10 @@ public class Match {
 	
 	/**
 	 * Runs through each round of the game until a Player wins.  If this Match
-	 * is logging, the turns and their step results will be logged.
+	 * is logging, the turns and their step results will be logged.  Before
+	 * each turn, the game stops if any of its Players has been disqualified in
+	 * the meantime, since its result would not count.
+	 * @throws DisqualifiedPlayer
 	 * @throws ProtocolViolation
 	 * @throws DuplicateSuggestion
 	 * @throws TimeoutViolation
@@ -535,6 +628,7 @@ public class Match {
 	 */
 	private void runGame()
 	throws
+		DisqualifiedPlayer,
 		ProtocolViolation,
 		DuplicateSuggestion,
 		TimeoutViolation,
@@ -546,12 +640,17 @@ public class Match {
 		try {
 			startGame();
 			do {
+				stopIfDisqualified();
 				logTurnHeader();
 				getSuggestion();
+				lap(MatchProfile.Phase.SUGGEST);
 				disproveSuggestion();
+				lap(MatchProfile.Phase.DISPROVE);
 				reportSuggestion();
+				lap(MatchProfile.Phase.BROADCAST);
 				handleAccusation();
 				startNextPlayerTurn();
+				lap(MatchProfile.Phase.ACCUSE);
 			} while (gameNotOver());
 			logFinal();
 		} finally {
@@ -594,6 +693,23 @@ public class Match {
 		}
 	}
 	
+	/**
+	 * Stops the game if any of its Players has been disqualified since it
+	 * started.  A Player's disqualification is visible to every thread as
+	 * soon as it happens, so a Match that shares an entry with a Match that
+	 * finds a violation stops at its next turn.
+	 * @throws DisqualifiedPlayer
+	 * @throws IOException
+	 */
+	private void stopIfDisqualified() throws DisqualifiedPlayer, IOException {
+		for (Player p : players) {
+			if (p.isDisqualified()) {
+				writeToLog("%s has been disqualified.\n", p);
+				throw new DisqualifiedPlayer(p, rounds);
+			}
+		}
+	}
+	
 	/**
 	 * Ensures that all the method variables are in the correct state for the
 	 * first round to start at Player 0's turn.
@@ -0,0 +1,175 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A MatchProfile accumulates where the Matches that are given it spend their
+ * time and memory.  A Match divides each game into phases: dealing the Cards
+ * to the Players, asking the active Player for a Suggestion, having a Player
+ * disprove it, broadcasting the Suggestion's result to every Player, and
+ * asking for (and broadcasting) an accusation.  At the end of each phase the
+ * Match calls lap(), which charges the time and the bytes allocated by the
+ * Match's thread since the last lap to that phase.  The time of every whole
+ * turn is also kept in a histogram, from which percentiles can be read.
+ *
+ * The bytes allocated can only be measured on JVMs that support it, and they
+ * include whatever the Players allocate on the Match's thread.  When they are
+ * not supported, the byte counts stay at zero.
+ *
+ * A MatchProfile is not thread-safe: it should only be given to Matches that
+ * are played one after another on the same thread.
+ *
+ * @author Joseph A. Craig
+ */
+public class MatchProfile {
+	//********************* Protected and Private Fields *********************//
+	private final long[] bytes;
+	private final long[] laps;
+	private final long[] nanos;
+	private final ResponseStatistics turns;
+	private long lastBytes;
+	private long lastNanos;
+	private long turnStart;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates an empty MatchProfile.
+	 */
+	public MatchProfile() {
+		final int PHASES = Phase.values().length;
+		bytes = new long[PHASES];
+		laps = new long[PHASES];
+		nanos = new long[PHASES];
+		turns = new ResponseStatistics();
+	}
+
+	/**
+	 * Starts timing a game.  Everything up to the next lap() is charged to
+	 * that lap's phase.
+	 */
+	public void begin() {
+		lastNanos = System.nanoTime();
+		lastBytes = allocatedBytes();
+		turnStart = lastNanos;
+	}
+
+	/**
+	 * Charges the time and memory since the last lap() or begin() to a phase.
+	 * A lap of the ACCUSE phase ends a turn, and a lap of the DEAL phase
+	 * starts the first one.
+	 * @param phase
+	 * The phase that just ended.
+	 */
+	public void lap(Phase phase) {
+		long now = System.nanoTime();
+		long allocated = allocatedBytes();
+		int i = phase.ordinal();
+		++laps[i];
+		nanos[i] += now - lastNanos;
+		bytes[i] += allocated - lastBytes;
+
+		if (phase == Phase.ACCUSE) {
+			turns.record(now - turnStart);
+		}
+		if (phase == Phase.ACCUSE || phase == Phase.DEAL) {
+			turnStart = now;
+		}
+
+		// Reading the clocks takes time too; start the next phase after it.
+		lastBytes = allocatedBytes();
+		lastNanos = System.nanoTime();
+	}
+
+	/**
+	 * @param phase
+	 * The phase in question.
+	 * @return
+	 * The number of bytes allocated during the phase.
+	 */
+	public long getBytes(Phase phase) {
+		return bytes[phase.ordinal()];
+	}
+
+	/**
+	 * @param phase
+	 * The phase in question.
+	 * @return
+	 * The number of times the phase has ended.
+	 */
+	public long getLaps(Phase phase) {
+		return laps[phase.ordinal()];
+	}
+
+	/**
+	 * @param phase
+	 * The phase in question.
+	 * @return
+	 * The number of nanoseconds spent in the phase.
+	 */
+	public long getNanos(Phase phase) {
+		return nanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return
+	 * The durations of every turn, in the form of response times.
+	 */
+	public ResponseStatistics getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return
+	 * true if the bytes allocated are being measured, false if they are
+	 * always zero.
+	 */
+	public boolean isMeasuringBytes() {
+		return ALLOCATIONS != null;
+	}
+
+	//************************* Public Static Fields *************************//
+	/**
+	 * The Phases of a game, in the order they happen.
+	 */
+	public enum Phase {
+		DEAL, SUGGEST, DISPROVE, BROADCAST, ACCUSE
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+		findAllocations();
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * @return
+	 * The number of bytes the current thread has allocated, or 0 if that
+	 * cannot be measured.
+	 */
+	private static long allocatedBytes() {
+		return (
+			ALLOCATIONS == null ?
+				0L :
+				ALLOCATIONS.getCurrentThreadAllocatedBytes()
+		);
+	}
+
+	/**
+	 * @return
+	 * The ThreadMXBean that measures the bytes each thread allocates, or null
+	 * if this JVM does not provide one.
+	 */
+	private static com.sun.management.ThreadMXBean findAllocations() {
+		com.sun.management.ThreadMXBean found = null;
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			found = (com.sun.management.ThreadMXBean) threads;
+			if (!found.isThreadAllocatedMemorySupported()) {
+				found = null;
+			} else if (!found.isThreadAllocatedMemoryEnabled()) {
+				found.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+		return found;
+	}
+}
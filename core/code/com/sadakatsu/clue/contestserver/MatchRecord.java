@@ -0,0 +1,227 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sadakatsu.clue.cards.Hand;
+
+/**
+ * A MatchRecord is the outcome of one scored Match: who played in which
+ * order, who won in which round, how the cards were distributed, and which
+ * Deal was played.  Unlike a Match, it refers to the entries only by their
+ * identifiers, so it can be written to and read back from a ResultStore or
+ * "matchTranscripts.txt" and counted without the Players that played it.
+ *
+ * @author Joseph A. Craig
+ */
+public class MatchRecord {
+	//********************* Protected and Private Fields *********************//
+	private final int rounds;
+	private final int winner;
+	private final List<String> distributions;
+	private final List<String> players;
+	private final long dealId;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new MatchRecord.
+	 * @param players
+	 * The identifiers of the entries in play order.
+	 * @param distributions
+	 * The distribution String (see Hand.getDistributionString()) of each
+	 * entry's Hand, in play order.
+	 * @param winner
+	 * The winner's position in the play order.
+	 * @param rounds
+	 * The round in which the game was won.
+	 * @param dealId
+	 * The id of the Deal that was played (see Deal.getId()).
+	 * @throws IllegalArgumentException
+	 * If the lists differ in size or the winner is not one of the players.
+	 */
+	public MatchRecord(
+		List<String> players,
+		List<String> distributions,
+		int winner,
+		int rounds,
+		long dealId
+	) {
+		if (
+			players.size() != distributions.size() ||
+			winner < 0 ||
+			winner >= players.size()
+		) {
+			throw new IllegalArgumentException(
+				String.format(
+					"Invalid record of %s won by %d.",
+						players,
+						winner
+				)
+			);
+		}
+
+		this.players = Collections.unmodifiableList(new ArrayList<>(players));
+		this.distributions = Collections.unmodifiableList(
+			new ArrayList<>(distributions)
+		);
+		this.winner = winner;
+		this.rounds = rounds;
+		this.dealId = dealId;
+	}
+
+	/**
+	 * @return
+	 * The id of the Deal that was played.
+	 */
+	public long getDealId() {
+		return dealId;
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable List of the distribution Strings of the entries' Hands
+	 * in play order.
+	 */
+	public List<String> getDistributions() {
+		return distributions;
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable List of the identifiers of the entries in play order.
+	 */
+	public List<String> getPlayers() {
+		return players;
+	}
+
+	/**
+	 * @return
+	 * The round in which the game was won.
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return
+	 * The identifier of the entry that won.
+	 */
+	public String getWinner() {
+		return players.get(winner);
+	}
+
+	/**
+	 * @return
+	 * The winner's position in the play order.
+	 */
+	public int getWinnerIndex() {
+		return winner;
+	}
+
+	/**
+	 * Returns the record as a line of "matchTranscripts.txt" without the line
+	 * terminator.  The line holds the following comma-separated data:
+	 * - number of players
+	 * - position in play order of winner
+	 * - round when game was won
+	 * - for each player by ascending order of play position:
+	 * -- player identifier
+	 * -- number of suspects dealt
+	 * -- number of weapons dealt
+	 * -- number of rooms dealt
+	 * - the deal's id (see Deal.of())
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(
+			String.format("%d,%d,%d", players.size(), winner, rounds)
+		);
+		for (int i = 0; i < players.size(); ++i) {
+			sb.append(
+				String.format(
+					",%s,%s",
+						players.get(i),
+						distributions.get(i)
+				)
+			);
+		}
+		sb.append(String.format(",%d", dealId));
+		return sb.toString();
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Records a finished Match.
+	 * @param match
+	 * The Match to record.
+	 * @return
+	 * The MatchRecord of the Match.
+	 */
+	public static MatchRecord of(Match match) {
+		List<String> players = new ArrayList<>();
+		List<String> distributions = new ArrayList<>();
+		List<Hand> hands = match.getHands();
+		for (int i = 0; i < match.getPlayerCount(); ++i) {
+			players.add(match.getPlayers().get(i).getIndentifier());
+			distributions.add(hands.get(i).getDistributionString());
+		}
+
+		return new MatchRecord(
+			players,
+			distributions,
+			match.getPlayers().indexOf(match.getWinner()),
+			match.getRounds(),
+			match.getDeal().getId()
+		);
+	}
+
+	/**
+	 * Reads a MatchRecord from the format written by toString().
+	 * @param line
+	 * The line to parse.
+	 * @return
+	 * The MatchRecord the line describes.
+	 * @throws IllegalArgumentException
+	 * If the line is not a valid record.
+	 */
+	public static MatchRecord parse(String line) {
+		String[] fields = line.split(",");
+		try {
+			int count = Integer.parseInt(fields[0]);
+			if (fields.length != 4 + 4 * count) {
+				throw new IllegalArgumentException(
+					"Malformed match record: \"" + line + "\""
+				);
+			}
+
+			List<String> players = new ArrayList<>(count);
+			List<String> distributions = new ArrayList<>(count);
+			for (int i = 0; i < count; ++i) {
+				int f = 3 + 4 * i;
+				players.add(fields[f]);
+				distributions.add(
+					String.join(
+						",",
+						fields[f + 1],
+						fields[f + 2],
+						fields[f + 3]
+					)
+				);
+			}
+
+			return new MatchRecord(
+				players,
+				distributions,
+				Integer.parseInt(fields[1]),
+				Integer.parseInt(fields[2]),
+				Long.parseLong(fields[fields.length - 1])
+			);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				"Malformed match record: \"" + line + "\"",
+				e
+			);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.sadakatsu.clue.exception.DuplicateIdentifier;
+import com.sadakatsu.util.EntryScript;
+
+/**
+ * A MatchSlot is one lane of a parallel tournament.  It owns its own replica
+ * of every entry's process, so matches played in different slots never share
+ * a connected AI.  A slot may be pinned to a set of CPU cores, in which case
+ * all its replicas are launched with that affinity so that matches running in
+ * other slots do not compete for the same cores and caches.
+ *
+ * @author Joseph A. Craig
+ */
+public class MatchSlot {
+	//********************* Protected and Private Fields *********************//
+	private final int index;
+	private final int[] cores;
+	private long busyNanos;
+	private long matchesPlayed;
+	private Map<String, Player> players;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new MatchSlot.  Its entries are not started until
+	 * launch() is called.
+	 * @param index
+	 * The slot's position among all the slots.
+	 * @param cores
+	 * The CPU cores to which the slot's replicas are pinned, or null if they
+	 * may run on any core.
+	 */
+	public MatchSlot(int index, int[] cores) {
+		this.index = index;
+		this.cores = cores;
+		players = Collections.emptyMap();
+	}
+
+	/**
+	 * Starts this slot's replica of every entry in the entrants file.
+	 * @param entrants
+	 * The file that contains the launch commands for the contest entrants.
+	 * @param accept
+	 * The ServerSocket through which the replicas connect.
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 */
+	public void launch(File entrants, ServerSocket accept)
+	throws IOException, DuplicateIdentifier {
+		players = EntryScript.process(entrants, accept, false, cores);
+	}
+
+	/**
+	 * Records that this slot spent time playing matches.
+	 * @param nanos
+	 * The number of nanoseconds spent.
+	 * @param matches
+	 * The number of matches played in that time.
+	 */
+	public synchronized void addBusyTime(long nanos, int matches) {
+		busyNanos += nanos;
+		matchesPlayed += matches;
+	}
+
+	/**
+	 * Clears the time this slot has spent playing matches and the number of
+	 * matches played, so that a new contest on the same replicas starts its
+	 * count afresh.
+	 */
+	public synchronized void resetBusyTime() {
+		busyNanos = 0;
+		matchesPlayed = 0;
+	}
+
+	/**
+	 * @return
+	 * The total number of nanoseconds this slot has spent playing matches.
+	 */
+	public synchronized long getBusyNanos() {
+		return busyNanos;
+	}
+
+	/**
+	 * @return
+	 * The CPU cores to which this slot's replicas are pinned, or null if they
+	 * may run on any core.
+	 */
+	public int[] getCores() {
+		return cores;
+	}
+
+	/**
+	 * @return
+	 * This slot's position among all the slots.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return
+	 * The number of matches this slot has played.
+	 */
+	public synchronized long getMatchesPlayed() {
+		return matchesPlayed;
+	}
+
+	/**
+	 * Returns this slot's replica of an entry.
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The Player, or null if the replica failed to start.
+	 */
+	public Player getPlayer(String identifier) {
+		return players.get(identifier);
+	}
+
+	/**
+	 * Returns this slot's replicas of the entries in a play order.
+	 * @param order
+	 * The identifiers of the entries.
+	 * @return
+	 * The Players in the same order.
+	 */
+	public List<Player> getPlayers(List<String> order) {
+		List<Player> replicas = new ArrayList<>(order.size());
+		for (String identifier : order) {
+			replicas.add(players.get(identifier));
+		}
+		return replicas;
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable Map from every entry's identifier to this slot's replica
+	 * of the entry, which is null if the replica failed to start.
+	 */
+	public Map<String, Player> getPlayers() {
+		return Collections.unmodifiableMap(players);
+	}
+
+	/**
+	 * Returns a user-friendly description of the cores assigned to this slot.
+	 * @return
+	 * A String such as "0;1;2;3", or "*" if the slot is not pinned.
+	 */
+	public String getCoreDescription() {
+		if (cores == null) {
+			return "*";
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (int core : cores) {
+			if (sb.length() > 0) {
+				sb.append(";");
+			}
+			sb.append(core);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a user-friendly String for identifying this slot.
+	 */
+	@Override
+	public String toString() {
+		return String.format("Slot %d [%s]", index, getCoreDescription());
+	}
+}
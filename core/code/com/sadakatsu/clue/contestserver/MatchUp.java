@@ -0,0 +1,187 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.sadakatsu.clue.cards.Deal;
+
+/**
+ * A MatchUp is one cell of the tournament schedule: a play order of entries
+ * and the number of games they play in that order.  The entries are named by
+ * their identifiers so that any MatchSlot can play the MatchUp with its own
+ * replicas of the entries.
+ *
+ * A MatchUp may have a seed, from which each of its games gets its own seed
+ * and SplittableRandom to choose the game's Deal.  A seeded game can be
+ * regenerated exactly, no matter which thread played it or what was played
+ * before it, and MatchUps that share a seed replay the same Deals (which is
+ * how duplicate tournaments seat the entries differently at the same Deals).
+ *
+ * @author Joseph A. Craig
+ */
+public class MatchUp {
+	//********************* Protected and Private Fields *********************//
+	private final boolean seeded;
+	private final int games;
+	private final List<String> order;
+	private final long seed;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new MatchUp.
+	 * @param order
+	 * The identifiers of the entries in play order.
+	 * @param games
+	 * The number of games to play.
+	 */
+	public MatchUp(List<String> order, int games) {
+		this.order = Collections.unmodifiableList(new ArrayList<>(order));
+		this.games = games;
+		seed = 0L;
+		seeded = false;
+	}
+
+	/**
+	 * Instantiates a new MatchUp whose games are dealt from a seed.
+	 * @param order
+	 * The identifiers of the entries in play order.
+	 * @param games
+	 * The number of games to play.
+	 * @param seed
+	 * The seed from which every game's seed is derived.
+	 */
+	public MatchUp(List<String> order, int games, long seed) {
+		this.order = Collections.unmodifiableList(new ArrayList<>(order));
+		this.games = games;
+		this.seed = seed;
+		seeded = true;
+	}
+
+	/**
+	 * Returns the Deal of one of this MatchUp's games.
+	 * @param game
+	 * The game's index in the range [0..getGames()).
+	 * @return
+	 * The Deal chosen with the game's seed, or null if this MatchUp is not
+	 * seeded and the game should be dealt at random.
+	 */
+	public Deal getDeal(int game) {
+		Deal deal = null;
+		if (seeded) {
+			deal = Deal.random(
+				order.size(),
+				new SplittableRandom(getSeed(game))
+			);
+		}
+		return deal;
+	}
+
+	/**
+	 * @return
+	 * The number of games to play.
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return
+	 * An unmodifiable List of the identifiers of the entries in play order.
+	 */
+	public List<String> getOrder() {
+		return order;
+	}
+
+	/**
+	 * @return
+	 * The seed from which every game's seed is derived.  This is meaningless
+	 * if the MatchUp is not seeded.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the seed of one of this MatchUp's games.
+	 * @param game
+	 * The game's index in the range [0..getGames()).
+	 * @return
+	 * The seed of the game's SplittableRandom.
+	 */
+	public long getSeed(int game) {
+		return deriveSeed(seed, game);
+	}
+
+	/**
+	 * @return
+	 * true if this MatchUp's games are dealt from its seed, false if they are
+	 * dealt at random.
+	 */
+	public boolean isSeeded() {
+		return seeded;
+	}
+
+	/**
+	 * Returns a user-friendly description of this MatchUp.
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s x%d", order, games);
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Derives the seed of one child of a seed, such as one combination of a
+	 * tournament or one game of a MatchUp.  Distinct children of the same
+	 * parent get unrelated seeds, and the derivation depends on nothing but
+	 * its arguments.
+	 * @param parent
+	 * The parent seed.
+	 * @param child
+	 * The child's index.
+	 * @return
+	 * The child's seed.
+	 */
+	public static long deriveSeed(long parent, long child) {
+		// This is the SplitMix64 output function applied to the child's place
+		// in the parent's sequence.
+		long z = parent + (child + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Derives the seed of a group of entries from a seed, such as the seed of
+	 * one combination or one play order of a tournament.  The derivation
+	 * depends on the entries' identifiers and their order, but not on where
+	 * the group falls in the schedule, so the same group gets the same seed
+	 * when entries are added to or removed from the contest.
+	 * @param parent
+	 * The parent seed.
+	 * @param identifiers
+	 * The identifiers of the entries in the group.
+	 * @return
+	 * The group's seed.
+	 */
+	public static long deriveSeed(long parent, List<String> identifiers) {
+		long seed = parent;
+		for (String identifier : identifiers) {
+			// FNV-1a hashes the identifier to 64 bits, where
+			// String.hashCode() has only 32.
+			long hash = FNV_OFFSET;
+			for (int i = 0; i < identifier.length(); ++i) {
+				hash = (hash ^ identifier.charAt(i)) * FNV_PRIME;
+			}
+			seed = deriveSeed(seed, hash);
+		}
+		return seed;
+	}
+}
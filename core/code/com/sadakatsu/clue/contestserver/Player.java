@@ -1,19 +1,15 @@
 package com.sadakatsu.clue.contestserver;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 import com.sadakatsu.clue.cards.Card;
+import com.sadakatsu.clue.cards.CardSet;
 import com.sadakatsu.clue.cards.Hand;
+import com.sadakatsu.clue.cards.MutableCardSet;
+import com.sadakatsu.clue.cards.MutableSuggestionSet;
 import com.sadakatsu.clue.cards.Suggestion;
 import com.sadakatsu.clue.exception.ClueException;
 import com.sadakatsu.clue.exception.DuplicateSuggestion;
@@ -23,6 +19,9 @@ import com.sadakatsu.clue.exception.MissedAccusation;
 import com.sadakatsu.clue.exception.ProtocolViolation;
 import com.sadakatsu.clue.exception.SuicidalAccusation;
 import com.sadakatsu.clue.exception.TimeoutViolation;
+import com.sadakatsu.clue.transport.Connection;
+import com.sadakatsu.clue.transport.SocketConnection;
+import com.sadakatsu.util.ProcessUsage;
 
 /**
  * The Player represents an AI's server-side state and facilitates the server's
@@ -32,18 +31,22 @@ import com.sadakatsu.clue.exception.TimeoutViolation;
  */
 public class Player {
 	//********************* Protected and Private Fields *********************//
+	private boolean awaitingResponse;
 	private boolean eliminated;
 	private boolean mustAccuse;
-	private BufferedReader in;
-	private ClueException violation;
-	private char[] buffer;
+	private volatile ClueException violation;
+	private Connection connection;
+	private int hardTimeout;
 	private int index = -1;
 	private Hand hand;
-	private List<Suggestion> suggestions;
-	private PrintWriter out;
-	private Set<Card> seen;
-	private Socket socket;
+	private MutableCardSet seen;
+	private MutableSuggestionSet suggestions;
+	private long sent;
+	private Process process;
+	private ResourceStatistics resources;
+	private ResponseStatistics statistics;
 	private String identifier;
+	private TimeoutMode timeoutMode;
 	
 	//*************************** Public Interface ***************************//
 	/**
@@ -60,23 +63,65 @@ public class Player {
 		String identifier,
 		Socket socket
 	) throws IOException, ProtocolViolation, TimeoutViolation {
-		// Wrap the Socket's input and output streams to ease messaging.
-		in = new BufferedReader(
-			new InputStreamReader(socket.getInputStream())
-		);
-		out = new PrintWriter(socket.getOutputStream(), true);
-		
+		this(identifier, socket, null);
+	}
+	
+	/**
+	 * Instantiates a new Player for an AI that has connected to the server and
+	 * whose process was launched by the server.
+	 * @param identifier
+	 * The identifier the server assigned to the AI.
+	 * @param socket
+	 * The Socket through which to communicate with the AI.
+	 * @param process
+	 * The AI's process, or null if it is not known.
+	 * @throws IOException
+	 * @throws ProtocolViolation
+	 * @throws TimeoutViolation 
+	 */
+	public Player(
+		String identifier,
+		Socket socket,
+		Process process
+	) throws IOException, ProtocolViolation, TimeoutViolation {
+		this(identifier, new SocketConnection(socket), process);
+	}
+	
+	/**
+	 * Instantiates a new Player for an AI that has connected to the server
+	 * through any transport.
+	 * @param identifier
+	 * The identifier the server assigned to the AI.
+	 * @param connection
+	 * The Connection through which to communicate with the AI.
+	 * @param process
+	 * The AI's process, or null if it is not known.
+	 * @throws IOException
+	 * @throws ProtocolViolation
+	 * @throws TimeoutViolation 
+	 */
+	public Player(
+		String identifier,
+		Connection connection,
+		Process process
+	) throws IOException, ProtocolViolation, TimeoutViolation {
 		// Enforce the contest's timeout rules.
-		socket.setSoTimeout(TimeoutViolation.TIMEOUT);
+		connection.setTimeout(TimeoutViolation.TIMEOUT);
+		hardTimeout = TimeoutViolation.HARD_TIMEOUT;
+		timeoutMode = TimeoutMode.WALL_CLOCK;
 		
 		// Initialize all the Player internal state.
-		buffer = new char[512];
 		eliminated = true;
 		hand = null;
 		violation = null;
-		suggestions = new ArrayList<>();
+		awaitingResponse = false;
+		resources = new ResourceStatistics();
+		statistics = new ResponseStatistics();
+		seen = new MutableCardSet();
+		suggestions = new MutableSuggestionSet();
+		this.connection = connection;
 		this.identifier = identifier;
-		this.socket = socket;
+		this.process = process;
 		
 		// Get the "<identifier> alive" message.
 		String response = getResponse();
@@ -95,7 +140,7 @@ public class Player {
 	 * true if the Player can disprove the passed Suggestion, false otherwise.
 	 */
 	public boolean canDisprove(Suggestion suggestion) {
-		return getDisproveCards(suggestion).size() > 0;
+		return hand.canDisprove(suggestion);
 	}
 	
 	/**
@@ -212,6 +257,35 @@ public class Player {
 		return index;
 	}
 	
+	/**
+	 * The operating system process running the connected AI.
+	 * @return
+	 * The Process passed to the constructor, or null if it is not known.
+	 */
+	public Process getProcess() {
+		return process;
+	}
+	
+	/**
+	 * The resource usage sampled from the connected AI's process.
+	 * @return
+	 * This Player's ResourceStatistics.  It is empty unless a ProcessMonitor
+	 * has sampled this Player.
+	 */
+	public ResourceStatistics getResourceStatistics() {
+		return resources;
+	}
+	
+	/**
+	 * The response times the connected AI has accumulated since this Player
+	 * was created or its statistics were last reset.
+	 * @return
+	 * This Player's ResponseStatistics.
+	 */
+	public ResponseStatistics getResponseStatistics() {
+		return statistics;
+	}
+	
 	/**
 	 * The String used by the server to uniquely identify this Player.
 	 * @return
@@ -268,7 +342,7 @@ public class Player {
 			}
 			
 			try {
-				accusation = new Suggestion(response.substring(7));
+				accusation = Suggestion.parse(response.substring(7));
 			} catch (InvalidSuggestionString e) {
 				throw new ProtocolViolation(this, "accuse", response);
 			}
@@ -310,13 +384,11 @@ public class Player {
 		
 		Suggestion suggestion;
 		try {
-			suggestion = new Suggestion(response.substring(8));
+			suggestion = Suggestion.parse(response.substring(8));
 			
-			if (suggestions.contains(suggestion)) {
+			if (!suggestions.add(suggestion)) {
 				throw new DuplicateSuggestion(this, suggestion);
 			}
-			
-			suggestions.add(suggestion);
 		} catch (InvalidSuggestionString e) {
 			throw new ProtocolViolation(this, "suggest", response);
 		}
@@ -378,7 +450,7 @@ public class Player {
 				throw new ProtocolViolation(this, "dead", response);
 			}
 		} finally {
-			socket.close();
+			connection.close();
 		}
 	}
 	
@@ -396,6 +468,45 @@ public class Player {
 		eliminated = true;
 	}
 	
+	/**
+	 * Discards all the response times recorded for this Player.
+	 */
+	public void resetResponseStatistics() {
+		statistics.reset();
+	}
+	
+	/**
+	 * Changes how this Player enforces the contest time limit.  In CPU_TIME
+	 * mode, the connected AI is charged the CPU time its process consumes while
+	 * the server waits, but never more than the wall-clock time, and the passed
+	 * wall-clock limit acts as a hard cap.  If this Player's process is unknown
+	 * or the system has no "/proc" file system, WALL_CLOCK mode is used
+	 * regardless.
+	 * @param mode
+	 * The TimeoutMode to use.
+	 * @param hardTimeout
+	 * The number of milliseconds of wall-clock time the AI may take to respond
+	 * in CPU_TIME mode.
+	 * @throws IOException
+	 */
+	public void setTimeoutMode(TimeoutMode mode, int hardTimeout)
+	throws IOException {
+		if (
+			mode == TimeoutMode.CPU_TIME &&
+			(process == null || !ProcessUsage.isSupported())
+		) {
+			mode = TimeoutMode.WALL_CLOCK;
+		}
+		
+		timeoutMode = mode;
+		this.hardTimeout = hardTimeout;
+		connection.setTimeout(
+			mode == TimeoutMode.CPU_TIME ?
+				CPU_POLL_INTERVAL :
+				TimeoutViolation.TIMEOUT
+		);
+	}
+	
 	/**
 	 * Handles starting this Player in a new game.
 	 * @param playerCount
@@ -416,7 +527,7 @@ public class Player {
 		eliminated = false;
 		index = playerIndex;
 		mustAccuse = false;
-		seen = new HashSet<>(hand.getCards());
+		seen.set(CardSet.fromMask(hand.getMask()));
 		suggestions.clear();
 		this.hand = hand;
 		
@@ -498,11 +609,7 @@ public class Player {
 	 * false otherwise.
 	 */
 	private boolean suggestionHasSeenCards(Suggestion suggestion) {
-		return (
-			seen.contains(suggestion.getSuspect()) ||
-			seen.contains(suggestion.getWeapon()) ||
-			seen.contains(suggestion.getRoom())
-		);
+		return seen.containsAny(suggestion);
 	}
 	
 	/**
@@ -517,24 +624,80 @@ public class Player {
 	}
 	
 	/**
-	 * Retrieves a message from the connected AI.
+	 * Retrieves a message from the connected AI.  If the message answers one
+	 * the server sent, the time the AI took to respond is recorded.
 	 * @return
 	 * The AI's response.
 	 * @throws IOException
 	 * @throws TimeoutViolation 
 	 */
 	private String getResponse() throws IOException, TimeoutViolation {
-		int read;
+		String response;
 		
-		try {
-			read = in.read(buffer);
-		} catch (SocketTimeoutException ste) {
-			throw new TimeoutViolation(this);
+		if (timeoutMode == TimeoutMode.CPU_TIME) {
+			response = readChargingCpuTime();
+		} else {
+			try {
+				response = connection.receive();
+			} catch (SocketTimeoutException ste) {
+				throw new TimeoutViolation(this);
+			}
+		}
+		
+		if (awaitingResponse) {
+			statistics.record(System.nanoTime() - sent);
+			awaitingResponse = false;
 		}
 
-		for (; read > 0 && buffer[read - 1] == '\0'; --read) {}
-		String response = (read > 0 ? String.copyValueOf(buffer, 0, read) : "");
-		return response;
+		return (response != null ? response : "");
+	}
+	
+	/**
+	 * Reads a message from the connected AI, charging it for the CPU time its
+	 * process consumes while waiting.  The Connection's timeout is set to the
+	 * poll interval, so each expiry is an opportunity to check the charges.
+	 * Each interval is charged the lesser of the CPU time and the wall-clock
+	 * time that passed, so an AI whose threads run in parallel is never charged
+	 * more than it would be in WALL_CLOCK mode.  To avoid reading "/proc" for
+	 * every message, the CPU time baseline is only taken when the first poll
+	 * expires, and the AI is charged the whole first interval as if it had
+	 * used the CPU the entire time.
+	 * @return
+	 * The message read, or null if the AI closed the Connection.
+	 * @throws IOException
+	 * @throws TimeoutViolation
+	 */
+	private String readChargingCpuTime() throws IOException, TimeoutViolation {
+		final long LIMIT = TimeoutViolation.TIMEOUT * NANOS_PER_MILLI;
+		final long HARD_LIMIT = hardTimeout * NANOS_PER_MILLI;
+		
+		long charged = 0;
+		long lastCpu = -1;
+		long start = System.nanoTime();
+		long lastWall = start;
+		while (true) {
+			try {
+				return connection.receive();
+			} catch (SocketTimeoutException ste) {
+				long now = System.nanoTime();
+				if (now - start >= HARD_LIMIT) {
+					throw new TimeoutViolation(this);
+				}
+				
+				ProcessUsage usage = ProcessUsage.readTree(process.toHandle());
+				if (usage != null) {
+					long cpu = usage.getCpuNanos();
+					long wall = now - lastWall;
+					long used = (lastCpu < 0 ? wall : cpu - lastCpu);
+					charged += Math.min(used, wall);
+					lastCpu = cpu;
+					lastWall = now;
+					if (charged >= LIMIT) {
+						throw new TimeoutViolation(this);
+					}
+				}
+			}
+		}
 	}
 	
 	/**
@@ -544,6 +707,16 @@ public class Player {
 	 * @throws IOException
 	 */
 	private void sendMessage(String message) throws IOException {
-		out.format(message);
+		connection.send(message);
+		sent = System.nanoTime();
+		awaitingResponse = true;
 	}
+	
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of milliseconds between checks of an AI's CPU time in
+	 * CPU_TIME mode.
+	 */
+	private static final int CPU_POLL_INTERVAL = 100;
+	private static final long NANOS_PER_MILLI = 1000000L;
 }
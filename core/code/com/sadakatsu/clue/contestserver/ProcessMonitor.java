@@ -0,0 +1,84 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sadakatsu.util.ProcessUsage;
+
+/**
+ * The ProcessMonitor periodically samples the processes of a set of Players on
+ * a background thread and records the results in each Player's
+ * ResourceStatistics.  If the system does not expose "/proc", the monitor does
+ * nothing.
+ *
+ * @author Joseph A. Craig
+ */
+public class ProcessMonitor implements AutoCloseable {
+	//********************* Protected and Private Fields *********************//
+	private final List<Player> players;
+	private final ScheduledExecutorService sampler;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Starts sampling the processes of the passed Players.
+	 * @param players
+	 * The Players to monitor.  Players without a process are ignored.
+	 * @param intervalMillis
+	 * The number of milliseconds between samples.
+	 */
+	public ProcessMonitor(Collection<Player> players, long intervalMillis) {
+		this.players = new ArrayList<>();
+		for (Player p : players) {
+			if (p != null && p.getProcess() != null) {
+				this.players.add(p);
+			}
+		}
+
+		if (ProcessUsage.isSupported() && !this.players.isEmpty()) {
+			sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "ProcessMonitor");
+				t.setDaemon(true);
+				return t;
+			});
+			sampler.scheduleAtFixedRate(
+				this::sample,
+				0,
+				intervalMillis,
+				TimeUnit.MILLISECONDS
+			);
+		} else {
+			sampler = null;
+		}
+	}
+
+	/**
+	 * Samples every monitored process once.  This is called periodically by
+	 * the background thread, but it should also be called one last time
+	 * before the AIs are stopped so that the CPU totals are complete.
+	 */
+	public void sample() {
+		for (Player p : players) {
+			Process process = p.getProcess();
+			if (process.isAlive()) {
+				ProcessUsage usage = ProcessUsage.readTree(process.toHandle());
+				if (usage != null) {
+					p.getResourceStatistics().record(usage);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops the background sampling.
+	 */
+	@Override
+	public void close() {
+		if (sampler != null) {
+			sampler.shutdownNow();
+		}
+	}
+}
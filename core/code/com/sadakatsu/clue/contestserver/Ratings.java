@@ -0,0 +1,177 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ratings is an online estimate of the entries' strengths from the winners of
+ * their games.  Each entry's strength is a Gaussian belief on a logit scale.
+ * A game is modeled as the first choice of a Plackett-Luce model: the chance
+ * that an entry wins a game is exp(strength) divided by the sum of exp(
+ * strength) over everyone at the table.  After every game, each participant's
+ * belief is updated with one Newton step of that model's likelihood (a
+ * Laplace approximation), so that entries with few games move quickly and
+ * well-measured entries move little.
+ *
+ * Ratings is thread-safe.
+ *
+ * @author Joseph A. Craig
+ */
+public class Ratings {
+	//********************* Protected and Private Fields *********************//
+	private final Map<String, Rating> ratings;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new Ratings instance in which every entry starts with the
+	 * same prior belief.
+	 * @param identifiers
+	 * The identifiers of the entries to rate.
+	 */
+	public Ratings(Collection<String> identifiers) {
+		ratings = new HashMap<>();
+		for (String identifier : identifiers) {
+			ratings.put(identifier, new Rating());
+		}
+	}
+
+	/**
+	 * Updates the participants' beliefs with the result of a game.
+	 * @param players
+	 * The identifiers of the entries that played.
+	 * @param winner
+	 * The identifier of the entry that won.
+	 */
+	public synchronized void update(List<String> players, String winner) {
+		final int N = players.size();
+		Rating[] table = new Rating[N];
+		double[] weights = new double[N];
+		double total = 0.0;
+		double shift = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < N; ++i) {
+			table[i] = ratings.get(players.get(i));
+			shift = Math.max(shift, table[i].mean);
+		}
+		for (int i = 0; i < N; ++i) {
+			weights[i] = Math.exp(table[i].mean - shift);
+			total += weights[i];
+		}
+
+		for (int i = 0; i < N; ++i) {
+			Rating r = table[i];
+			double p = weights[i] / total;
+			double won = (players.get(i).equals(winner) ? 1.0 : 0.0);
+			r.variance = 1.0 / (1.0 / r.variance + p * (1.0 - p));
+			r.mean += r.variance * (won - p);
+			++r.games;
+		}
+	}
+
+	/**
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The number of games the entry has been rated on.
+	 */
+	public synchronized int getGames(String identifier) {
+		return ratings.get(identifier).games;
+	}
+
+	/**
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The mean of the entry's strength.
+	 */
+	public synchronized double getMean(String identifier) {
+		return ratings.get(identifier).mean;
+	}
+
+	/**
+	 * @param identifier
+	 * The entry's identifier.
+	 * @return
+	 * The variance of the entry's strength.
+	 */
+	public synchronized double getVariance(String identifier) {
+		return ratings.get(identifier).variance;
+	}
+
+	/**
+	 * Returns the probability that one entry is stronger than another.
+	 * @param a
+	 * The first entry's identifier.
+	 * @param b
+	 * The second entry's identifier.
+	 * @return
+	 * The probability that the first entry's strength is the greater.
+	 */
+	public synchronized double probabilityStronger(String a, String b) {
+		Rating ra = ratings.get(a);
+		Rating rb = ratings.get(b);
+		return normalCdf(
+			(ra.mean - rb.mean) / Math.sqrt(ra.variance + rb.variance)
+		);
+	}
+
+	/**
+	 * Orders entries by descending mean strength.
+	 * @param identifiers
+	 * The identifiers of the entries to rank.
+	 * @return
+	 * A new List of the identifiers, strongest first.
+	 */
+	public synchronized List<String> rank(Collection<String> identifiers) {
+		List<String> ranking = new ArrayList<>(identifiers);
+		Collections.sort(
+			ranking,
+			(a, b) -> Double.compare(
+				ratings.get(b).mean,
+				ratings.get(a).mean
+			)
+		);
+		return ranking;
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final double PRIOR_VARIANCE = 1.0;
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Approximates the standard normal cumulative distribution function with
+	 * Abramowitz and Stegun's formula 7.1.26 for erf, which is accurate to
+	 * about 1e-7.
+	 * @param x
+	 * The point at which to evaluate the function.
+	 * @return
+	 * The probability that a standard normal variable is less than x.
+	 */
+	static double normalCdf(double x) {
+		double z = Math.abs(x) / Math.sqrt(2.0);
+		double t = 1.0 / (1.0 + 0.3275911 * z);
+		double erf = 1.0 - t * (
+			0.254829592 + t * (
+				-0.284496736 + t * (
+					1.421413741 + t * (
+						-1.453152027 + t * 1.061405429
+					)
+				)
+			)
+		) * Math.exp(-z * z);
+		return 0.5 * (1.0 + Math.copySign(erf, x));
+	}
+
+	//***************** Protected and Private Static Classes *****************//
+	/**
+	 * The belief about one entry's strength.
+	 */
+	private static class Rating {
+		private double mean = 0.0;
+		private double variance = PRIOR_VARIANCE;
+		private int games = 0;
+	}
+}
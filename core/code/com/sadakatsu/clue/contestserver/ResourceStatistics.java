@@ -0,0 +1,118 @@
+package com.sadakatsu.clue.contestserver;
+
+import com.sadakatsu.util.ProcessUsage;
+
+/**
+ * The ResourceStatistics class accumulates the samples a ProcessMonitor takes
+ * of a connected AI's process: the CPU time it has consumed so far and the
+ * peaks and means of its resident set size and thread count.
+ *
+ * @author Joseph A. Craig
+ */
+public class ResourceStatistics {
+	//********************* Protected and Private Fields *********************//
+	private int peakThreads;
+	private long cpuNanos;
+	private long peakRssKiB;
+	private long samples;
+	private long totalRssKiB;
+	private long totalThreads;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Adds a sample of the AI's process to the statistics.
+	 * @param usage
+	 * The sampled usage.  The CPU time is cumulative, so the latest sample
+	 * replaces the earlier ones.
+	 */
+	public synchronized void record(ProcessUsage usage) {
+		++samples;
+		cpuNanos = Math.max(cpuNanos, usage.getCpuNanos());
+		peakRssKiB = Math.max(peakRssKiB, usage.getRssKiB());
+		peakThreads = Math.max(peakThreads, usage.getThreads());
+		totalRssKiB += usage.getRssKiB();
+		totalThreads += usage.getThreads();
+	}
+
+	/**
+	 * Adds the samples of another instance to this one.  This is used to
+	 * combine the statistics of an entry's replicas: their CPU times are
+	 * summed, and the peaks are those of the largest replica.
+	 * @param other
+	 * The ResourceStatistics to add.
+	 */
+	public void merge(ResourceStatistics other) {
+		long cpu;
+		long peakRss;
+		int peakThreadCount;
+		long sampleCount;
+		long rss;
+		long threadCount;
+		synchronized (other) {
+			cpu = other.cpuNanos;
+			peakRss = other.peakRssKiB;
+			peakThreadCount = other.peakThreads;
+			sampleCount = other.samples;
+			rss = other.totalRssKiB;
+			threadCount = other.totalThreads;
+		}
+
+		synchronized (this) {
+			cpuNanos += cpu;
+			peakRssKiB = Math.max(peakRssKiB, peakRss);
+			peakThreads = Math.max(peakThreads, peakThreadCount);
+			samples += sampleCount;
+			totalRssKiB += rss;
+			totalThreads += threadCount;
+		}
+	}
+
+	/**
+	 * @return
+	 * The total CPU time the process has consumed in milliseconds as of the
+	 * last sample.
+	 */
+	public synchronized double getCpuMillis() {
+		return cpuNanos / 1000000.0;
+	}
+
+	/**
+	 * @return
+	 * The mean resident set size over all samples in KiB.
+	 */
+	public synchronized long getMeanRssKiB() {
+		return samples == 0 ? 0 : totalRssKiB / samples;
+	}
+
+	/**
+	 * @return
+	 * The mean thread count over all samples.
+	 */
+	public synchronized double getMeanThreads() {
+		return samples == 0 ? 0.0 : (double) totalThreads / samples;
+	}
+
+	/**
+	 * @return
+	 * The largest resident set size sampled in KiB.
+	 */
+	public synchronized long getPeakRssKiB() {
+		return peakRssKiB;
+	}
+
+	/**
+	 * @return
+	 * The largest thread count sampled.
+	 */
+	public synchronized int getPeakThreads() {
+		return peakThreads;
+	}
+
+	/**
+	 * @return
+	 * The number of samples taken.
+	 */
+	public synchronized long getSamples() {
+		return samples;
+	}
+}
@@ -0,0 +1,240 @@
+package com.sadakatsu.clue.contestserver;
+
+/**
+ * The ResponseStatistics class accumulates how long a connected AI took to
+ * respond to the server's messages.  A Player owns one instance and records
+ * the time between sending each message and receiving its response.
+ *
+ * Besides the count, mean, and maximum, the response times are kept in a
+ * histogram with eight buckets per power of two, from which percentiles can
+ * be read to within an eighth of their value.
+ *
+ * ResponseStatistics is thread-safe, so that the response times can be read
+ * while the Player is still playing.
+ *
+ * @author Joseph A. Craig
+ */
+public class ResponseStatistics {
+	//********************* Protected and Private Fields *********************//
+	private long count;
+	private long maxNanos;
+	private long totalNanos;
+	private long[] buckets;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates an empty ResponseStatistics instance.
+	 */
+	public ResponseStatistics() {
+		buckets = new long[BUCKETS];
+		reset();
+	}
+
+	/**
+	 * Adds a single response time to the statistics.
+	 * @param nanos
+	 * The number of nanoseconds the AI took to respond.
+	 */
+	public synchronized void record(long nanos) {
+		++count;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		++buckets[bucketOf(nanos)];
+	}
+
+	/**
+	 * Adds all the response times recorded by another instance to this one.
+	 * This is used to combine the statistics of an entry's replicas.
+	 * @param other
+	 * The ResponseStatistics to add.
+	 */
+	public void merge(ResponseStatistics other) {
+		ResponseStatistics o = other.copy();
+		synchronized (this) {
+			count += o.count;
+			totalNanos += o.totalNanos;
+			maxNanos = Math.max(maxNanos, o.maxNanos);
+			for (int i = 0; i < BUCKETS; ++i) {
+				buckets[i] += o.buckets[i];
+			}
+		}
+	}
+
+	/**
+	 * Discards all recorded response times.
+	 */
+	public synchronized void reset() {
+		count = 0;
+		maxNanos = 0;
+		totalNanos = 0;
+		for (int i = 0; i < BUCKETS; ++i) {
+			buckets[i] = 0;
+		}
+	}
+
+	/**
+	 * @return
+	 * A new ResponseStatistics instance holding the same response times as
+	 * this one does now.
+	 */
+	public synchronized ResponseStatistics copy() {
+		ResponseStatistics c = new ResponseStatistics();
+		c.count = count;
+		c.maxNanos = maxNanos;
+		c.totalNanos = totalNanos;
+		System.arraycopy(buckets, 0, c.buckets, 0, BUCKETS);
+		return c;
+	}
+
+	/**
+	 * Returns the response times recorded by this instance since an earlier
+	 * copy() of it.  Because the individual times are not kept, the maximum
+	 * of the result is the upper bound of its highest bucket.
+	 * @param earlier
+	 * An earlier copy of this instance.
+	 * @return
+	 * A new ResponseStatistics instance holding the newer response times, or
+	 * all the response times since this instance was last reset if that was
+	 * after the copy.
+	 */
+	public synchronized ResponseStatistics since(ResponseStatistics earlier) {
+		ResponseStatistics e = earlier.copy();
+		if (count < e.count) {
+			return copy();
+		}
+
+		// A combined instance may have had only some of its parts reset, so
+		// the differences are clamped rather than trusted.
+		ResponseStatistics d = new ResponseStatistics();
+		d.totalNanos = Math.max(0, totalNanos - e.totalNanos);
+		for (int i = 0; i < BUCKETS; ++i) {
+			d.buckets[i] = Math.max(0, buckets[i] - e.buckets[i]);
+			d.count += d.buckets[i];
+			if (d.buckets[i] > 0) {
+				d.maxNanos = Math.min(maxNanos, upperBoundOf(i));
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * @return
+	 * The number of responses recorded.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return
+	 * The longest recorded response time in milliseconds.
+	 */
+	public synchronized double getMaxMillis() {
+		return maxNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return
+	 * The mean recorded response time in milliseconds, or 0 if no responses
+	 * have been recorded.
+	 */
+	public synchronized double getMeanMillis() {
+		return count == 0 ? 0.0 : totalNanos / NANOS_PER_MILLI / count;
+	}
+
+	/**
+	 * Returns a percentile of the recorded response times.  The result is the
+	 * upper bound of the histogram bucket that holds the percentile, so it
+	 * overestimates by at most an eighth.
+	 * @param fraction
+	 * The fraction of the responses that are at least as fast as the result,
+	 * such as 0.99 for the 99th percentile.
+	 * @return
+	 * The percentile in milliseconds, or 0 if no responses have been
+	 * recorded.
+	 */
+	public synchronized double getPercentileMillis(double fraction) {
+		if (count == 0) {
+			return 0.0;
+		}
+
+		long rank = (long) Math.ceil(fraction * count);
+		long seen = 0;
+		int i = 0;
+		for (; i < BUCKETS - 1; ++i) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				break;
+			}
+		}
+		return Math.min(maxNanos, upperBoundOf(i)) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return
+	 * The sum of all recorded response times in milliseconds.
+	 */
+	public synchronized double getTotalMillis() {
+		return totalNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Returns a user-friendly summary of the statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format(
+			"%d responses, mean %.3f ms, p99 %.3f ms, max %.3f ms",
+				count,
+				getMeanMillis(),
+				getPercentileMillis(0.99),
+				getMaxMillis()
+		);
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	/**
+	 * The number of histogram buckets: eight for each of the 60 powers of two
+	 * from 2^3 to 2^62, plus one for each time under eight nanoseconds.
+	 */
+	private static final int BUCKETS = 8 * 61;
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Returns the histogram bucket of a response time.  Times under eight
+	 * nanoseconds have their own buckets; larger times are bucketed by their
+	 * highest bit and the three bits below it.
+	 * @param nanos
+	 * The response time in nanoseconds.
+	 * @return
+	 * The bucket's index.
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < 8) {
+			return (int) Math.max(0, nanos);
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int mantissa = (int) ((nanos >>> (exponent - 3)) & 7);
+		return (exponent - 2) * 8 + mantissa;
+	}
+
+	/**
+	 * Returns the largest response time a histogram bucket can hold.
+	 * @param bucket
+	 * The bucket's index.
+	 * @return
+	 * The bucket's upper bound in nanoseconds.
+	 */
+	private static long upperBoundOf(int bucket) {
+		if (bucket < 8) {
+			return bucket;
+		}
+
+		int exponent = bucket / 8 + 2;
+		long mantissa = 8 + bucket % 8;
+		return ((mantissa + 1) << (exponent - 3)) - 1;
+	}
+}
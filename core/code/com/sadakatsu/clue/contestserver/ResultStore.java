@@ -0,0 +1,192 @@
+package com.sadakatsu.clue.contestserver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A ResultStore keeps the results of played MatchUps in a directory so that
+ * later contests can reuse them instead of playing them again.  Each MatchUp
+ * is stored under a key that hashes everything its results depend on: the
+ * fingerprint of every entry at the table in play order (see
+ * com.sadakatsu.util.EntryScript.fingerprint()), the number of games, and
+ * the MatchUp's seed.  So a MatchUp is reused only if the same programs play
+ * the same Deals from the same seats, and any change to an entry's launch
+ * command or files makes every MatchUp it plays miss the store.
+ *
+ * Only MatchUps that were played to the end without a rule violation are
+ * stored.  Each one is a file named by its key that holds one MatchRecord per
+ * line, and it is written to a temporary file first and then renamed, so
+ * contests that share a store never see a partial file.
+ *
+ * @author Joseph A. Craig
+ */
+public class ResultStore {
+	//********************* Protected and Private Fields *********************//
+	private final File directory;
+	private final Map<String, String> fingerprints;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new ResultStore, creating its directory if necessary.
+	 * @param directory
+	 * The directory that holds the stored MatchUps.
+	 * @param fingerprints
+	 * A Map from each entry's identifier to its fingerprint.
+	 * @throws IOException
+	 * If the directory cannot be created.
+	 */
+	public ResultStore(File directory, Map<String, String> fingerprints)
+	throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException(
+				"Could not create the result store \"" + directory + "\"."
+			);
+		}
+
+		this.directory = directory;
+		this.fingerprints = Collections.unmodifiableMap(
+			new HashMap<>(fingerprints)
+		);
+	}
+
+	/**
+	 * Returns the key under which a MatchUp's results are stored.
+	 * @param matchUp
+	 * The MatchUp.
+	 * @return
+	 * The key in hexadecimal, or null if the MatchUp is not seeded or one of
+	 * its entries has no fingerprint, in which case it cannot be stored.
+	 */
+	public String getKey(MatchUp matchUp) {
+		if (!matchUp.isSeeded()) {
+			return null;
+		}
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+
+		StringBuilder sb = new StringBuilder(VERSION);
+		for (String identifier : matchUp.getOrder()) {
+			String fingerprint = fingerprints.get(identifier);
+			if (fingerprint == null) {
+				return null;
+			}
+			sb.append(",").append(fingerprint);
+		}
+		sb.append(
+			String.format(",%d,%d", matchUp.getGames(), matchUp.getSeed())
+		);
+
+		byte[] hash = digest.digest(
+			sb.toString().getBytes(StandardCharsets.UTF_8)
+		);
+		StringBuilder key = new StringBuilder();
+		for (byte b : hash) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Reads the stored results of a MatchUp.
+	 * @param matchUp
+	 * The MatchUp.
+	 * @return
+	 * The MatchRecords of all the MatchUp's games in the order they were
+	 * played, or null if the MatchUp is not in the store (or its file is
+	 * unreadable or incomplete, in which case it should be played again).
+	 */
+	public List<MatchRecord> load(MatchUp matchUp) {
+		String key = getKey(matchUp);
+		if (key == null) {
+			return null;
+		}
+
+		File file = new File(directory, key + SUFFIX);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		List<MatchRecord> records = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				MatchRecord r = MatchRecord.parse(line);
+				if (!r.getPlayers().equals(matchUp.getOrder())) {
+					return null;
+				}
+				records.add(r);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+		return (records.size() == matchUp.getGames() ? records : null);
+	}
+
+	/**
+	 * Stores the results of a MatchUp, replacing any that were stored before.
+	 * @param matchUp
+	 * The MatchUp.
+	 * @param records
+	 * The MatchRecords of all the MatchUp's games in the order they were
+	 * played.
+	 * @throws IOException
+	 */
+	public void save(MatchUp matchUp, List<MatchRecord> records)
+	throws IOException {
+		String key = getKey(matchUp);
+		if (key == null) {
+			return;
+		}
+
+		File temporary = File.createTempFile(key, ".tmp", directory);
+		try {
+			try (
+				BufferedWriter bw = new BufferedWriter(
+					new FileWriter(temporary)
+				)
+			) {
+				for (MatchRecord r : records) {
+					bw.write(r.toString());
+					bw.write("\n");
+				}
+			}
+			Files.move(
+				temporary.toPath(),
+				new File(directory, key + SUFFIX).toPath(),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING
+			);
+		} finally {
+			temporary.delete();
+		}
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final String SUFFIX = ".txt";
+
+	/**
+	 * Part of every key, so that results stored by a server that plays or
+	 * records games differently can be retired by changing it.
+	 */
+	private static final String VERSION = "1";
+}
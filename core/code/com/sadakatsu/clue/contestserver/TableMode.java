@@ -0,0 +1,27 @@
+package com.sadakatsu.clue.contestserver;
+
+/**
+ * The TableMode describes how a ContestServer chooses which groups of entries
+ * play each other.
+ *
+ * @author Joseph A. Craig
+ */
+public enum TableMode {
+	/**
+	 * Every combination of 3-6 entries plays.  This is the contest default.
+	 */
+	ALL,
+
+	/**
+	 * For each table size, only the groups of a pair-balanced block design
+	 * play (see com.sadakatsu.util.BalancedBlocks).
+	 */
+	BLOCKS,
+
+	/**
+	 * Tables are chosen one at a time from the entries' current Ratings, so
+	 * that most games go to the entries whose ranking is least certain (see
+	 * AdaptiveSchedule).
+	 */
+	ADAPTIVE
+}
@@ -0,0 +1,27 @@
+package com.sadakatsu.clue.contestserver;
+
+/**
+ * The TimeoutMode describes how a Player measures the time its connected AI
+ * takes to respond against the contest time limit.
+ *
+ * @author Joseph A. Craig
+ */
+public enum TimeoutMode {
+	/**
+	 * The AI is charged the wall-clock time between the server sending a
+	 * message and receiving the response.  This is the contest default.
+	 */
+	WALL_CLOCK,
+
+	/**
+	 * The AI is charged the CPU time its process consumes while the server
+	 * waits for the response, so that time spent waiting for a core on a busy
+	 * machine does not count against it.  Each poll interval is charged the
+	 * lesser of the CPU time and the wall-clock time that passed in it, so an
+	 * AI running several threads at once is never charged more than it would
+	 * be in WALL_CLOCK mode.  Wall-clock time is still limited by a hard cap.
+	 * This mode requires a "/proc" file system; Players whose process is
+	 * unknown fall back to WALL_CLOCK.
+	 */
+	CPU_TIME
+}
@@ -5,8 +5,9 @@ import com.sadakatsu.clue.contestserver.Player;
 /**
  * The DisqualifiedPlayer exception is thrown by the Match class if any of the
  * Players passed to it to play the game were disqualified before being passed
- * in to the Match constructor.  Players are not allowed to participate in any
- * more Matches after having been disqualified.
+ * in to the Match constructor, or were disqualified (by a violation in another
+ * Match) while the game was being played.  Players are not allowed to
+ * participate in any more Matches after having been disqualified.
  * 
  * @author Joseph A. Craig
  */
@@ -25,4 +26,22 @@ public class DisqualifiedPlayer extends Exception {
 			)
 		);
 	}
+	
+	/**
+	 * Instantiates a new DisqualifiedPlayer instance for a Player that was
+	 * disqualified while a Match was in progress.
+	 * @param player
+	 * The disqualified Player.
+	 * @param round
+	 * The round of the Match in which the disqualification was noticed.
+	 */
+	public DisqualifiedPlayer(Player player, int round) {
+		super(
+			String.format(
+				"%s was disqualified, so its Match stopped in round %d.",
+				player,
+				round
+			)
+		);
+	}
 }
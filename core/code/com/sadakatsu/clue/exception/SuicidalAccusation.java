@@ -1,7 +1,5 @@
 package com.sadakatsu.clue.exception;
 
-import java.util.Set;
-
 import com.sadakatsu.clue.cards.Card;
 import com.sadakatsu.clue.cards.Suggestion;
 import com.sadakatsu.clue.contestserver.Player;
@@ -31,7 +29,7 @@ public class SuicidalAccusation extends ClueException {
 	public SuicidalAccusation(
 		Player player,
 		Suggestion accusation,
-		Set<Card> seen
+		Iterable<Card> seen
 	) {
 		super(
 			player,
@@ -29,4 +29,11 @@ public class TimeoutViolation extends ClueException {
 	 * message.
 	 */
 	public static final int TIMEOUT = 10000;
+	
+	/**
+	 * The default number of milliseconds of wall-clock time an AI may take to
+	 * respond to any server message when the server charges the AI for CPU
+	 * time instead of wall-clock time.
+	 */
+	public static final int HARD_TIMEOUT = 60000;
 }
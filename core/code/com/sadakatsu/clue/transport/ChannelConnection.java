@@ -0,0 +1,108 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ChannelConnection carries messages over a SocketChannel.  It is used for
+ * Unix domain sockets, whose channels do not support Socket timeouts, so the
+ * channel is non-blocking and a Selector waits for each message.
+ *
+ * @author Joseph A. Craig
+ */
+public class ChannelConnection implements Connection {
+	//********************* Protected and Private Fields *********************//
+	private final ByteBuffer buffer;
+	private final Selector selector;
+	private final SocketChannel channel;
+	private int timeout;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Wraps a connected SocketChannel.
+	 * @param channel
+	 * The SocketChannel through which to communicate.
+	 * @throws IOException
+	 */
+	public ChannelConnection(SocketChannel channel) throws IOException {
+		channel.configureBlocking(false);
+		selector = Selector.open();
+		channel.register(selector, SelectionKey.OP_READ);
+
+		buffer = ByteBuffer.allocate(MAX_MESSAGE);
+		timeout = 0;
+		this.channel = channel;
+	}
+
+	@Override
+	public String receive() throws IOException {
+		final long DEADLINE = System.nanoTime() + timeout * 1000000L;
+
+		buffer.clear();
+		int read;
+		while ((read = channel.read(buffer)) == 0) {
+			long remaining = 0;
+			if (timeout > 0) {
+				remaining = (DEADLINE - System.nanoTime()) / 1000000L;
+				if (remaining <= 0) {
+					throw new SocketTimeoutException("Read timed out");
+				}
+			}
+			selector.select(remaining);
+			selector.selectedKeys().clear();
+		}
+
+		if (read < 0) {
+			return null;
+		}
+
+		byte[] bytes = buffer.array();
+		for (; read > 0 && bytes[read - 1] == 0; --read) {}
+		return new String(bytes, 0, read, StandardCharsets.US_ASCII);
+	}
+
+	@Override
+	public void send(String message) throws IOException {
+		ByteBuffer out = ByteBuffer.wrap(
+			message.getBytes(StandardCharsets.US_ASCII)
+		);
+		while (out.hasRemaining()) {
+			if (channel.write(out) == 0) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Override
+	public void setTimeout(int millis) {
+		timeout = millis;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			selector.close();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns a user-friendly description of the Connection.
+	 */
+	@Override
+	public String toString() {
+		String address;
+		try {
+			address = String.valueOf(channel.getLocalAddress());
+		} catch (IOException e) {
+			address = "closed";
+		}
+		return "unix:" + address;
+	}
+}
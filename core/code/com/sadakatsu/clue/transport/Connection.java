@@ -0,0 +1,46 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A Connection carries the Speed Clue protocol's messages between the server
+ * and an AI.  Messages are not delimited: each read of up to MAX_MESSAGE
+ * characters is treated as one message, exactly as it always has been over
+ * TCP, so every implementation must deliver a message in a single read.
+ *
+ * @author Joseph A. Craig
+ */
+public interface Connection extends Closeable {
+	/**
+	 * The largest message, in characters, that a single receive() returns.
+	 */
+	public static final int MAX_MESSAGE = 512;
+
+	/**
+	 * Waits for the next message from the other end of the Connection.
+	 * @return
+	 * The message with any terminating NULL characters removed, or null if the
+	 * other end closed the Connection.
+	 * @throws java.net.SocketTimeoutException
+	 * If no message arrives before the timeout expires.
+	 * @throws IOException
+	 */
+	public String receive() throws IOException;
+
+	/**
+	 * Sends a message to the other end of the Connection.
+	 * @param message
+	 * The message to send.
+	 * @throws IOException
+	 */
+	public void send(String message) throws IOException;
+
+	/**
+	 * Sets how long receive() waits for a message.
+	 * @param millis
+	 * The number of milliseconds to wait, or 0 to wait indefinitely.
+	 * @throws IOException
+	 */
+	public void setTimeout(int millis) throws IOException;
+}
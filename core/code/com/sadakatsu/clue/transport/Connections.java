@@ -0,0 +1,79 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The Connections class opens an AI's Connection to the server from the
+ * address the server passed on the command line.
+ *
+ * @author Joseph A. Craig
+ */
+public class Connections {
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Connects to the server.
+	 * @param address
+	 * A localhost port number, which is used for TCP, a shared memory address
+	 * (see SharedMemoryConnection), or the path of the server's Unix domain
+	 * socket.
+	 * @return
+	 * The Connection to the server.
+	 * @throws IOException
+	 */
+	public static Connection connect(String address) throws IOException {
+		Connection connection;
+		if (isPort(address)) {
+			connection = connect(Integer.parseInt(address));
+		} else if (SharedMemoryConnection.isAddress(address)) {
+			connection = SharedMemoryConnection.open(address);
+		} else {
+			SocketChannel channel = SocketChannel.open(
+				StandardProtocolFamily.UNIX
+			);
+			try {
+				channel.connect(UnixDomainSocketAddress.of(address));
+				connection = new ChannelConnection(channel);
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Connects to the server over TCP.
+	 * @param port
+	 * The server's localhost port number.
+	 * @return
+	 * The Connection to the server.
+	 * @throws IOException
+	 */
+	public static Connection connect(int port) throws IOException {
+		Socket socket = new Socket("localhost", port);
+		try {
+			return new SocketConnection(socket);
+		} catch (IOException e) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Determines whether a server address is a TCP port number.
+	 * @param address
+	 * The address in question.
+	 * @return
+	 * true if the address consists only of digits, false otherwise.
+	 */
+	public static boolean isPort(String address) {
+		return (
+			!address.isEmpty() &&
+			address.chars().allMatch(Character::isDigit)
+		);
+	}
+}
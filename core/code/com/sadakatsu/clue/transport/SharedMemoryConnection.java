@@ -0,0 +1,276 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The SharedMemoryConnection carries messages between two processes on the
+ * same host through a memory-mapped file, normally under "/dev/shm", without
+ * a system call per message.  The file holds two single-producer,
+ * single-consumer rings of message slots: one from the server to the AI and
+ * one from the AI to the server.
+ *
+ * Each ring starts with three counters on their own cache lines -- the number
+ * of messages written, the number read, and whether the writer has closed --
+ * followed by SLOTS slots of a length and up to MAX_MESSAGE bytes.  A writer
+ * fills a slot and then publishes it by storing the written count with
+ * release semantics; the reader loads that count with acquire semantics, so
+ * the slot's contents are always visible before the reader looks at them.
+ * Messages longer than MAX_MESSAGE are split across slots, just as a TCP
+ * reader would receive them in several reads.
+ *
+ * A waiting reader or writer spins briefly, then yields, then parks for
+ * increasing intervals up to MAX_PARK_NANOS, so an idle connection does not
+ * burn a core.  On a single core the other process cannot make progress while
+ * this one spins, so the spinning is skipped.
+ *
+ * @author Joseph A. Craig
+ */
+public class SharedMemoryConnection implements Connection {
+	//********************* Protected and Private Fields *********************//
+	private final boolean owner;
+	private final byte[] scratch;
+	private final int in;
+	private final int out;
+	private final MappedByteBuffer memory;
+	private final Path path;
+	private int timeout;
+
+	//*************************** Public Interface ***************************//
+	@Override
+	public String receive() throws IOException {
+		final long DEADLINE = System.nanoTime() + timeout * 1000000L;
+
+		long read = (long) LONGS.getOpaque(memory, in + READ);
+		int waits = 0;
+		while ((long) LONGS.getAcquire(memory, in + WRITTEN) == read) {
+			if ((long) LONGS.getAcquire(memory, in + CLOSED) != 0) {
+				return null;
+			}
+			if (timeout > 0 && System.nanoTime() - DEADLINE >= 0) {
+				throw new SocketTimeoutException("Read timed out");
+			}
+			backOff(waits++);
+		}
+
+		int slot = in + DATA + (int) (read % SLOTS) * SLOT_SIZE;
+		int length = memory.getInt(slot);
+		memory.get(slot + Integer.BYTES, scratch, 0, length);
+		LONGS.setRelease(memory, in + READ, read + 1);
+
+		for (; length > 0 && scratch[length - 1] == 0; --length) {}
+		return new String(scratch, 0, length, StandardCharsets.US_ASCII);
+	}
+
+	@Override
+	public void send(String message) throws IOException {
+		byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+		int offset = 0;
+		do {
+			int length = Math.min(MAX_MESSAGE, bytes.length - offset);
+			write(bytes, offset, length);
+			offset += length;
+		} while (offset < bytes.length);
+	}
+
+	@Override
+	public void setTimeout(int millis) {
+		timeout = millis;
+	}
+
+	@Override
+	public void close() throws IOException {
+		LONGS.setRelease(memory, out + CLOSED, 1L);
+		if (owner) {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * @return
+	 * The address of the shared file, which the AI passes to
+	 * Connections.connect().
+	 */
+	public String getAddress() {
+		return PREFIX + path;
+	}
+
+	/**
+	 * Returns a user-friendly description of the Connection.
+	 */
+	@Override
+	public String toString() {
+		return getAddress();
+	}
+
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Maps an existing shared file.
+	 * @param path
+	 * The shared file.
+	 * @param owner
+	 * Whether this is the server's end, which writes the first ring, reads the
+	 * second, and deletes the file when closed.
+	 * @throws IOException
+	 */
+	private SharedMemoryConnection(Path path, boolean owner)
+	throws IOException {
+		try (
+			FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+			)
+		) {
+			memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+		}
+		memory.order(ByteOrder.nativeOrder());
+
+		in = (owner ? RING_SIZE : 0);
+		out = (owner ? 0 : RING_SIZE);
+		scratch = new byte[MAX_MESSAGE];
+		timeout = 0;
+		this.owner = owner;
+		this.path = path;
+	}
+
+	/**
+	 * Writes one slot's worth of a message, waiting for the reader to free a
+	 * slot if the ring is full.
+	 * @param bytes
+	 * The message.
+	 * @param offset
+	 * The index of the first byte to write.
+	 * @param length
+	 * The number of bytes to write, no more than MAX_MESSAGE.
+	 * @throws IOException
+	 * If the reader has closed the Connection.
+	 */
+	private void write(byte[] bytes, int offset, int length)
+	throws IOException {
+		long written = (long) LONGS.getOpaque(memory, out + WRITTEN);
+		int waits = 0;
+		while (written - (long) LONGS.getAcquire(memory, out + READ) >= SLOTS) {
+			if ((long) LONGS.getAcquire(memory, in + CLOSED) != 0) {
+				throw new IOException("The connection was closed.");
+			}
+			backOff(waits++);
+		}
+
+		int slot = out + DATA + (int) (written % SLOTS) * SLOT_SIZE;
+		memory.putInt(slot, length);
+		memory.put(slot + Integer.BYTES, bytes, offset, length);
+		LONGS.setRelease(memory, out + WRITTEN, written + 1);
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final int CACHE_LINE = 64;
+	private static final int CLOSED = 2 * CACHE_LINE;
+	private static final int DATA = 3 * CACHE_LINE;
+	private static final int READ = CACHE_LINE;
+	private static final int SLOTS = 16;
+	private static final int SLOT_SIZE = Integer.BYTES + MAX_MESSAGE + 4;
+	private static final int RING_SIZE = DATA + SLOTS * SLOT_SIZE;
+	private static final int FILE_SIZE = 2 * RING_SIZE;
+	private static final int SPINS = (
+		Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0
+	);
+	private static final int WRITTEN = 0;
+	private static final int YIELDS = 100;
+	private static final long MAX_PARK_NANOS = 1000000L;
+	private static final String PREFIX = "shm:";
+	private static final VarHandle LONGS =
+		MethodHandles.byteBufferViewVarHandle(
+			long[].class,
+			ByteOrder.nativeOrder()
+		);
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Waits a little before checking a ring again.
+	 * @param waits
+	 * The number of times the caller has already waited.
+	 */
+	private static void backOff(int waits) {
+		if (waits < SPINS) {
+			Thread.onSpinWait();
+		} else if (waits < SPINS + YIELDS) {
+			Thread.yield();
+		} else {
+			int parks = Math.min(10, waits - SPINS - YIELDS);
+			LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << parks));
+		}
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Creates a new shared file for the server's end of a Connection.  The file
+	 * is placed in "/dev/shm" if it exists, or in the temporary directory
+	 * otherwise, and is deleted when the server's end is closed.
+	 * @return
+	 * The server's end of the Connection.
+	 * @throws IOException
+	 */
+	public static SharedMemoryConnection create() throws IOException {
+		Path directory = Paths.get("/dev/shm");
+		Path path = (
+			Files.isDirectory(directory) ?
+				Files.createTempFile(directory, "clue", ".ring") :
+				Files.createTempFile("clue", ".ring")
+		);
+
+		try (
+			FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.WRITE
+			)
+		) {
+			channel.truncate(0);
+			channel.position(FILE_SIZE - 1);
+			channel.write(ByteBuffer.wrap(new byte[1]));
+		} catch (IOException e) {
+			Files.deleteIfExists(path);
+			throw e;
+		}
+		return new SharedMemoryConnection(path, true);
+	}
+
+	/**
+	 * Determines whether a server address names a shared file.
+	 * @param address
+	 * The address in question.
+	 * @return
+	 * true if the address was produced by getAddress(), false otherwise.
+	 */
+	public static boolean isAddress(String address) {
+		return address.startsWith(PREFIX);
+	}
+
+	/**
+	 * Opens the AI's end of a Connection.
+	 * @param address
+	 * The address returned by the server's getAddress().
+	 * @return
+	 * The AI's end of the Connection.
+	 * @throws IOException
+	 */
+	public static SharedMemoryConnection open(String address)
+	throws IOException {
+		return new SharedMemoryConnection(
+			Paths.get(address.substring(PREFIX.length())),
+			false
+		);
+	}
+}
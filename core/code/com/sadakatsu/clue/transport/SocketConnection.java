@@ -0,0 +1,77 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+/**
+ * The SocketConnection carries messages over a TCP Socket.  It is the
+ * transport every entry supports, whatever its language.
+ *
+ * @author Joseph A. Craig
+ */
+public class SocketConnection implements Connection {
+	//********************* Protected and Private Fields *********************//
+	private final BufferedReader in;
+	private final char[] buffer;
+	private final PrintWriter out;
+	private final Socket socket;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Wraps a connected Socket.
+	 * @param socket
+	 * The Socket through which to communicate.
+	 * @throws IOException
+	 */
+	public SocketConnection(Socket socket) throws IOException {
+		in = new BufferedReader(
+			new InputStreamReader(socket.getInputStream())
+		);
+		out = new PrintWriter(socket.getOutputStream(), true);
+		buffer = new char[MAX_MESSAGE];
+		this.socket = socket;
+	}
+
+	@Override
+	public String receive() throws IOException {
+		int read = in.read(buffer);
+		if (read < 0) {
+			return null;
+		}
+
+		for (; read > 0 && buffer[read - 1] == '\0'; --read) {}
+		return String.copyValueOf(buffer, 0, read);
+	}
+
+	@Override
+	public void send(String message) throws IOException {
+		out.print(message);
+		out.flush();
+	}
+
+	@Override
+	public void setTimeout(int millis) throws IOException {
+		socket.setSoTimeout(millis);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			out.close();
+			in.close();
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Returns a user-friendly description of the Connection.
+	 */
+	@Override
+	public String toString() {
+		return "tcp:" + socket.getPort();
+	}
+}
@@ -0,0 +1,87 @@
+package com.sadakatsu.clue.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The UnixListener accepts Connections from AIs over a Unix domain socket.  It
+ * binds a socket file in a new temporary directory and deletes both when it is
+ * closed.
+ *
+ * @author Joseph A. Craig
+ */
+public class UnixListener implements Closeable {
+	//********************* Protected and Private Fields *********************//
+	private final Path directory;
+	private final Path path;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Binds a new Unix domain socket.
+	 * @throws IOException
+	 */
+	public UnixListener() throws IOException {
+		directory = Files.createTempDirectory("clue");
+		path = directory.resolve("server.sock");
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(path));
+		server.configureBlocking(false);
+		selector = Selector.open();
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+	/**
+	 * Waits for an AI to connect.
+	 * @param timeout
+	 * The number of milliseconds to wait.
+	 * @return
+	 * The Connection to the AI.
+	 * @throws SocketTimeoutException
+	 * If no AI connects before the timeout expires.
+	 * @throws IOException
+	 */
+	public Connection accept(int timeout) throws IOException {
+		final long DEADLINE = System.nanoTime() + timeout * 1000000L;
+
+		SocketChannel channel;
+		while ((channel = server.accept()) == null) {
+			long remaining = (DEADLINE - System.nanoTime()) / 1000000L;
+			if (remaining <= 0) {
+				throw new SocketTimeoutException("Accept timed out");
+			}
+			selector.select(remaining);
+			selector.selectedKeys().clear();
+		}
+		return new ChannelConnection(channel);
+	}
+
+	/**
+	 * @return
+	 * The path of the socket file, which AIs pass to Connections.connect().
+	 */
+	public String getPath() {
+		return path.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			selector.close();
+			server.close();
+		} finally {
+			Files.deleteIfExists(path);
+			Files.deleteIfExists(directory);
+		}
+	}
+}
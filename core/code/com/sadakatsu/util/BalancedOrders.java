@@ -0,0 +1,91 @@
+package com.sadakatsu.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The BalancedOrders class provides a small set of orderings of the items in a
+ * Collection that balances position and precedence as well as iterating
+ * through all the permutations would.  The orderings are the rows of a
+ * Williams design: every item appears in every position equally often, and
+ * every item immediately follows every other item equally often.  An even
+ * number of items needs as many orderings as there are items; an odd number
+ * needs twice as many.  (The last item "preceding" the first when the order
+ * wraps around is not balanced.)
+ *
+ * @author Joseph A. Craig
+ */
+public class BalancedOrders<T> implements Iterable<List<T>> {
+	//********************* Protected and Private Fields *********************//
+	private final List<List<T>> orders;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new BalancedOrders instance for the passed Collection.
+	 * @param values
+	 * The items to order.
+	 */
+	public BalancedOrders(Collection<T> values) {
+		List<T> items = new ArrayList<>(values);
+		final int N = items.size();
+		
+		// The first row is 0, 1, N-1, 2, N-2, ...  Each following row adds one
+		// to every index of the one before it, modulo N.
+		int[] first = new int[N];
+		for (int i = 1, low = 1, high = N - 1; i < N; ++i) {
+			first[i] = (i % 2 == 1 ? low++ : high--);
+		}
+		
+		List<List<T>> rows = new ArrayList<>();
+		for (int r = 0; r < N; ++r) {
+			List<T> row = new ArrayList<>(N);
+			for (int i = 0; i < N; ++i) {
+				row.add(items.get((first[i] + r) % N));
+			}
+			rows.add(Collections.unmodifiableList(row));
+		}
+		
+		// With an odd number of items, the rows above have every item follow
+		// half the others twice; their mirror images make up the difference.
+		if (N % 2 == 1) {
+			for (int r = 0; r < N; ++r) {
+				List<T> row = new ArrayList<>(rows.get(r));
+				Collections.reverse(row);
+				rows.add(Collections.unmodifiableList(row));
+			}
+		}
+		
+		orders = Collections.unmodifiableList(rows);
+	}
+	
+	/**
+	 * @return
+	 * The number of orderings.
+	 */
+	public int size() {
+		return orders.size();
+	}
+	
+	@Override
+	public Iterator<List<T>> iterator() {
+		return orders.iterator();
+	}
+	
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Calls the BalancedOrders constructor with the passed argument and returns
+	 * the new instance.  This method is provided for the same style reasons as
+	 * Permutations.get().
+	 * @param values
+	 * The items to order.
+	 * @return
+	 * The BalancedOrders<T> instance that will allow for iteration through the
+	 * balanced orderings of "values".
+	 */
+	public static <T> BalancedOrders<T> get(Collection<T> values) {
+		return new BalancedOrders<>(values);
+	}
+}
@@ -7,20 +7,47 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
 
 /**
  * The Combinations class provides a lazy iteration through all possible
  * combinations of unique items in a Collection with a given size.
  * 
+ * The combinations are produced in lexicographic order of the items'
+ * positions, and each has a rank: its place in that order, counting from 0.
+ * Ranks convert to and from combinations directly (through the combinatorial
+ * number system), so an iteration can be limited to a range of ranks and
+ * started anywhere in it without walking the combinations before it.  The
+ * spliterator() splits its range of ranks the same way, which lets a stream
+ * of the combinations be divided among threads.
+ * 
+ * Callers that only need the items' positions can use nextIndices(), which
+ * reuses one array instead of building a Collection for every combination.
+ * 
+ * Plain iteration stays lazy: the binomial coefficients that ranks need are
+ * only computed the first time a rank is used.  If the count of combinations
+ * does not fit in a long, count(), get(), range(), rank(), and spliterator()
+ * throw an ArithmeticException, but iterator() still walks every combination.
+ * 
  * @author Joseph A. Craig
  */
 public class Combinations<T>
-implements Iterable<Collection<T>>, Iterator<Collection<T>> {
+implements
+	Iterable<Collection<T>>,
+	Iterator<Collection<T>>,
+	RankSpliterator.Ranked<Collection<T>>
+{
 	//********************* Protected and Private Fields *********************//
 	private final int N;
 	private final int size;
+	private boolean more;
+	private long[][] choose;
 	private int[] indices;
+	private int[] view;
 	private final List<T> items;
+	private long end;
+	private long position;
+	private long start;
 	
 	//*************************** Public Interface ***************************//
 	/**
@@ -36,27 +63,159 @@ implements Iterable<Collection<T>>, Iterator<Collection<T>> {
 		items = new ArrayList<>(values.size() == set.size() ? values : set);
 		N = items.size();
 		size = combinationSize;
+		start = 0;
+		end = ALL;
 	}
 	
-	@Override
-	public boolean hasNext() {
-		if (indices != null && indices[0] > N - size) {
-			indices = null;
+	/**
+	 * @return
+	 * The number of combinations.
+	 * @throws ArithmeticException
+	 * If the number does not fit in a long.
+	 */
+	public long count() {
+		if (size < 0 || size > N) {
+			return 0;
+		}
+		
+		long count = getChoose()[N][size];
+		if (count == Long.MAX_VALUE) {
+			throw new ArithmeticException(
+				String.format("C(%d, %d) overflows a long", N, size)
+			);
 		}
-		return indices != null;
+		return count;
 	}
-
-	@Override
-	public Collection<T> next() {
+	
+	/**
+	 * Returns the combination with a given rank.
+	 * @param rank
+	 * The combination's rank in the range [0..count()).
+	 * @return
+	 * A new Collection of the combination's items.
+	 */
+	public Collection<T> get(long rank) {
+		return getElement(unrank(rank, new int[size]));
+	}
+	
+	/**
+	 * Limits iteration to a range of ranks.  The range applies to every
+	 * iterator() and spliterator() that follows, so a schedule built from the
+	 * combinations can be divided into parts or resumed partway through.
+	 * @param from
+	 * The rank of the first combination to produce.
+	 * @param to
+	 * The rank after the last combination to produce.
+	 * @return
+	 * This instance.
+	 */
+	public Combinations<T> range(long from, long to) {
+		long count = count();
+		if (from < 0 || from > to || to > count) {
+			throw new IndexOutOfBoundsException(
+				String.format("[%d..%d) of %d", from, to, count)
+			);
+		}
+		start = from;
+		end = to;
+		return this;
+	}
+	
+	/**
+	 * Returns the rank of a combination.
+	 * @param indices
+	 * The positions of the combination's items, in increasing order.
+	 * @return
+	 * The combination's rank.
+	 */
+	public long rank(int[] indices) {
+		// Reversing every position turns lexicographic order into the
+		// combinatorial number system's, which counts down from the last rank.
+		long count = count();
+		long[][] choose = getChoose();
+		long complement = 0;
+		for (int i = 0; i < size; ++i) {
+			complement += choose[N - 1 - indices[i]][size - i];
+		}
+		return count - 1 - complement;
+	}
+	
+	/**
+	 * Returns the positions of the items in the next combination.  This
+	 * advances the iteration just as next() does, but it builds no Collection.
+	 * @return
+	 * An array of the positions in increasing order.  The same array is
+	 * reused by the next call, so it must be copied to be kept.
+	 */
+	public int[] nextIndices() {
 		if (!hasNext()) {
 			throw new NoSuchElementException();
 		}
 		
-		List<T> next = new ArrayList<>();
+		System.arraycopy(indices, 0, view, 0, size);
+		more = (++position != end && step(indices));
+		return view;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return indices != null && more;
+	}
+	
+	@Override
+	public Collection<T> next() {
+		return getElement(nextIndices());
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	
+	@Override
+	public Iterator<Collection<T>> iterator() {
+		indices = new int[size];
+		view = new int[size];
+		position = start;
+		more = (position != end && size <= N);
+		if (position == 0) {
+			// The first combination needs no ranks, so plain iteration never
+			// computes the binomial coefficients.
+			for (int i = 0; i < size; ++i) {
+				indices[i] = i;
+			}
+		} else if (more) {
+			unrank(position, indices);
+		}
+		return this;
+	}
+	
+	@Override
+	public Spliterator<Collection<T>> spliterator() {
+		return new RankSpliterator<>(
+			this,
+			start,
+			end == ALL ? count() : end,
+			true
+		);
+	}
+	
+	@Override
+	public int getWidth() {
+		return size;
+	}
+	
+	@Override
+	public Collection<T> getElement(int[] indices) {
+		List<T> element = new ArrayList<>(size);
 		for (int i = 0; i < size; ++i) {
-			next.add(items.get(indices[i]));
+			element.add(items.get(indices[i]));
 		}
-		
+		return element;
+	}
+	
+	@Override
+	public boolean step(int[] indices) {
 		int j = 1;
 		while (j <= size && (++indices[size - j]) > N - j) {
 			++j;
@@ -64,24 +223,66 @@ implements Iterable<Collection<T>>, Iterator<Collection<T>> {
 		for (int i = Math.max(1, size - j + 1); i < size; ++i) {
 			indices[i] = indices[i - 1] + 1;
 		}
-		
-		return next;
-	}
-
-	@Override
-	public void remove() {
-		throw new UnsupportedOperationException();
+		return j <= size;
 	}
-
+	
 	@Override
-	public Iterator<Collection<T>> iterator() {
-		indices = new int[size];
+	public int[] unrank(long rank, int[] indices) {
+		long count = count();
+		long[][] choose = getChoose();
+		if (rank < 0 || rank >= count) {
+			throw new IndexOutOfBoundsException(
+				String.format("%d of %d", rank, count)
+			);
+		}
+		
+		// Write the complement of the rank in the combinatorial number system,
+		// taking the largest coefficient that fits at each place, then reverse
+		// the positions back.
+		long complement = count - 1 - rank;
+		int n = N;
 		for (int i = 0; i < size; ++i) {
-			indices[i] = i;
+			do {
+				--n;
+			} while (choose[n][size - i] > complement);
+			complement -= choose[n][size - i];
+			indices[i] = N - 1 - n;
 		}
-		return this;
+		return indices;
 	}
 	
+	//******************* Protected and Private Interface ********************//
+	/**
+	 * Returns the binomial coefficients that ranking needs, computing them the
+	 * first time they are needed.  They come from Pascal's triangle, cut off
+	 * at the combination size.  A coefficient too large for a long is stored
+	 * as Long.MAX_VALUE: ranking never uses one that is larger than the count,
+	 * so only count() has to check for it.
+	 * @return
+	 * The coefficients C(n, k) for n in [0..N] and k in [0..size].
+	 */
+	private long[][] getChoose() {
+		if (choose == null) {
+			long[][] c = new long[N + 1][size + 1];
+			for (int n = 0; n <= N; ++n) {
+				c[n][0] = 1;
+				for (int k = 1; k <= Math.min(n, size); ++k) {
+					long sum = c[n - 1][k - 1] + c[n - 1][k];
+					c[n][k] = (sum < 0 ? Long.MAX_VALUE : sum);
+				}
+			}
+			choose = c;
+		}
+		return choose;
+	}
+	
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The end of the range that has not been limited by range(), which runs
+	 * through the last combination.
+	 */
+	private static final long ALL = -1;
+	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * Calls the Combinations constructor with the passed arguments and returns
@@ -5,11 +5,22 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,6 +28,8 @@ import com.sadakatsu.clue.contestserver.Player;
 import com.sadakatsu.clue.exception.DuplicateIdentifier;
 import com.sadakatsu.clue.exception.ProtocolViolation;
 import com.sadakatsu.clue.exception.TimeoutViolation;
+import com.sadakatsu.clue.transport.SharedMemoryConnection;
+import com.sadakatsu.clue.transport.UnixListener;
 
 public class EntryScript {
 	public static Map<String, Player> process(
@@ -24,11 +37,45 @@ public class EntryScript {
 		ServerSocket socket,
 		boolean saveProcessOutput
 	)
+	throws FileNotFoundException, IOException, DuplicateIdentifier {
+		return process(filename, socket, saveProcessOutput, null);
+	}
+	
+	/**
+	 * Launches every entry in the passed file and waits for each to connect.
+	 * @param filename
+	 * The file listing one launch command per line.  The identifier must be
+	 * wrapped with curly braces, and "%%" is replaced by the server's port.
+	 * An entry that supports Unix domain sockets may use "%unix%" instead,
+	 * which is replaced by the path of the server's socket file.  A Java entry
+	 * on the same host may use "%shm%", which is replaced by the address of a
+	 * new SharedMemoryConnection.
+	 * @param socket
+	 * The ServerSocket through which the entries connect.
+	 * @param saveProcessOutput
+	 * Whether to save each entry's output to "output_<identifier>.txt".
+	 * @param cores
+	 * The CPU cores to which every launched process is pinned with "taskset",
+	 * or null if the processes may run on any core.
+	 * @return
+	 * A Map from each identifier to its Player, which is null if the entry
+	 * failed to start.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 */
+	public static Map<String, Player> process(
+		File filename,
+		ServerSocket socket,
+		boolean saveProcessOutput,
+		int[] cores
+	)
 	throws FileNotFoundException, IOException, DuplicateIdentifier {
 		int portNumber = socket.getLocalPort(); 
 		Map<String, Player> players = new HashMap<>();
 		String portString = String.valueOf(portNumber);
 		
+		UnixListener unix = null;
 		try (
 			BufferedReader br = new BufferedReader(new FileReader(filename))
 		) {
@@ -53,9 +100,29 @@ public class EntryScript {
 				}
 				
 				line = matcher.replaceAll(identifier);
+				SharedMemoryConnection shared = null;
+				if (line.contains(SHM_PLACEHOLDER)) {
+					shared = SharedMemoryConnection.create();
+					line = line.replace(SHM_PLACEHOLDER, shared.getAddress());
+				}
+				boolean useUnix = line.contains(UNIX_PLACEHOLDER);
+				if (useUnix) {
+					if (unix == null) {
+						unix = new UnixListener();
+					}
+					line = line.replace(UNIX_PLACEHOLDER, unix.getPath());
+				}
 				line = line.replaceAll("%%", portString);
 				
-				ProcessBuilder pb = new ProcessBuilder(line.split(" "));
+				List<String> command = new ArrayList<>();
+				if (cores != null) {
+					command.add("taskset");
+					command.add("-c");
+					command.add(toCoreList(cores));
+				}
+				command.addAll(Arrays.asList(line.split(" ")));
+				
+				ProcessBuilder pb = new ProcessBuilder(command);
 				if (saveProcessOutput) {
 					File f = new File(
 						String.format("output_%s.txt", identifier)
@@ -66,23 +133,241 @@ public class EntryScript {
 					pb.redirectError(outputSwallowFile);
 					pb.redirectOutput(outputSwallowFile);
 				}
-				pb.start();
+				Process process = pb.start();
 				
 				try {
-					Socket s = socket.accept();
-					players.put(identifier, new Player(identifier, s));
+					Player player;
+					if (shared != null) {
+						player = new Player(identifier, shared, process);
+					} else if (useUnix) {
+						player = new Player(
+							identifier,
+							unix.accept(TimeoutViolation.TIMEOUT),
+							process
+						);
+					} else {
+						Socket s = socket.accept();
+						player = new Player(identifier, s, process);
+					}
+					players.put(identifier, player);
 				} catch (
 					ProtocolViolation |
 					TimeoutViolation  |
 					SocketTimeoutException e
 				) {
 					players.put(identifier, null);
+					if (shared != null) {
+						shared.close();
+					}
 				}
 			}
+		} finally {
+			// Accepted connections outlive the listener, so the socket file
+			// need not stay around.
+			if (unix != null) {
+				unix.close();
+			}
 		}
 		
 		return players;
 	}
 	
+	/**
+	 * Computes a fingerprint of every entry in the passed file, which changes
+	 * whenever the entry's launch command or the files it launches change.
+	 * The fingerprint is the SHA-256 hash of the launch command (with the
+	 * transport placeholders made alike, since the transport does not change
+	 * how an entry plays) and of the files the command names:
+	 * - every argument, or element of a path-separated argument, that names an
+	 *   existing regular file, such as a jar or a script
+	 * - the ".class" files under every directory of a class path given with
+	 *   "-cp", "-classpath", or "--class-path", and the jars of every "dir/*"
+	 *   element of one
+	 * Other directories are not hashed, so an entry launched from a directory
+	 * that also holds the server's output (such as "-cp .") is not changed by
+	 * every contest.  Programs that are found on the PATH, such as "java"
+	 * itself, are not hashed.
+	 * @param filename
+	 * The file listing one launch command per line, as for process().
+	 * @return
+	 * A Map from each identifier to its fingerprint in hexadecimal.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 * @throws DuplicateIdentifier
+	 */
+	public static Map<String, String> fingerprint(File filename)
+	throws FileNotFoundException, IOException, DuplicateIdentifier {
+		Map<String, String> fingerprints = new HashMap<>();
+		try (
+			BufferedReader br = new BufferedReader(new FileReader(filename))
+		) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				Matcher matcher = IDENTIFIER.matcher(line);
+				if (!matcher.find()) {
+					throw new IllegalStateException(
+						"The identifier must be wrapped with curly braces."
+					);
+				}
+				
+				String identifier = matcher.group(1);
+				if (fingerprints.containsKey(identifier)) {
+					throw new DuplicateIdentifier(identifier);
+				}
+				
+				line = line
+					.replace(SHM_PLACEHOLDER, "%%")
+					.replace(UNIX_PLACEHOLDER, "%%");
+				MessageDigest digest = newDigest();
+				digest.update(line.getBytes(StandardCharsets.UTF_8));
+				String[] arguments = line.split(" ");
+				for (int i = 0; i < arguments.length; ++i) {
+					boolean classPath = (
+						i > 0 && CLASS_PATH_OPTIONS.contains(arguments[i - 1])
+					);
+					for (String part : arguments[i].split(File.pathSeparator)) {
+						if (!part.isEmpty()) {
+							hashPart(digest, part, classPath);
+						}
+					}
+				}
+				fingerprints.put(identifier, toHex(digest.digest()));
+			}
+		}
+		return fingerprints;
+	}
+	
+	/**
+	 * Adds the files named by one element of a launch command to a
+	 * MessageDigest, following the rules described by fingerprint().
+	 * @param digest
+	 * The MessageDigest to update.
+	 * @param part
+	 * An argument of the command, or an element of a path-separated argument.
+	 * @param classPath
+	 * Whether the part is an element of a class path.
+	 * @throws IOException
+	 */
+	private static void hashPart(
+		MessageDigest digest,
+		String part,
+		boolean classPath
+	) throws IOException {
+		Path path = new File(part).toPath();
+		if (Files.isRegularFile(path)) {
+			hashPath(digest, path, "", false);
+		} else if (classPath && Files.isDirectory(path)) {
+			hashPath(digest, path, ".class", true);
+		} else if (classPath && part.endsWith(CLASS_PATH_WILDCARD)) {
+			Path directory = new File(
+				part.substring(0, part.length() - CLASS_PATH_WILDCARD.length())
+			).toPath();
+			if (Files.isDirectory(directory)) {
+				hashPath(digest, directory, ".jar", false);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the contents of a file, or of the files with a given extension
+	 * under a directory, to a MessageDigest.  Each file's path relative to the
+	 * passed path is hashed before its contents, and the files are visited in
+	 * sorted order, so the result does not depend on where the path is or on
+	 * the file system's listing order.
+	 * @param digest
+	 * The MessageDigest to update.
+	 * @param root
+	 * The file or directory to hash.
+	 * @param extension
+	 * The extension of the files to hash under a directory, such as ".class".
+	 * @param recursive
+	 * Whether to hash the files in the directory's subdirectories too.
+	 * @throws IOException
+	 */
+	private static void hashPath(
+		MessageDigest digest,
+		Path root,
+		String extension,
+		boolean recursive
+	) throws IOException {
+		List<Path> files;
+		int depth = (recursive ? Integer.MAX_VALUE : 1);
+		try (Stream<Path> walk = Files.walk(root, depth)) {
+			files = walk
+				.filter(Files::isRegularFile)
+				.filter(f -> f.toString().endsWith(extension))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+		
+		byte[] buffer = new byte[65536];
+		for (Path f : files) {
+			digest.update(
+				root.relativize(f).toString().getBytes(StandardCharsets.UTF_8)
+			);
+			digest.update((byte) 0);
+			try (InputStream in = Files.newInputStream(f)) {
+				int read;
+				while ((read = in.read(buffer)) > 0) {
+					digest.update(buffer, 0, read);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return
+	 * A new SHA-256 MessageDigest.
+	 */
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Formats bytes as a lowercase hexadecimal String.
+	 * @param bytes
+	 * The bytes to format.
+	 * @return
+	 * Two hexadecimal digits per byte.
+	 */
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Formats CPU core numbers as a list "taskset -c" accepts.
+	 * @param cores
+	 * The core numbers.
+	 * @return
+	 * A comma-separated String of the core numbers.
+	 */
+	private static String toCoreList(int[] cores) {
+		StringBuilder sb = new StringBuilder();
+		for (int core : cores) {
+			if (sb.length() > 0) {
+				sb.append(",");
+			}
+			sb.append(core);
+		}
+		return sb.toString();
+	}
+	
+	private static final String CLASS_PATH_WILDCARD = File.separator + "*";
+	private static final List<String> CLASS_PATH_OPTIONS = Arrays.asList(
+		"-cp",
+		"-classpath",
+		"--class-path"
+	);
+	private static final String SHM_PLACEHOLDER = "%shm%";
+	private static final String UNIX_PLACEHOLDER = "%unix%";
 	private static final Pattern IDENTIFIER = Pattern.compile("\\{([^}]+)\\}");
 }
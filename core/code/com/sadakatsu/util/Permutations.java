@@ -2,22 +2,51 @@ package com.sadakatsu.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 /**
  * The Permutations class provides lazy iteration through all possible
  * permutations of items in a Collection.
  * 
+ * The permutations are produced in lexicographic order of the items'
+ * positions, and each has a rank: its place in that order, counting from 0.
+ * Ranks convert to and from permutations directly (through the Lehmer code),
+ * so an iteration can be limited to a range of ranks and started anywhere in
+ * it without walking the permutations before it.  The spliterator() splits
+ * its range of ranks the same way, which lets a stream of the permutations be
+ * divided among threads.
+ * 
+ * Callers that only need the items' positions can use nextIndices(), which
+ * reuses one array instead of building a List for every permutation.
+ * 
+ * Plain iteration stays lazy: the factorials that ranks need are only
+ * computed the first time a rank is used.  With more than 20 items the count
+ * of permutations does not fit in a long, so count(), get(), range(), rank(),
+ * and spliterator() throw an ArithmeticException, but iterator() still walks
+ * every permutation.
+ * 
  * @author Joseph A. Craig
  */
 public class Permutations<T>
-implements Iterable<List<T>>, Iterator<List<T>> {
+implements
+	Iterable<List<T>>,
+	Iterator<List<T>>,
+	RankSpliterator.Ranked<List<T>>
+{
 	//********************* Protected and Private Fields *********************//
 	private final int N;
+	private boolean more;
+	private long[] factorials;
 	private int indices[];
+	private int view[];
 	private final List<T> items;
+	private long end;
+	private long position;
+	private long start;
 	
 	//*************************** Public Interface ***************************//
 	/**
@@ -29,90 +58,257 @@ implements Iterable<List<T>>, Iterator<List<T>> {
 	public Permutations(Collection<T> values) {
 		items = new ArrayList<>(values);
 		N = items.size();
+		start = 0;
+		end = ALL;
 	}
 	
-	@Override
-	public boolean hasNext() {
-		return indices != null;
+	/**
+	 * @return
+	 * The number of permutations.
+	 * @throws ArithmeticException
+	 * If the number does not fit in a long.
+	 */
+	public long count() {
+		return getFactorials()[N];
 	}
-
-	@Override
-	public List<T> next() {
-		if (!hasNext()) {
-			throw new NoSuchElementException();
+	
+	/**
+	 * Returns the permutation with a given rank.
+	 * @param rank
+	 * The permutation's rank in the range [0..count()).
+	 * @return
+	 * A new List of the permutation's items.
+	 */
+	public List<T> get(long rank) {
+		return getElement(unrank(rank, new int[N]));
+	}
+	
+	/**
+	 * Limits iteration to a range of ranks.  The range applies to every
+	 * iterator() and spliterator() that follows, so a schedule built from the
+	 * permutations can be divided into parts or resumed partway through.
+	 * @param from
+	 * The rank of the first permutation to produce.
+	 * @param to
+	 * The rank after the last permutation to produce.
+	 * @return
+	 * This instance.
+	 */
+	public Permutations<T> range(long from, long to) {
+		long count = count();
+		if (from < 0 || from > to || to > count) {
+			throw new IndexOutOfBoundsException(
+				String.format("[%d..%d) of %d", from, to, count)
+			);
 		}
-		
-		List<T> next = new ArrayList<>();
+		start = from;
+		end = to;
+		return this;
+	}
+	
+	/**
+	 * Returns the rank of a permutation.
+	 * @param indices
+	 * The positions of the permutation's items, in its order.
+	 * @return
+	 * The permutation's rank.
+	 */
+	public long rank(int[] indices) {
+		// Each digit of the Lehmer code counts the later positions that are
+		// smaller, and it is worth the number of ways to order those places.
+		long[] factorials = getFactorials();
+		long rank = 0;
 		for (int i = 0; i < N; ++i) {
-			next.add(items.get(indices[i]));
-		}
-		
-		// This algorithm is based on the "next permutation" algorithm shown in
-		// http://stackoverflow.com/questions/352203/generating-permutations-lazily .
-		// It is taken from the C++ STL.
-		if (N <= 1) {
-			indices = null;
-		} else {
-			boolean stopped = false;
-			int i = N - 1;
-			while (!stopped) {
-				int ii = i--;
-				if (i < 0) {
-					indices = null;
-					stopped = true;
-				} else if (indices[i] < indices[ii]) {
-					int j = N;
-					while (!(indices[i] < indices[--j])) {}
-					swapIndices(i, j);
-					reverseIndices(ii);
-					stopped = true;
+			int smaller = 0;
+			for (int j = i + 1; j < N; ++j) {
+				if (indices[j] < indices[i]) {
+					++smaller;
 				}
 			}
+			rank += smaller * factorials[N - 1 - i];
+		}
+		return rank;
+	}
+	
+	/**
+	 * Returns the positions of the items in the next permutation.  This
+	 * advances the iteration just as next() does, but it builds no List.
+	 * @return
+	 * An array of the positions in the permutation's order.  The same array
+	 * is reused by the next call, so it must be copied to be kept.
+	 */
+	public int[] nextIndices() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
 		}
 		
-		return next;
+		System.arraycopy(indices, 0, view, 0, N);
+		more = (++position != end && step(indices));
+		return view;
 	}
-
+	
+	@Override
+	public boolean hasNext() {
+		return indices != null && more;
+	}
+	
+	@Override
+	public List<T> next() {
+		return getElement(nextIndices());
+	}
+	
 	@Override
 	public void remove() {
 		throw new UnsupportedOperationException();
 	}
-
+	
 	@Override
 	public Iterator<List<T>> iterator() {
 		indices = new int[N];
-		for (int i = 0; i < N; ++i) {
-			indices[i] = i;
+		view = new int[N];
+		position = start;
+		more = (position != end);
+		if (position == 0) {
+			// The first permutation needs no ranks, so plain iteration never
+			// computes the factorials.
+			for (int i = 0; i < N; ++i) {
+				indices[i] = i;
+			}
+		} else if (more) {
+			unrank(position, indices);
 		}
 		return this;
 	}
 	
+	@Override
+	public Spliterator<List<T>> spliterator() {
+		return new RankSpliterator<>(
+			this,
+			start,
+			end == ALL ? count() : end,
+			new HashSet<>(items).size() == N
+		);
+	}
+	
+	@Override
+	public int getWidth() {
+		return N;
+	}
+	
+	@Override
+	public List<T> getElement(int[] indices) {
+		List<T> element = new ArrayList<>(N);
+		for (int i = 0; i < N; ++i) {
+			element.add(items.get(indices[i]));
+		}
+		return element;
+	}
+	
+	@Override
+	public boolean step(int[] indices) {
+		// This algorithm is based on the "next permutation" algorithm shown in
+		// http://stackoverflow.com/questions/352203/generating-permutations-lazily .
+		// It is taken from the C++ STL.
+		boolean stepped = false;
+		boolean stopped = false;
+		int i = N - 1;
+		while (!stopped) {
+			int ii = i--;
+			if (i < 0) {
+				stopped = true;
+			} else if (indices[i] < indices[ii]) {
+				int j = N;
+				while (!(indices[i] < indices[--j])) {}
+				swapIndices(indices, i, j);
+				reverseIndices(indices, ii);
+				stepped = true;
+				stopped = true;
+			}
+		}
+		return stepped;
+	}
+	
+	@Override
+	public int[] unrank(long rank, int[] indices) {
+		long[] factorials = getFactorials();
+		long count = factorials[N];
+		if (rank < 0 || rank >= count) {
+			throw new IndexOutOfBoundsException(
+				String.format("%d of %d", rank, count)
+			);
+		}
+		
+		// Read the Lehmer code's digits from the rank, each choosing among the
+		// positions not yet placed.
+		List<Integer> unused = new ArrayList<>(N);
+		for (int i = 0; i < N; ++i) {
+			unused.add(i);
+		}
+		for (int i = 0; i < N; ++i) {
+			long place = factorials[N - 1 - i];
+			indices[i] = unused.remove((int) (rank / place));
+			rank %= place;
+		}
+		return indices;
+	}
+	
 	//******************* Protected and Private Interface ********************//
+	/**
+	 * Returns the factorials that ranking needs, computing them the first
+	 * time they are needed.
+	 * @return
+	 * The factorials of 0 through N.
+	 * @throws ArithmeticException
+	 * If the factorial of N does not fit in a long.
+	 */
+	private long[] getFactorials() {
+		if (factorials == null) {
+			long[] f = new long[N + 1];
+			f[0] = 1;
+			for (int n = 1; n <= N; ++n) {
+				f[n] = Math.multiplyExact(f[n - 1], n);
+			}
+			factorials = f;
+		}
+		return factorials;
+	}
+	
 	/**
 	 * Reverses the order of all indices starting with the passed index through
 	 * the last index.
+	 * @param indices
+	 * The indices to reorder.
 	 * @param start
 	 * The index at which to start the reversal.
 	 */
-	private void reverseIndices(int start) {
+	private void reverseIndices(int[] indices, int start) {
 		for (int end = N - 1; start < end; ++start, --end) {
-			swapIndices(start, end);
+			swapIndices(indices, start, end);
 		}
 	}
 	
 	/**
 	 * Swaps two indices.
+	 * @param indices
+	 * The indices to reorder.
 	 * @param i
 	 * The position of the first index to swap.
 	 * @param j
 	 * The position of the second index to swap.
 	 */
-	private void swapIndices(int i, int j) {
+	private void swapIndices(int[] indices, int i, int j) {
 		int swap = indices[i];
 		indices[i] = indices[j];
 		indices[j] = swap;
 	}
 	
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The end of the range that has not been limited by range(), which runs
+	 * through the last permutation.
+	 */
+	private static final long ALL = -1;
+	
 	//*********************** Public Static Interface ************************//
 	/**
 	 * Calls the Permutations constructor with the passed arguments and returns
@@ -0,0 +1,225 @@
+package com.sadakatsu.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * The ProcessUsage class is a snapshot of the resources an operating system
+ * process is using, read from the Linux "/proc" file system.  The CPU time
+ * comes from "/proc/<pid>/stat"; the resident set size and thread count come
+ * from "/proc/<pid>/status".  On systems without "/proc", no snapshot can be
+ * taken.
+ *
+ * @author Joseph A. Craig
+ */
+public class ProcessUsage {
+	//********************* Protected and Private Fields *********************//
+	private final int threads;
+	private final long cpuNanos;
+	private final long rssKiB;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new ProcessUsage snapshot.
+	 * @param cpuNanos
+	 * The user plus system CPU time consumed, in nanoseconds.
+	 * @param rssKiB
+	 * The resident set size in KiB.
+	 * @param threads
+	 * The number of threads.
+	 */
+	public ProcessUsage(long cpuNanos, long rssKiB, int threads) {
+		this.cpuNanos = cpuNanos;
+		this.rssKiB = rssKiB;
+		this.threads = threads;
+	}
+
+	/**
+	 * @return
+	 * The user plus system CPU time consumed, in nanoseconds.
+	 */
+	public long getCpuNanos() {
+		return cpuNanos;
+	}
+
+	/**
+	 * @return
+	 * The resident set size in KiB.
+	 */
+	public long getRssKiB() {
+		return rssKiB;
+	}
+
+	/**
+	 * @return
+	 * The number of threads.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Returns the sum of this snapshot and the passed one.  This is used to
+	 * combine a process with its descendants.
+	 * @param other
+	 * The snapshot to add.
+	 * @return
+	 * A new ProcessUsage holding the sums of both snapshots' values.
+	 */
+	public ProcessUsage plus(ProcessUsage other) {
+		return new ProcessUsage(
+			cpuNanos + other.cpuNanos,
+			rssKiB + other.rssKiB,
+			threads + other.threads
+		);
+	}
+
+	/**
+	 * Returns a user-friendly description of this snapshot.
+	 */
+	@Override
+	public String toString() {
+		return String.format(
+			"ProcessUsage{cpu=%d ms, rss=%d KiB, threads=%d}",
+				cpuNanos / 1000000,
+				rssKiB,
+				threads
+		);
+	}
+
+	//*********************** Public Static Interface ************************//
+	/**
+	 * Determines whether this system exposes process statistics in "/proc".
+	 * @return
+	 * true if ProcessUsage snapshots can be read, false otherwise.
+	 */
+	public static boolean isSupported() {
+		return Files.isReadable(Paths.get("/proc/self/stat"));
+	}
+
+	/**
+	 * Reads the usage of a single process.
+	 * @param pid
+	 * The process identifier.
+	 * @return
+	 * The snapshot, or null if the process does not exist (any more) or its
+	 * statistics could not be read.
+	 */
+	public static ProcessUsage read(long pid) {
+		ProcessUsage usage = null;
+		try {
+			Path dir = Paths.get("/proc", String.valueOf(pid));
+			long cpuNanos = readCpuNanos(dir.resolve("stat"));
+			long rssKiB = 0;
+			int threads = 0;
+			for (
+				String line :
+				Files.readAllLines(
+					dir.resolve("status"),
+					StandardCharsets.US_ASCII
+				)
+			) {
+				if (line.startsWith("VmRSS:")) {
+					rssKiB = Long.parseLong(
+						line.substring(6).replace("kB", "").trim()
+					);
+				} else if (line.startsWith("Threads:")) {
+					threads = Integer.parseInt(line.substring(8).trim());
+				}
+			}
+			usage = new ProcessUsage(cpuNanos, rssKiB, threads);
+		} catch (IOException | RuntimeException e) {
+			// The process has exited or /proc is unavailable.
+		}
+		return usage;
+	}
+
+	/**
+	 * Reads only the CPU time a single process has consumed.  This is cheaper
+	 * than read() because it does not parse "/proc/<pid>/status".
+	 * @param pid
+	 * The process identifier.
+	 * @return
+	 * The user plus system CPU time in nanoseconds, or -1 if it could not be
+	 * read.
+	 */
+	public static long readCpuNanos(long pid) {
+		long cpuNanos = -1;
+		try {
+			cpuNanos = readCpuNanos(
+				Paths.get("/proc", String.valueOf(pid), "stat")
+			);
+		} catch (IOException | RuntimeException e) {
+			// The process has exited or /proc is unavailable.
+		}
+		return cpuNanos;
+	}
+
+	/**
+	 * Reads the combined usage of a process and all its living descendants.
+	 * Entries that are launched through wrapper programs or that fork helpers
+	 * are thereby charged for everything they run.
+	 * @param process
+	 * The root of the process tree.
+	 * @return
+	 * The summed snapshot, or null if the root process could not be read.
+	 */
+	public static ProcessUsage readTree(ProcessHandle process) {
+		ProcessUsage usage = read(process.pid());
+		if (usage != null) {
+			Iterator<ProcessHandle> descendants =
+				process.descendants().iterator();
+			while (descendants.hasNext()) {
+				ProcessUsage child = read(descendants.next().pid());
+				if (child != null) {
+					usage = usage.plus(child);
+				}
+			}
+		}
+		return usage;
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	/**
+	 * The number of nanoseconds in one clock tick of the CPU time fields of
+	 * "/proc/<pid>/stat".  Linux reports these in USER_HZ, which is 100 on
+	 * every mainstream architecture.
+	 */
+	private static final long NANOS_PER_TICK = 10000000L;
+
+	/**
+	 * The positions of utime and stime among the fields that follow the
+	 * parenthesized command name in "/proc/<pid>/stat".
+	 */
+	private static final int UTIME_FIELD = 11;
+	private static final int STIME_FIELD = 12;
+
+	//**************** Protected and Private Static Interface ****************//
+	/**
+	 * Parses the user and system CPU time out of a "/proc/<pid>/stat" file.
+	 * The command name may contain spaces and parentheses, so the fields are
+	 * counted from the last closing parenthesis.
+	 * @param stat
+	 * The path to the stat file.
+	 * @return
+	 * The CPU time in nanoseconds.
+	 * @throws IOException
+	 */
+	private static long readCpuNanos(Path stat) throws IOException {
+		String content = new String(
+			Files.readAllBytes(stat),
+			StandardCharsets.US_ASCII
+		);
+		String[] fields = content
+			.substring(content.lastIndexOf(')') + 2)
+			.split(" ");
+		long ticks =
+			Long.parseLong(fields[UTIME_FIELD]) +
+			Long.parseLong(fields[STIME_FIELD]);
+		return ticks * NANOS_PER_TICK;
+	}
+}
@@ -0,0 +1,145 @@
+package com.sadakatsu.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A RankSpliterator walks a range of ranks of a Ranked sequence, such as the
+ * Combinations or Permutations of some items.  It splits by halving its range
+ * of ranks, so every split costs one unranking instead of a walk through the
+ * elements before it, and the halves can be handed to different threads.
+ *
+ * Between steps it advances a single array of indices in place, so the only
+ * allocation per element is the element that the Ranked sequence builds.
+ *
+ * @author Joseph A. Craig
+ */
+class RankSpliterator<E> implements Spliterator<E> {
+	//********************* Protected and Private Fields *********************//
+	private final boolean distinct;
+	private final Ranked<E> source;
+	private int[] indices;
+	private long end;
+	private long position;
+	
+	//*************************** Public Interface ***************************//
+	/**
+	 * Instantiates a new RankSpliterator.
+	 * @param source
+	 * The sequence whose elements to walk.
+	 * @param start
+	 * The rank of the first element to walk.
+	 * @param end
+	 * The rank after the last element to walk.
+	 * @param distinct
+	 * Whether no two of the source's elements are equal.
+	 */
+	RankSpliterator(Ranked<E> source, long start, long end, boolean distinct) {
+		this.distinct = distinct;
+		this.source = source;
+		this.end = end;
+		position = start;
+	}
+	
+	@Override
+	public int characteristics() {
+		return (
+			(distinct ? Spliterator.DISTINCT : 0) |
+			Spliterator.IMMUTABLE |
+			Spliterator.NONNULL |
+			Spliterator.ORDERED |
+			Spliterator.SIZED |
+			Spliterator.SUBSIZED
+		);
+	}
+	
+	@Override
+	public long estimateSize() {
+		return end - position;
+	}
+	
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		while (tryAdvance(action)) {}
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super E> action) {
+		if (position >= end) {
+			return false;
+		}
+		
+		if (indices == null) {
+			indices = source.unrank(position, new int[source.getWidth()]);
+		}
+		E element = source.getElement(indices);
+		if (++position < end) {
+			source.step(indices);
+		}
+		action.accept(element);
+		return true;
+	}
+	
+	@Override
+	public Spliterator<E> trySplit() {
+		long middle = position + (end - position) / 2;
+		if (middle == position) {
+			return null;
+		}
+		
+		// The prefix keeps this instance's place; this instance jumps ahead.
+		RankSpliterator<E> prefix = new RankSpliterator<>(
+			source,
+			position,
+			middle,
+			distinct
+		);
+		prefix.indices = indices;
+		indices = null;
+		position = middle;
+		return prefix;
+	}
+	
+	//*********************** Package-Private Interface **********************//
+	/**
+	 * A Ranked sequence numbers its elements from 0 and can convert between
+	 * an element's rank and the array of item indices it is built from.
+	 */
+	interface Ranked<E> {
+		/**
+		 * @return
+		 * The length of the arrays of indices.
+		 */
+		int getWidth();
+		
+		/**
+		 * Builds the element described by an array of indices.
+		 * @param indices
+		 * The element's indices.
+		 * @return
+		 * A new element.
+		 */
+		E getElement(int[] indices);
+		
+		/**
+		 * Overwrites an array of indices with those of the next element.
+		 * @param indices
+		 * The indices of an element.
+		 * @return
+		 * false if the element was the last one, in which case the contents
+		 * of the array are unspecified, true otherwise.
+		 */
+		boolean step(int[] indices);
+		
+		/**
+		 * Writes the indices of the element with a given rank.
+		 * @param rank
+		 * The element's rank.
+		 * @param indices
+		 * The array to fill.
+		 * @return
+		 * The passed array.
+		 */
+		int[] unrank(long rank, int[] indices);
+	}
+}
@@ -0,0 +1,119 @@
+package com.sadakatsu.clue.ai;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sadakatsu.clue.bench.DecisionStates;
+import com.sadakatsu.clue.bench.Replayer;
+import com.sadakatsu.clue.cards.Suggestion;
+import com.sadakatsu.clue.exception.ClueException;
+
+/**
+ * SpockDecisionBenchmark measures how long SpockAI takes to choose a
+ * Suggestion, which is the decision that decides whether it keeps to the
+ * contest's time limit.  Before every measurement a new SpockAI is put into a
+ * recorded situation (see DecisionStates) by replaying its messages through
+ * its own message loop, and then a single call to suggest() is timed.  Each
+ * iteration uses the next of the recorded situations, so the score is the
+ * time of a typical decision at the given table size and point in the game.
+ *
+ * @author Joseph A. Craig
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class SpockDecisionBenchmark {
+	//********************* Protected and Private Fields *********************//
+	private int next;
+	private List<List<String>> states;
+	private SpockAI ai;
+
+	/**
+	 * The number of players at the table.
+	 */
+	@Param({"3", "4", "5", "6"})
+	public int players;
+
+	/**
+	 * The point in the game at which SpockAI makes the decision.
+	 */
+	@Param({"EARLY", "MIDDLE", "LATE"})
+	public DecisionStates.Phase phase;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Records the situations to decide in.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	@Setup(Level.Trial)
+	public void record() throws ClueException, IOException {
+		states = DecisionStates.record(players, phase, SEED, STATES);
+		next = 0;
+	}
+
+	/**
+	 * Puts a new SpockAI into the next recorded situation.  The replay ends by
+	 * closing the connection rather than with "done", which would shut down
+	 * the thread pool that suggest() uses.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Setup(Level.Iteration)
+	public void replay() throws IOException, InterruptedException {
+		List<String> messages = states.get(next++ % states.size());
+		SpockAI[] launched = new SpockAI[1];
+		Replayer.replay(
+			messages,
+			null,
+			(port) -> {
+				launched[0] = new SpockAI("SpockAI", port, false);
+				try {
+					launched[0].run();
+				} catch (IOException e) {
+					// The replay is over.
+				}
+			}
+		);
+		ai = launched[0];
+	}
+
+	/**
+	 * @return
+	 * The Suggestion SpockAI chooses.
+	 */
+	@Benchmark
+	public Suggestion suggest() {
+		return ai.suggest();
+	}
+
+	/**
+	 * Shuts down the SpockAI's thread pool.
+	 */
+	@TearDown(Level.Iteration)
+	public void cleanUp() {
+		ai.cleanUp();
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final int STATES = 10;
+	private static final long SEED = 0x5EEDL;
+}
@@ -0,0 +1,108 @@
+package org.cheddarmonk.cluedoai;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.cheddarmonk.cluedoai.AbstractCluedoPlayer.Suggestion;
+
+import com.sadakatsu.clue.bench.DecisionStates;
+import com.sadakatsu.clue.bench.Replayer;
+import com.sadakatsu.clue.exception.ClueException;
+
+/**
+ * InferenceDecisionBenchmark measures how long InferencePlayer takes to
+ * choose a Suggestion.  Before every measurement a new InferencePlayer is put
+ * into a recorded situation (see DecisionStates) by replaying its messages
+ * through its own message loop, and then a single call to makeSuggestion() is
+ * timed.  Each iteration uses the next of the recorded situations, so the
+ * score is the time of a typical decision at the given table size and point
+ * in the game.
+ *
+ * This class lives in the player's package because makeSuggestion() and
+ * run() are protected.
+ *
+ * @author Joseph A. Craig
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+@State(Scope.Thread)
+public class InferenceDecisionBenchmark {
+	//********************* Protected and Private Fields *********************//
+	private int next;
+	private List<List<String>> states;
+	private InferencePlayer player;
+
+	/**
+	 * The number of players at the table.
+	 */
+	@Param({"3", "4", "5", "6"})
+	public int players;
+
+	/**
+	 * The point in the game at which InferencePlayer makes the decision.
+	 */
+	@Param({"EARLY", "MIDDLE", "LATE"})
+	public DecisionStates.Phase phase;
+
+	//*************************** Public Interface ***************************//
+	/**
+	 * Records the situations to decide in.
+	 * @throws ClueException
+	 * @throws IOException
+	 */
+	@Setup(Level.Trial)
+	public void record() throws ClueException, IOException {
+		states = DecisionStates.record(players, phase, SEED, STATES);
+		next = 0;
+	}
+
+	/**
+	 * Puts a new InferencePlayer into the next recorded situation.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Setup(Level.Iteration)
+	public void replay() throws IOException, InterruptedException {
+		List<String> messages = states.get(next++ % states.size());
+		InferencePlayer[] launched = new InferencePlayer[1];
+		Replayer.replay(
+			messages,
+			"done",
+			(port) -> {
+				launched[0] = new InferencePlayer("InferencePlayer", port);
+				launched[0].run();
+			}
+		);
+		player = launched[0];
+	}
+
+	/**
+	 * @return
+	 * The Suggestion InferencePlayer chooses.
+	 */
+	@Benchmark
+	public Suggestion makeSuggestion() {
+		return player.makeSuggestion();
+	}
+
+	//***************** Protected and Private Static Fields ******************//
+	private static final int STATES = 60;
+	private static final long SEED = 0x5EEDL;
+}